@@ -0,0 +1,15 @@
+package cn.lazylhxzzy.resume_commit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 当前用户注解
+ * 标注在UserContext类型的控制器参数上，注入当前登录用户，未登录时为null
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
@@ -0,0 +1,15 @@
+package cn.lazylhxzzy.resume_commit.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 敏感数据注解
+ * 标在DTO字段或方法参数上，记录请求参数日志时只输出***
+ */
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Sensitive {
+}
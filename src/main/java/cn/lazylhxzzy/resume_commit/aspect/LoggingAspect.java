@@ -1,7 +1,10 @@
 package cn.lazylhxzzy.resume_commit.aspect;
 
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
+import cn.lazylhxzzy.resume_commit.service.impl.LogCapturePolicy;
 import cn.lazylhxzzy.resume_commit.util.LogUtil;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import cn.lazylhxzzy.resume_commit.util.ParameterCapture;
+import cn.lazylhxzzy.resume_commit.util.UserContextHolder;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -11,6 +14,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,7 +35,10 @@ public class LoggingAspect {
     private LogUtil logUtil;
     
     @Autowired
-    private ObjectMapper objectMapper;
+    private ParameterCapture parameterCapture;
+    
+    @Autowired
+    private LogCapturePolicy logCapturePolicy;
     
     /**
      * 环绕通知：记录API调用日志
@@ -39,7 +46,8 @@ public class LoggingAspect {
     @Around("execution(* cn.lazylhxzzy.resume_commit.controller.*.*(..))")
     public Object logApiCall(ProceedingJoinPoint joinPoint) throws Throwable {
         long startTime = System.currentTimeMillis();
-        String methodName = joinPoint.getSignature().getName();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String methodName = method.getName();
         String className = joinPoint.getTarget().getClass().getSimpleName();
         String module = className.replace("Controller", "");
         
@@ -47,12 +55,16 @@ public class LoggingAspect {
         HttpServletRequest request = getCurrentRequest();
         String requestMethod = request != null ? request.getMethod() : "UNKNOWN";
         String requestUrl = request != null ? request.getRequestURI() : "UNKNOWN";
-        String userAgent = request != null ? request.getHeader("User-Agent") : "UNKNOWN";
-        String ipAddress = getClientIpAddress(request);
-        
-        // 获取方法参数
+        UserContext context = UserContextHolder.get();
+        String userAgent = context != null ? context.getUserAgent() : "UNKNOWN";
+        String ipAddress = context != null ? context.getIpAddress() : "unknown";
+        Long userId = context != null ? context.getUserId() : null;
+        String username = context != null ? context.getUsername() : null;
+        
+        // 同一请求内使用同一份策略
+        LogCapturePolicy.Policy policy = logCapturePolicy.current();
+        boolean accessEnabled = policy.isEnabled(LogCapturePolicy.CATEGORY_ACCESS);
         Object[] args = joinPoint.getArgs();
-        String requestParams = serializeParameters(args);
         
         Object result = null;
         String errorMessage = null;
@@ -63,21 +75,22 @@ public class LoggingAspect {
             // 执行目标方法
             result = joinPoint.proceed();
             
-            // 记录成功日志
+            // 成功调用按采样率记录，慢调用始终记录；未采中时不捕获参数
             long executionTime = System.currentTimeMillis() - startTime;
-            logUtil.info(module, methodName, "API调用成功");
+            if (!policy.sampleSuccess(getEndpoint(request, requestUrl), executionTime)) {
+                return result;
+            }
             
-            // 记录访问日志
-            logUtil.logAccess(getCurrentUserId(), getCurrentUsername(), ipAddress, userAgent,
-                            requestMethod, requestUrl, requestParams, 200, executionTime,
-                            null, null, null, null);
+            if (policy.isEnabled(LogCapturePolicy.CATEGORY_SYSTEM) && policy.isLevelEnabled("INFO")) {
+                logUtil.info(module, methodName, "API调用成功");
+            }
             
-            // 记录性能日志
-            Map<String, Object> metrics = new HashMap<>();
-            metrics.put("execution_time", executionTime);
-            metrics.put("request_method", requestMethod);
-            metrics.put("request_url", requestUrl);
-            logUtil.performance(module, methodName, executionTime, metrics);
+            // 记录访问日志
+            if (accessEnabled) {
+                logUtil.logAccess(userId, username, ipAddress, userAgent,
+                                requestMethod, requestUrl, parameterCapture.capture(method, args), 200, executionTime,
+                                null, null, null, null);
+            }
             
         } catch (Exception e) {
             // 记录错误日志
@@ -87,9 +100,11 @@ public class LoggingAspect {
             responseCode = 500;
             
             // 记录访问日志（错误情况）
-            logUtil.logAccess(getCurrentUserId(), getCurrentUsername(), ipAddress, userAgent,
-                            requestMethod, requestUrl, requestParams, responseCode, executionTime,
-                            null, null, null, null);
+            if (accessEnabled) {
+                logUtil.logAccess(userId, username, ipAddress, userAgent,
+                                requestMethod, requestUrl, parameterCapture.capture(method, args), responseCode,
+                                executionTime, null, null, null, null);
+            }
             
             logUtil.error(module, methodName, "API_ERROR_001", errorMessage, stackTrace);
             
@@ -112,12 +127,16 @@ public class LoggingAspect {
         String className = joinPoint.getTarget().getClass().getSimpleName();
         String module = className.replace("ServiceImpl", "");
         
+        // 业务日志是数据变更的审计记录，不参与采样，只受类别开关控制
+        boolean businessEnabled = logCapturePolicy.current().isEnabled(LogCapturePolicy.CATEGORY_BUSINESS);
+        
         // 获取方法参数
-        Object[] args = joinPoint.getArgs();
         Map<String, Object> businessData = new HashMap<>();
-        businessData.put("method", methodName);
-        businessData.put("class", className);
-        businessData.put("parameters", serializeParameters(args));
+        if (businessEnabled) {
+            businessData.put("method", methodName);
+            businessData.put("class", className);
+            businessData.put("parameters", parameterCapture.capture(method, joinPoint.getArgs()));
+        }
         
         Object result = null;
         String errorMessage = null;
@@ -128,20 +147,22 @@ public class LoggingAspect {
             
             // 记录成功日志
             long executionTime = System.currentTimeMillis() - startTime;
-            businessData.put("execution_time", executionTime);
-            businessData.put("result", "SUCCESS");
-            
-            logUtil.business(methodName, "业务操作成功", businessData);
+            if (businessEnabled) {
+                businessData.put("execution_time", executionTime);
+                businessData.put("result", "SUCCESS");
+                logUtil.business(methodName, "业务操作成功", businessData);
+            }
             
         } catch (Exception e) {
             // 记录错误日志
             long executionTime = System.currentTimeMillis() - startTime;
             errorMessage = e.getMessage();
-            businessData.put("execution_time", executionTime);
-            businessData.put("result", "FAILED");
-            businessData.put("error", errorMessage);
-            
-            logUtil.business(methodName, "业务操作失败", businessData);
+            if (businessEnabled) {
+                businessData.put("execution_time", executionTime);
+                businessData.put("result", "FAILED");
+                businessData.put("error", errorMessage);
+                logUtil.business(methodName, "业务操作失败", businessData);
+            }
             logUtil.error(module, methodName, "BUSINESS_ERROR_001", errorMessage, getStackTrace(e));
             
             // 重新抛出异常
@@ -162,11 +183,6 @@ public class LoggingAspect {
         String className = joinPoint.getTarget().getClass().getSimpleName();
         String module = className.replace("ServiceImpl", "");
         
-        // 获取请求信息
-        HttpServletRequest request = getCurrentRequest();
-        String ipAddress = getClientIpAddress(request);
-        String userAgent = request != null ? request.getHeader("User-Agent") : "UNKNOWN";
-        
         Object result = null;
         String riskLevel = "LOW";
         
@@ -202,56 +218,11 @@ public class LoggingAspect {
     }
     
     /**
-     * 获取客户端IP地址
+     * 采样用的接口标识：优先取Spring MVC匹配到的路径模式（如/records/{id}），取不到时用请求路径
      */
-    private String getClientIpAddress(HttpServletRequest request) {
-        if (request == null) {
-            return "unknown";
-        }
-        
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
-    }
-    
-    /**
-     * 序列化方法参数
-     */
-    private String serializeParameters(Object[] args) {
-        if (args == null || args.length == 0) {
-            return "[]";
-        }
-        
-        try {
-            // 过滤敏感信息
-            Object[] filteredArgs = new Object[args.length];
-            for (int i = 0; i < args.length; i++) {
-                if (args[i] != null) {
-                    String argStr = args[i].toString();
-                    // 过滤密码等敏感信息
-                    if (argStr.toLowerCase().contains("password") || 
-                        argStr.toLowerCase().contains("secret") ||
-                        argStr.toLowerCase().contains("token")) {
-                        filteredArgs[i] = "***";
-                    } else {
-                        filteredArgs[i] = args[i];
-                    }
-                } else {
-                    filteredArgs[i] = null;
-                }
-            }
-            return objectMapper.writeValueAsString(filteredArgs);
-        } catch (Exception e) {
-            return "参数序列化失败: " + e.getMessage();
-        }
+    private String getEndpoint(HttpServletRequest request, String requestUrl) {
+        Object pattern = request != null ? request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) : null;
+        return pattern != null ? pattern.toString() : requestUrl;
     }
     
     /**
@@ -272,50 +243,4 @@ public class LoggingAspect {
         
         return sb.toString();
     }
-    
-    /**
-     * 获取当前用户ID
-     */
-    private Long getCurrentUserId() {
-        try {
-            String username = getCurrentUsername();
-            if (username != null) {
-                // 这里需要注入UserMapper，暂时返回null
-                return null;
-            }
-        } catch (Exception e) {
-            // 忽略异常，返回null
-        }
-        return null;
-    }
-    
-    /**
-     * 获取当前用户名
-     */
-    private String getCurrentUsername() {
-        try {
-            HttpServletRequest request = getCurrentRequest();
-            if (request != null) {
-                String token = getTokenFromRequest(request);
-                if (token != null) {
-                    // 这里需要注入JwtUtil，暂时返回null
-                    return null;
-                }
-            }
-        } catch (Exception e) {
-            // 忽略异常，返回null
-        }
-        return null;
-    }
-    
-    /**
-     * 从请求中获取JWT Token
-     */
-    private String getTokenFromRequest(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
-        }
-        return null;
-    }
 }
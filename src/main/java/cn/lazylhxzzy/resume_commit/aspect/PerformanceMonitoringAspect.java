@@ -1,21 +1,26 @@
 package cn.lazylhxzzy.resume_commit.aspect;
 
+import cn.lazylhxzzy.resume_commit.service.impl.LogCapturePolicy;
+import cn.lazylhxzzy.resume_commit.service.impl.PerformanceMetrics;
 import cn.lazylhxzzy.resume_commit.util.LogUtil;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * 性能监控切面
+ * 每次调用只记录到内存直方图，由PerformanceMetrics定期汇总落库；超过阈值的慢调用单独记录
+ * 日志相关的类不在监控范围内，避免记录日志时再次触发监控
+ * 监控的层级和慢调用日志的开关由LogCapturePolicy控制
  */
 @Aspect
 @Component
@@ -23,9 +28,32 @@ public class PerformanceMonitoringAspect {
     
     private static final Logger logger = LoggerFactory.getLogger(PerformanceMonitoringAspect.class);
     
+    @Autowired
+    private PerformanceMetrics performanceMetrics;
+    
     @Autowired
     private LogUtil logUtil;
     
+    @Autowired
+    private LogCapturePolicy logCapturePolicy;
+    
+    /**
+     * 日志和监控自身的基础设施
+     */
+    @Pointcut("within(cn.lazylhxzzy.resume_commit.service.impl.LogServiceImpl) || " +
+              "within(cn.lazylhxzzy.resume_commit.service.impl.LogBatchWriter) || " +
+              "within(cn.lazylhxzzy.resume_commit.service.impl.AccessLogSpool) || " +
+              "within(cn.lazylhxzzy.resume_commit.service.impl.AccessLogSpoolLoader) || " +
+              "within(cn.lazylhxzzy.resume_commit.service.impl.PerformanceMetrics) || " +
+              "within(cn.lazylhxzzy.resume_commit.service.impl.LogCapturePolicy) || " +
+              "execution(* cn.lazylhxzzy.resume_commit.service.impl.LogAlertServiceImpl.onSystemLog(..)) || " +
+              "target(cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper) || " +
+              "target(cn.lazylhxzzy.resume_commit.mapper.AccessLogMapper) || " +
+              "target(cn.lazylhxzzy.resume_commit.mapper.SecurityLogMapper) || " +
+              "target(cn.lazylhxzzy.resume_commit.mapper.PerformanceLogMapper)")
+    public void loggingInfrastructure() {
+    }
+    
     /**
      * 监控所有Controller方法的性能
      */
@@ -37,7 +65,7 @@ public class PerformanceMonitoringAspect {
     /**
      * 监控所有Service方法的性能
      */
-    @Around("execution(* cn.lazylhxzzy.resume_commit.service.impl.*.*(..))")
+    @Around("execution(* cn.lazylhxzzy.resume_commit.service.impl.*.*(..)) && !loggingInfrastructure()")
     public Object monitorServicePerformance(ProceedingJoinPoint joinPoint) throws Throwable {
         return monitorPerformance(joinPoint, "SERVICE");
     }
@@ -45,7 +73,7 @@ public class PerformanceMonitoringAspect {
     /**
      * 监控所有Mapper方法的性能
      */
-    @Around("execution(* cn.lazylhxzzy.resume_commit.mapper.*.*(..))")
+    @Around("execution(* cn.lazylhxzzy.resume_commit.mapper.*.*(..)) && !loggingInfrastructure()")
     public Object monitorMapperPerformance(ProceedingJoinPoint joinPoint) throws Throwable {
         return monitorPerformance(joinPoint, "MAPPER");
     }
@@ -54,108 +82,65 @@ public class PerformanceMonitoringAspect {
      * 通用性能监控方法
      */
     private Object monitorPerformance(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
-        long startTime = System.currentTimeMillis();
-        long startMemory = getUsedMemory();
-        
-        String methodName = joinPoint.getSignature().getName();
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        String module = className.replace("Controller", "").replace("ServiceImpl", "").replace("Mapper", "");
-        
-        Object result = null;
-        Exception exception = null;
+        LogCapturePolicy.Policy policy = logCapturePolicy.current();
+        if (!policy.isMonitored(layer)) {
+            return joinPoint.proceed();
+        }
+        long startTime = System.nanoTime();
+        boolean failed = false;
         
         try {
-            // 执行目标方法
-            result = joinPoint.proceed();
-            return result;
-            
-        } catch (Exception e) {
-            exception = e;
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            failed = true;
             throw e;
-            
         } finally {
-            // 计算性能指标
-            long endTime = System.currentTimeMillis();
-            long endMemory = getUsedMemory();
-            
-            long executionTime = endTime - startTime;
-            long memoryUsed = endMemory - startMemory;
-            
-            // 记录性能日志
-            recordPerformanceLog(module, methodName, executionTime, memoryUsed, layer, exception);
+            long micros = (System.nanoTime() - startTime) / 1000;
+            try {
+                PerformanceMetrics.MethodMetrics metrics = performanceMetrics.get(layer,
+                        joinPoint.getTarget().getClass(), ((MethodSignature) joinPoint.getSignature()).getMethod());
+                metrics.record(micros, failed);
+                
+                long executionTime = micros / 1000;
+                if (isSlow(executionTime, layer) && policy.isEnabled(LogCapturePolicy.CATEGORY_PERFORMANCE)) {
+                    recordSlowCall(metrics, layer, executionTime, failed);
+                }
+            } catch (Exception e) {
+                logger.error("记录性能数据失败", e);
+            }
         }
     }
     
     /**
-     * 记录性能日志
+     * 慢调用单独记录，供性能告警使用
      */
-    private void recordPerformanceLog(String module, String methodName, long executionTime, 
-                                    long memoryUsed, String layer, Exception exception) {
-        try {
-            // 构建性能指标
-            Map<String, Object> metrics = new HashMap<>();
-            metrics.put("layer", layer);
-            metrics.put("execution_time_ms", executionTime);
-            metrics.put("memory_used_bytes", memoryUsed);
-            metrics.put("memory_used_mb", memoryUsed / 1024.0 / 1024.0);
-            metrics.put("thread_name", Thread.currentThread().getName());
-            metrics.put("has_exception", exception != null);
-            
-            if (exception != null) {
-                metrics.put("exception_type", exception.getClass().getSimpleName());
-                metrics.put("exception_message", exception.getMessage());
-            }
-            
-            // 根据执行时间确定日志级别
-            String logLevel = determineLogLevel(executionTime, layer);
-            
-            // 记录性能日志
-            if ("WARN".equals(logLevel) || "ERROR".equals(logLevel)) {
-                logUtil.performance(module, methodName, executionTime, metrics);
-            }
-            
-            // 记录到文件日志
-            if (executionTime > 1000) { // 超过1秒
-                logger.warn("性能监控 - {}:{} 执行时间: {}ms, 内存使用: {}MB", 
-                           module, methodName, executionTime, 
-                           String.format("%.2f", memoryUsed / 1024.0 / 1024.0));
-            } else if (executionTime > 500) { // 超过500ms
-                logger.info("性能监控 - {}:{} 执行时间: {}ms, 内存使用: {}MB", 
-                           module, methodName, executionTime, 
-                           String.format("%.2f", memoryUsed / 1024.0 / 1024.0));
-            }
-            
-        } catch (Exception e) {
-            logger.error("记录性能日志失败", e);
+    private void recordSlowCall(PerformanceMetrics.MethodMetrics metrics, String layer,
+                                long executionTime, boolean failed) {
+        Map<String, Object> slowCall = new HashMap<>();
+        slowCall.put("layer", layer);
+        slowCall.put("execution_time_ms", executionTime);
+        slowCall.put("thread_name", Thread.currentThread().getName());
+        slowCall.put("has_exception", failed);
+        logUtil.performance(metrics.getModule(), metrics.getMethodName(), executionTime, slowCall);
+        
+        if (executionTime > 1000) { // 超过1秒
+            logger.warn("性能监控 - {}:{} 执行时间: {}ms", metrics.getModule(), metrics.getMethodName(), executionTime);
         }
     }
     
     /**
-     * 确定日志级别
+     * 是否超过该层的慢调用阈值
      */
-    private String determineLogLevel(long executionTime, String layer) {
+    private boolean isSlow(long executionTime, String layer) {
         switch (layer) {
             case "CONTROLLER":
-                if (executionTime > 5000) return "ERROR"; // 超过5秒
-                if (executionTime > 2000) return "WARN";  // 超过2秒
-                break;
+                return executionTime > 2000; // 超过2秒
             case "SERVICE":
-                if (executionTime > 3000) return "ERROR"; // 超过3秒
-                if (executionTime > 1000) return "WARN";  // 超过1秒
-                break;
+                return executionTime > 1000; // 超过1秒
             case "MAPPER":
-                if (executionTime > 2000) return "ERROR"; // 超过2秒
-                if (executionTime > 500) return "WARN";   // 超过500ms
-                break;
+                return executionTime > 500;  // 超过500ms
+            default:
+                return false;
         }
-        return "INFO";
-    }
-    
-    /**
-     * 获取当前使用的内存
-     */
-    private long getUsedMemory() {
-        Runtime runtime = Runtime.getRuntime();
-        return runtime.totalMemory() - runtime.freeMemory();
     }
 }
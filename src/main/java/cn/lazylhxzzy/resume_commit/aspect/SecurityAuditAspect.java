@@ -1,6 +1,8 @@
 package cn.lazylhxzzy.resume_commit.aspect;
 
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
 import cn.lazylhxzzy.resume_commit.util.LogUtil;
+import cn.lazylhxzzy.resume_commit.util.UserContextHolder;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -9,10 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
-import jakarta.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
@@ -80,10 +79,10 @@ public class SecurityAuditAspect {
         String className = joinPoint.getTarget().getClass().getSimpleName();
         String module = className.replace("ServiceImpl", "");
         
-        // 获取请求信息
-        HttpServletRequest request = getCurrentRequest();
-        String ipAddress = getClientIpAddress(request);
-        String userAgent = request != null ? request.getHeader("User-Agent") : "UNKNOWN";
+        // 获取请求信息（后台任务中为提交任务时的上下文）
+        UserContext context = UserContextHolder.get();
+        String ipAddress = context != null ? context.getIpAddress() : "unknown";
+        String userAgent = context != null ? context.getUserAgent() : "UNKNOWN";
         
         // 获取方法参数（过滤敏感信息）
         Object[] args = joinPoint.getArgs();
@@ -229,37 +228,4 @@ public class SecurityAuditAspect {
             return "参数解析失败";
         }
     }
-    
-    /**
-     * 获取当前请求对象
-     */
-    private HttpServletRequest getCurrentRequest() {
-        try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            return attributes != null ? attributes.getRequest() : null;
-        } catch (Exception e) {
-            return null;
-        }
-    }
-    
-    /**
-     * 获取客户端IP地址
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        if (request == null) {
-            return "unknown";
-        }
-        
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
-    }
 }
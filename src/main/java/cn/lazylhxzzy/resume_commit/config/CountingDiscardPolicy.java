@@ -0,0 +1,32 @@
+package cn.lazylhxzzy.resume_commit.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 丢弃被拒绝的任务并计数
+ * 用于日志线程池：队列满时宁可丢日志也不阻塞业务线程
+ */
+public class CountingDiscardPolicy implements RejectedExecutionHandler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CountingDiscardPolicy.class);
+    
+    private final AtomicLong rejectedCount = new AtomicLong();
+    
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        long count = rejectedCount.incrementAndGet();
+        // 每1000次输出一次，避免拒绝风暴时刷屏
+        if (count % 1000 == 1) {
+            logger.warn("日志线程池已满，累计丢弃{}个日志任务", count);
+        }
+    }
+    
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
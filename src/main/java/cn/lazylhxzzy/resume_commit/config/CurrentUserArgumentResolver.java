@@ -0,0 +1,30 @@
+package cn.lazylhxzzy.resume_commit.config;
+
+import cn.lazylhxzzy.resume_commit.annotation.CurrentUser;
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
+import cn.lazylhxzzy.resume_commit.util.UserContextHolder;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * 解析@CurrentUser参数
+ * 直接取JwtAuthenticationFilter构建的用户上下文，不再解析token或查询数据库
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+    
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && UserContext.class.equals(parameter.getParameterType());
+    }
+    
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        UserContext context = UserContextHolder.get();
+        return context != null && context.getUserId() != null ? context : null;
+    }
+}
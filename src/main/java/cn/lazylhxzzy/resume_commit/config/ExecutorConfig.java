@@ -0,0 +1,127 @@
+package cn.lazylhxzzy.resume_commit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 线程池配置
+ */
+@Configuration
+public class ExecutorConfig {
+    
+    /**
+     * 默认执行器
+     * 声明了自定义线程池后Spring Boot不再自动创建，这里显式保留，供MVC异步请求（如流式导出）使用
+     */
+    @Bean(name = "applicationTaskExecutor")
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.taskDecorator(new UserContextTaskDecorator()).build();
+    }
+    
+    /**
+     * 导入导出任务线程池
+     * 线程数和队列长度都有上限，队列满时直接拒绝提交，避免大文件任务挤占接口请求的线程和数据库连接
+     */
+    @Bean(name = "jobExecutor")
+    public ThreadPoolTaskExecutor jobExecutor(@Value("${job.executor.pool-size:2}") int poolSize,
+                                              @Value("${job.executor.queue-capacity:10}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("job-");
+        executor.setTaskDecorator(new UserContextTaskDecorator());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+    
+    /**
+     * 告警通知发送线程池
+     * 不同通知目标并发发送，队列满时由AlertDispatcher在下一轮重新提交
+     */
+    @Bean(name = "alertExecutor")
+    public ThreadPoolTaskExecutor alertExecutor(@Value("${log.alert.dispatch.pool-size:4}") int poolSize,
+                                                @Value("${log.alert.dispatch.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("alert-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+    
+    /**
+     * 日志清理线程，同一时间只执行一个清理
+     * 关闭时不等待，正在执行的清理被中断后由断点在下次启动时继续
+     */
+    @Bean(name = "retentionExecutor")
+    public ThreadPoolTaskExecutor retentionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("log-retention-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+    
+    /**
+     * 日志统计汇总线程
+     * 首次启动回填时一次要执行多个小时的GROUP BY，放在单独线程里，不占用@Scheduled的调度线程；
+     * 不排队，上一轮未完成时本轮提交被拒绝
+     */
+    @Bean(name = "rollupExecutor")
+    public ThreadPoolTaskExecutor rollupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("log-rollup-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+    
+    /**
+     * 日志任务拒绝计数
+     */
+    @Bean
+    public CountingDiscardPolicy logExecutorRejectionPolicy() {
+        return new CountingDiscardPolicy();
+    }
+    
+    /**
+     * 异步日志线程池，供LogService的@Async方法使用
+     * 依赖logBatchWriter，关闭时先等待本线程池中的日志任务执行完，再由写缓冲落库
+     */
+    @Bean(name = "logExecutor")
+    @DependsOn("logBatchWriter")
+    public ThreadPoolTaskExecutor logExecutor(CountingDiscardPolicy logExecutorRejectionPolicy,
+                                              @Value("${log.async.pool-size:2}") int poolSize,
+                                              @Value("${log.async.queue-capacity:5000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("log-async-");
+        executor.setTaskDecorator(new UserContextTaskDecorator());
+        executor.setRejectedExecutionHandler(logExecutorRejectionPolicy);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -0,0 +1,62 @@
+package cn.lazylhxzzy.resume_commit.config;
+
+import cn.lazylhxzzy.resume_commit.service.impl.AccessLogSpool;
+import cn.lazylhxzzy.resume_commit.service.impl.LogBatchWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 监控指标配置
+ * HTTP接口、Hikari连接池、线程池（executor.*，按name标签区分）的指标由Actuator自动注册，这里补充日志写入链路的指标
+ */
+@Configuration
+public class MetricsConfig {
+    
+    /**
+     * 日志写缓冲队列深度和写入计数、访问日志缓冲文件的积压和导入计数，以及异步日志线程池的拒绝次数
+     */
+    @Bean
+    public MeterBinder logPipelineMetrics(LogBatchWriter logBatchWriter,
+                                          AccessLogSpool accessLogSpool,
+                                          CountingDiscardPolicy logExecutorRejectionPolicy) {
+        return registry -> {
+            Gauge.builder("log.sink.queue.size", logBatchWriter, LogBatchWriter::getQueueSize)
+                    .description("日志写缓冲队列中待写入的条数")
+                    .register(registry);
+            Gauge.builder("log.sink.queue.capacity", logBatchWriter, LogBatchWriter::getCapacity)
+                    .description("日志写缓冲队列容量")
+                    .register(registry);
+            FunctionCounter.builder("log.sink.written", logBatchWriter, LogBatchWriter::getWrittenCount)
+                    .description("已写入数据库的日志条数")
+                    .register(registry);
+            FunctionCounter.builder("log.sink.dropped", logBatchWriter, LogBatchWriter::getDroppedCount)
+                    .description("队列满时丢弃的日志条数")
+                    .register(registry);
+            FunctionCounter.builder("log.sink.spilled", logBatchWriter, LogBatchWriter::getSpilledCount)
+                    .description("溢出到本地文件的日志条数")
+                    .register(registry);
+            FunctionCounter.builder("log.sink.failed", logBatchWriter, LogBatchWriter::getFailedCount)
+                    .description("写入数据库失败的日志条数")
+                    .register(registry);
+            Gauge.builder("log.spool.pending.segments", accessLogSpool, AccessLogSpool::getPendingSegments)
+                    .description("访问日志缓冲文件中待导入的分段数")
+                    .register(registry);
+            FunctionCounter.builder("log.spool.appended", accessLogSpool, AccessLogSpool::getAppendedCount)
+                    .description("追加到访问日志缓冲文件的条数")
+                    .register(registry);
+            FunctionCounter.builder("log.spool.dropped", accessLogSpool, AccessLogSpool::getDroppedCount)
+                    .description("访问日志缓冲文件磁盘配额用尽等原因丢弃的条数")
+                    .register(registry);
+            FunctionCounter.builder("log.spool.loaded", accessLogSpool, AccessLogSpool::getLoadedCount)
+                    .description("从访问日志缓冲文件导入数据库的条数")
+                    .register(registry);
+            FunctionCounter.builder("log.executor.rejected", logExecutorRejectionPolicy,
+                            CountingDiscardPolicy::getRejectedCount)
+                    .description("异步日志线程池队列满时丢弃的任务数")
+                    .register(registry);
+        };
+    }
+}
@@ -2,6 +2,7 @@ package cn.lazylhxzzy.resume_commit.config;
 
 import cn.lazylhxzzy.resume_commit.filter.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -22,6 +23,12 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    /**
+     * 管理端点的独立端口，未配置时为-1（管理端点与业务接口共用端口）
+     */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+    
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -35,6 +42,10 @@ public class SecurityConfig {
                 .requestMatchers("/auth/**", "/swagger-ui/**", "/api-docs/**", "/swagger-ui.html", 
                                "/", "/test.html", "/index.html", "/logs.html", "/js/**", "/css/**", "/images/**", 
                                "/favicon.ico", "/error", "/log-test/**").permitAll()
+                // 独立管理端口只在内网开放，Prometheus可直接抓取；业务端口上的指标需要ROOT权限
+                .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort).permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasAuthority("ROOT")
                 .requestMatchers("/logs/**").hasAuthority("ROOT")
                 .anyRequest().authenticated()
             )
@@ -1,8 +1,10 @@
 package cn.lazylhxzzy.resume_commit.config;
 
+import cn.lazylhxzzy.resume_commit.annotation.CurrentUser;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.info.License;
+import org.springdoc.core.utils.SpringDocUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,6 +14,11 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class SwaggerConfig {
     
+    static {
+        // @CurrentUser参数由服务端注入，不出现在接口文档中
+        SpringDocUtils.getConfig().addAnnotationsToIgnore(CurrentUser.class);
+    }
+    
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
@@ -0,0 +1,29 @@
+package cn.lazylhxzzy.resume_commit.config;
+
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
+import cn.lazylhxzzy.resume_commit.util.UserContextHolder;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 把提交线程的用户上下文带到线程池任务中，任务结束后恢复工作线程原有的上下文
+ */
+public class UserContextTaskDecorator implements TaskDecorator {
+    
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        UserContext context = UserContextHolder.get();
+        return () -> {
+            UserContext previous = UserContextHolder.get();
+            UserContextHolder.set(context);
+            try {
+                runnable.run();
+            } finally {
+                if (previous != null) {
+                    UserContextHolder.set(previous);
+                } else {
+                    UserContextHolder.clear();
+                }
+            }
+        };
+    }
+}
@@ -1,9 +1,10 @@
 package cn.lazylhxzzy.resume_commit.controller;
 
+import cn.lazylhxzzy.resume_commit.annotation.CurrentUser;
 import cn.lazylhxzzy.resume_commit.dto.LoginRequest;
 import cn.lazylhxzzy.resume_commit.dto.RegisterRequest;
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
 import cn.lazylhxzzy.resume_commit.service.UserService;
-import cn.lazylhxzzy.resume_commit.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,9 +26,6 @@ public class AuthController {
     @Autowired
     private UserService userService;
     
-    @Autowired
-    private JwtUtil jwtUtil;
-    
     @Operation(summary = "用户登录", description = "用户使用用户名和密码登录系统")
     @PostMapping("/login")
     public ResponseEntity<Map<String, Object>> login(@RequestBody LoginRequest loginRequest) {
@@ -66,21 +64,16 @@ public class AuthController {
     
     @Operation(summary = "生成邀请码", description = "ROOT用户生成邀请码供其他用户注册")
     @PostMapping("/generate-invite-code")
-    public ResponseEntity<Map<String, Object>> generateInviteCode(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<Map<String, Object>> generateInviteCode(@CurrentUser UserContext currentUser) {
         try {
-            String username = jwtUtil.getUsernameFromToken(token.substring(7));
-            String role = jwtUtil.getRoleFromToken(token.substring(7));
-            
-            if (!"ROOT".equals(role)) {
+            if (currentUser == null || !currentUser.isRoot()) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", false);
                 response.put("message", "只有ROOT用户才能生成邀请码");
                 return ResponseEntity.badRequest().body(response);
             }
             
-            // 获取用户ID
-            var user = userService.getUserByUsername(username);
-            String inviteCode = userService.generateInviteCode(user.getId());
+            String inviteCode = userService.generateInviteCode(currentUser.getUserId());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -0,0 +1,168 @@
+package cn.lazylhxzzy.resume_commit.controller;
+
+import cn.lazylhxzzy.resume_commit.annotation.CurrentUser;
+import cn.lazylhxzzy.resume_commit.dto.JobInfo;
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
+import cn.lazylhxzzy.resume_commit.service.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 后台导入导出任务控制器
+ * 提交任务后立即返回任务ID，通过轮询获取进度，导出完成后在有效期内下载文件
+ */
+@Tag(name = "导入导出任务", description = "后台导入导出任务的提交、进度查询和文件下载")
+@RestController
+@RequestMapping("/jobs")
+@CrossOrigin(origins = "*")
+@Slf4j
+public class JobController {
+    
+    @Autowired
+    private JobService jobService;
+    
+    @Operation(summary = "提交导入任务", description = "上传Excel文件并在后台导入，mode为skip、replace或append")
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> submitImport(
+            @CurrentUser UserContext currentUser,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam("mode") String mode) {
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            if (currentUser == null) {
+                response.put("success", false);
+                response.put("message", "用户不存在");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+            
+            if (file.isEmpty()) {
+                response.put("success", false);
+                response.put("message", "请选择要导入的文件");
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            String fileName = file.getOriginalFilename();
+            if (fileName == null || (!fileName.toLowerCase().endsWith(".xlsx") && !fileName.toLowerCase().endsWith(".xls"))) {
+                response.put("success", false);
+                response.put("message", "请选择Excel文件（.xlsx或.xls格式）");
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            if ("preview".equals(mode)) {
+                response.put("success", false);
+                response.put("message", "预览请使用 /records/import");
+                return ResponseEntity.badRequest().body(response);
+            }
+            
+            JobInfo job = jobService.submitImport(file, mode, currentUser.getUserId(), currentUser.isRoot());
+            response.put("success", true);
+            response.put("data", job);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (TaskRejectedException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        } catch (Exception e) {
+            log.error("提交导入任务失败", e);
+            response.put("success", false);
+            response.put("message", "提交导入任务失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @Operation(summary = "提交导出任务", description = "在后台导出投递记录为Excel文件")
+    @PostMapping("/export")
+    public ResponseEntity<Map<String, Object>> submitExport(@CurrentUser UserContext currentUser) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            if (currentUser == null) {
+                response.put("success", false);
+                response.put("message", "用户不存在");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+            
+            JobInfo job = jobService.submitExport(currentUser.getUserId(), currentUser.isRoot());
+            response.put("success", true);
+            response.put("data", job);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (TaskRejectedException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        } catch (Exception e) {
+            log.error("提交导出任务失败", e);
+            response.put("success", false);
+            response.put("message", "提交导出任务失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @Operation(summary = "查询任务进度", description = "获取任务状态以及已解析、已写入、已跳过、失败的行数")
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String id,
+                                                      @CurrentUser UserContext currentUser) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            if (currentUser == null) {
+                response.put("success", false);
+                response.put("message", "用户不存在");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+            }
+            
+            JobInfo job = jobService.getJob(id, currentUser.getUserId(), currentUser.isRoot());
+            response.put("success", true);
+            response.put("data", job);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+    
+    @Operation(summary = "下载导出文件", description = "下载已完成的导出任务生成的Excel文件")
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> download(@PathVariable String id,
+                                             @CurrentUser UserContext currentUser) {
+        try {
+            if (currentUser == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            
+            JobInfo job = jobService.getJob(id, currentUser.getUserId(), currentUser.isRoot());
+            if (!job.isDownloadable()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.setContentDispositionFormData("attachment", job.getFileName());
+            
+            headers.setContentLength(Files.size(job.getFilePath()));
+            
+            // 响应写完后关闭流，释放下载引用
+            return new ResponseEntity<>(new InputStreamResource(jobService.openDownload(job)), headers, HttpStatus.OK);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+}
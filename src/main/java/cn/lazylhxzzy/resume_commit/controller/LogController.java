@@ -1,24 +1,41 @@
 package cn.lazylhxzzy.resume_commit.controller;
 
+import cn.lazylhxzzy.resume_commit.config.CountingDiscardPolicy;
 import cn.lazylhxzzy.resume_commit.entity.AccessLog;
 import cn.lazylhxzzy.resume_commit.entity.SecurityLog;
 import cn.lazylhxzzy.resume_commit.entity.SystemLog;
 import cn.lazylhxzzy.resume_commit.mapper.AccessLogMapper;
 import cn.lazylhxzzy.resume_commit.mapper.SecurityLogMapper;
 import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
+import cn.lazylhxzzy.resume_commit.service.LogAlertService;
+import cn.lazylhxzzy.resume_commit.service.impl.AccessLogSpool;
+import cn.lazylhxzzy.resume_commit.service.impl.LogBatchWriter;
+import cn.lazylhxzzy.resume_commit.service.impl.LogCapturePolicy;
+import cn.lazylhxzzy.resume_commit.service.impl.LogRetentionEngine;
+import cn.lazylhxzzy.resume_commit.service.impl.LogRollupManager;
+import cn.lazylhxzzy.resume_commit.service.impl.PerformanceMetrics;
+import cn.lazylhxzzy.resume_commit.util.FullTextQuery;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * 日志管理控制器
@@ -28,6 +45,10 @@ import java.util.Map;
 @RequestMapping("/logs")
 public class LogController {
     
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    
     @Autowired
     private SystemLogMapper systemLogMapper;
     
@@ -37,11 +58,41 @@ public class LogController {
     @Autowired
     private SecurityLogMapper securityLogMapper;
     
-    @Operation(summary = "查询系统日志", description = "分页查询系统日志")
+    @Autowired
+    @Qualifier("logExecutor")
+    private ThreadPoolTaskExecutor logExecutor;
+    
+    @Autowired
+    private CountingDiscardPolicy logExecutorRejectionPolicy;
+    
+    @Autowired
+    private LogBatchWriter logBatchWriter;
+    
+    @Autowired
+    private AccessLogSpool accessLogSpool;
+    
+    @Autowired
+    private PerformanceMetrics performanceMetrics;
+    
+    @Autowired
+    private LogAlertService logAlertService;
+    
+    @Autowired
+    private LogRetentionEngine logRetentionEngine;
+    
+    @Autowired
+    private LogRollupManager logRollupManager;
+    
+    @Autowired
+    private LogCapturePolicy logCapturePolicy;
+    
+    @Operation(summary = "查询系统日志", description = "分页查询系统日志，支持页码分页和游标分页")
     @GetMapping("/system")
     public Map<String, Object> getSystemLogs(
-            @Parameter(description = "页码") @RequestParam(defaultValue = "1") Integer page,
+            @Parameter(description = "页码，传入时按页码分页并返回总数，不传时按游标分页") @RequestParam(required = false) Integer page,
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "20") Integer size,
+            @Parameter(description = "游标：上一页返回的nextCursor，格式createdAt,id") @RequestParam(required = false) String before,
+            @Parameter(description = "游标分页时是否统计总数") @RequestParam(defaultValue = "false") boolean withTotal,
             @Parameter(description = "日志级别") @RequestParam(required = false) String level,
             @Parameter(description = "模块名称") @RequestParam(required = false) String module,
             @Parameter(description = "开始时间") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
@@ -62,26 +113,17 @@ public class LogController {
             queryWrapper.le("created_at", endTime);
         }
         
-        queryWrapper.orderByDesc("created_at");
-        
-        Page<SystemLog> pageResult = new Page<>(page, size);
-        Page<SystemLog> result = systemLogMapper.selectPage(pageResult, queryWrapper);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("records", result.getRecords());
-        response.put("total", result.getTotal());
-        response.put("pages", result.getPages());
-        response.put("current", result.getCurrent());
-        response.put("size", result.getSize());
-        
-        return response;
+        return queryLogs(systemLogMapper, queryWrapper, page, size, before, withTotal,
+                         SystemLog::getCreatedAt, SystemLog::getId);
     }
     
-    @Operation(summary = "查询访问日志", description = "分页查询访问日志")
+    @Operation(summary = "查询访问日志", description = "分页查询访问日志，支持页码分页和游标分页")
     @GetMapping("/access")
     public Map<String, Object> getAccessLogs(
-            @Parameter(description = "页码") @RequestParam(defaultValue = "1") Integer page,
+            @Parameter(description = "页码，传入时按页码分页并返回总数，不传时按游标分页") @RequestParam(required = false) Integer page,
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "20") Integer size,
+            @Parameter(description = "游标：上一页返回的nextCursor，格式createdAt,id") @RequestParam(required = false) String before,
+            @Parameter(description = "游标分页时是否统计总数") @RequestParam(defaultValue = "false") boolean withTotal,
             @Parameter(description = "用户名") @RequestParam(required = false) String username,
             @Parameter(description = "IP地址") @RequestParam(required = false) String ipAddress,
             @Parameter(description = "请求方法") @RequestParam(required = false) String requestMethod,
@@ -110,26 +152,17 @@ public class LogController {
             queryWrapper.le("created_at", endTime);
         }
         
-        queryWrapper.orderByDesc("created_at");
-        
-        Page<AccessLog> pageResult = new Page<>(page, size);
-        Page<AccessLog> result = accessLogMapper.selectPage(pageResult, queryWrapper);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("records", result.getRecords());
-        response.put("total", result.getTotal());
-        response.put("pages", result.getPages());
-        response.put("current", result.getCurrent());
-        response.put("size", result.getSize());
-        
-        return response;
+        return queryLogs(accessLogMapper, queryWrapper, page, size, before, withTotal,
+                         AccessLog::getCreatedAt, AccessLog::getId);
     }
     
-    @Operation(summary = "查询安全日志", description = "分页查询安全日志")
+    @Operation(summary = "查询安全日志", description = "分页查询安全日志，支持页码分页和游标分页")
     @GetMapping("/security")
     public Map<String, Object> getSecurityLogs(
-            @Parameter(description = "页码") @RequestParam(defaultValue = "1") Integer page,
+            @Parameter(description = "页码，传入时按页码分页并返回总数，不传时按游标分页") @RequestParam(required = false) Integer page,
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "20") Integer size,
+            @Parameter(description = "游标：上一页返回的nextCursor，格式createdAt,id") @RequestParam(required = false) String before,
+            @Parameter(description = "游标分页时是否统计总数") @RequestParam(defaultValue = "false") boolean withTotal,
             @Parameter(description = "日志类型") @RequestParam(required = false) String logType,
             @Parameter(description = "风险级别") @RequestParam(required = false) String riskLevel,
             @Parameter(description = "用户名") @RequestParam(required = false) String username,
@@ -154,26 +187,17 @@ public class LogController {
             queryWrapper.le("created_at", endTime);
         }
         
-        queryWrapper.orderByDesc("created_at");
-        
-        Page<SecurityLog> pageResult = new Page<>(page, size);
-        Page<SecurityLog> result = securityLogMapper.selectPage(pageResult, queryWrapper);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("records", result.getRecords());
-        response.put("total", result.getTotal());
-        response.put("pages", result.getPages());
-        response.put("current", result.getCurrent());
-        response.put("size", result.getSize());
-        
-        return response;
+        return queryLogs(securityLogMapper, queryWrapper, page, size, before, withTotal,
+                         SecurityLog::getCreatedAt, SecurityLog::getId);
     }
     
-    @Operation(summary = "查询错误日志", description = "分页查询错误日志")
+    @Operation(summary = "查询错误日志", description = "分页查询错误日志，支持页码分页和游标分页")
     @GetMapping("/error")
     public Map<String, Object> getErrorLogs(
-            @Parameter(description = "页码") @RequestParam(defaultValue = "1") Integer page,
+            @Parameter(description = "页码，传入时按页码分页并返回总数，不传时按游标分页") @RequestParam(required = false) Integer page,
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "20") Integer size,
+            @Parameter(description = "游标：上一页返回的nextCursor，格式createdAt,id") @RequestParam(required = false) String before,
+            @Parameter(description = "游标分页时是否统计总数") @RequestParam(defaultValue = "false") boolean withTotal,
             @Parameter(description = "模块名称") @RequestParam(required = false) String module,
             @Parameter(description = "操作名称") @RequestParam(required = false) String operation,
             @Parameter(description = "用户名") @RequestParam(required = false) String username,
@@ -186,13 +210,13 @@ public class LogController {
         queryWrapper.eq("log_level", "ERROR");
         
         if (module != null && !module.trim().isEmpty()) {
-            queryWrapper.like("logger_name", module);
+            queryWrapper.like("module", module);
         }
         if (operation != null && !operation.trim().isEmpty()) {
-            queryWrapper.like("message", operation);
+            queryWrapper.like("operation", operation);
         }
         if (username != null && !username.trim().isEmpty()) {
-            queryWrapper.like("message", username);
+            queryWrapper.like("username", username);
         }
         if (startTime != null) {
             queryWrapper.ge("created_at", startTime);
@@ -201,113 +225,143 @@ public class LogController {
             queryWrapper.le("created_at", endTime);
         }
         
-        queryWrapper.orderByDesc("created_at");
-        
-        Page<SystemLog> pageResult = new Page<>(page, size);
-        Page<SystemLog> result = systemLogMapper.selectPage(pageResult, queryWrapper);
+        return queryLogs(systemLogMapper, queryWrapper, page, size, before, withTotal,
+                         SystemLog::getCreatedAt, SystemLog::getId);
+    }
+    
+    @Operation(summary = "全文搜索系统日志", description = "在错误信息和操作描述上做全文检索，按相关度排序；mode为ALL（全部词项）、ANY（任一词项）或PHRASE（短语）")
+    @GetMapping("/search")
+    public Map<String, Object> searchLogs(
+            @Parameter(description = "关键词，多个词项以空格分隔") @RequestParam String keyword,
+            @Parameter(description = "搜索模式：ALL, ANY, PHRASE") @RequestParam(defaultValue = "ALL") String mode,
+            @Parameter(description = "日志级别，如ERROR") @RequestParam(required = false) String level,
+            @Parameter(description = "页码") @RequestParam(defaultValue = "1") Integer page,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "20") Integer size,
+            @Parameter(description = "开始时间") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @Parameter(description = "结束时间") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
         
         Map<String, Object> response = new HashMap<>();
-        response.put("records", result.getRecords());
-        response.put("total", result.getTotal());
-        response.put("pages", result.getPages());
-        response.put("current", result.getCurrent());
-        response.put("size", result.getSize());
+        
+        try {
+            String query = FullTextQuery.build(keyword, mode);
+            int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+            int current = page == null || page < 1 ? 1 : page;
+            // 按相关度排序只能按偏移量翻页，限制最大结果数
+            int offset = (current - 1) * pageSize;
+            if (offset >= MAX_SEARCH_RESULTS) {
+                throw new IllegalArgumentException("最多返回前" + MAX_SEARCH_RESULTS + "条结果，请缩小搜索范围");
+            }
+            String logLevel = level != null && !level.trim().isEmpty() ? level : null;
+            
+            // 多取一条用于判断是否还有下一页
+            List<SystemLog> records = systemLogMapper.searchFullText(query, logLevel, startTime, endTime, offset, pageSize + 1);
+            boolean hasMore = records.size() > pageSize && offset + pageSize < MAX_SEARCH_RESULTS;
+            if (records.size() > pageSize) {
+                records = records.subList(0, pageSize);
+            }
+            
+            response.put("success", true);
+            response.put("records", records);
+            response.put("current", current);
+            response.put("size", pageSize);
+            response.put("hasMore", hasMore);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "日志搜索失败: " + e.getMessage());
+        }
         
         return response;
     }
     
-    @Operation(summary = "获取日志统计", description = "获取各类日志的统计信息")
+    @Operation(summary = "获取日志统计", description = "获取各类日志的数量及按级别、类型、模块、响应码、风险级别的分布，数据来自汇总表和最近几分钟的原始日志")
     @GetMapping("/statistics")
     public Map<String, Object> getLogStatistics(
             @Parameter(description = "开始时间") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
             @Parameter(description = "结束时间") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
         
-        Map<String, Object> statistics = new HashMap<>();
-        
-        // 系统日志统计
-        QueryWrapper<SystemLog> systemQuery = new QueryWrapper<>();
-        if (startTime != null) {
-            systemQuery.ge("created_at", startTime);
-        }
-        if (endTime != null) {
-            systemQuery.le("created_at", endTime);
-        }
-        
-        Long systemLogCount = systemLogMapper.selectCount(systemQuery);
-        statistics.put("systemLogCount", systemLogCount);
-        
-        // 访问日志统计
-        QueryWrapper<AccessLog> accessQuery = new QueryWrapper<>();
-        if (startTime != null) {
-            accessQuery.ge("created_at", startTime);
-        }
-        if (endTime != null) {
-            accessQuery.le("created_at", endTime);
-        }
-        
-        Long accessLogCount = accessLogMapper.selectCount(accessQuery);
-        statistics.put("accessLogCount", accessLogCount);
-        
-        // 安全日志统计
-        QueryWrapper<SecurityLog> securityQuery = new QueryWrapper<>();
-        if (startTime != null) {
-            securityQuery.ge("created_at", startTime);
-        }
-        if (endTime != null) {
-            securityQuery.le("created_at", endTime);
-        }
-        
-        Long securityLogCount = securityLogMapper.selectCount(securityQuery);
-        statistics.put("securityLogCount", securityLogCount);
-        
-        // 错误日志统计
-        QueryWrapper<SystemLog> errorQuery = new QueryWrapper<>();
-        errorQuery.eq("log_level", "ERROR");
-        if (startTime != null) {
-            errorQuery.ge("created_at", startTime);
-        }
-        if (endTime != null) {
-            errorQuery.le("created_at", endTime);
+        return logRollupManager.getStatistics(startTime, endTime);
+    }
+    
+    @Operation(summary = "获取告警统计", description = "按状态和严重程度统计告警数量，数据来自内存计数表，最多滞后log.alert.stats.max-staleness-seconds秒")
+    @GetMapping("/alerts/statistics")
+    public Map<String, Object> getAlertStatistics() {
+        return logAlertService.getAlertStatistics();
+    }
+    
+    @Operation(summary = "获取日志写入状态", description = "查看异步日志线程池、写缓冲和访问日志缓冲文件的队列深度、丢弃计数，用于容量评估")
+    @GetMapping("/pipeline")
+    public Map<String, Object> getPipelineStatus() {
+        Map<String, Object> executor = new HashMap<>();
+        executor.put("poolSize", logExecutor.getPoolSize());
+        executor.put("activeCount", logExecutor.getActiveCount());
+        executor.put("queueSize", logExecutor.getQueueSize());
+        executor.put("queueCapacity", logExecutor.getQueueCapacity());
+        executor.put("completedTaskCount", logExecutor.getThreadPoolExecutor().getCompletedTaskCount());
+        executor.put("rejectedCount", logExecutorRejectionPolicy.getRejectedCount());
+        
+        Map<String, Object> sink = new HashMap<>();
+        sink.put("queueSize", logBatchWriter.getQueueSize());
+        sink.put("capacity", logBatchWriter.getCapacity());
+        sink.put("enqueuedCount", logBatchWriter.getEnqueuedCount());
+        sink.put("writtenCount", logBatchWriter.getWrittenCount());
+        sink.put("droppedCount", logBatchWriter.getDroppedCount());
+        sink.put("spilledCount", logBatchWriter.getSpilledCount());
+        sink.put("failedCount", logBatchWriter.getFailedCount());
+        
+        Map<String, Object> status = new HashMap<>();
+        status.put("executor", executor);
+        status.put("sink", sink);
+        status.put("accessSpool", accessLogSpool.getStatus());
+        return status;
+    }
+    
+    @Operation(summary = "获取日志采集策略", description = "当前生效的类别开关、系统日志级别、监控层级和采样率，以及被log_configs覆盖的配置键")
+    @GetMapping("/capture-policy")
+    public Map<String, Object> getCapturePolicy() {
+        return logCapturePolicy.current().describe();
+    }
+    
+    @Operation(summary = "重新加载日志采集策略", description = "立即从log_configs重新加载，不必等待定时刷新")
+    @PostMapping("/capture-policy/reload")
+    public Map<String, Object> reloadCapturePolicy() {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            result.put("success", true);
+            result.put("policy", logCapturePolicy.reload().describe());
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "加载日志采集策略失败: " + e.getMessage());
         }
-        
-        Long errorLogCount = systemLogMapper.selectCount(errorQuery);
-        statistics.put("errorLogCount", errorLogCount);
-        
-        return statistics;
+        return result;
     }
     
-    @Operation(summary = "清理过期日志", description = "清理指定天数之前的日志")
+    @Operation(summary = "获取当前性能统计", description = "当前汇总周期内各方法的调用次数、错误次数和耗时分位数，按p99倒序")
+    @GetMapping("/performance/current")
+    public List<Map<String, Object>> getCurrentPerformance() {
+        return performanceMetrics.currentSnapshots();
+    }
+    
+    @Operation(summary = "清理过期日志", description = "在后台分批清理指定天数之前的日志，进度通过/logs/cleanup/status查看")
     @DeleteMapping("/cleanup")
     public Map<String, Object> cleanupLogs(
             @Parameter(description = "保留天数") @RequestParam(defaultValue = "30") Integer days) {
         
         LocalDateTime cutoffTime = LocalDateTime.now().minusDays(days);
+        Map<String, LocalDateTime> cutoffs = new LinkedHashMap<>();
+        cutoffs.put(LogRetentionEngine.TABLE_SYSTEM_LOGS, cutoffTime);
+        cutoffs.put(LogRetentionEngine.TABLE_ACCESS_LOGS, cutoffTime);
+        cutoffs.put(LogRetentionEngine.TABLE_SECURITY_LOGS, cutoffTime);
         
         Map<String, Object> result = new HashMap<>();
         
         try {
-            // 清理系统日志
-            QueryWrapper<SystemLog> systemQuery = new QueryWrapper<>();
-            systemQuery.lt("created_at", cutoffTime);
-            int systemDeleted = systemLogMapper.delete(systemQuery);
-            
-            // 清理访问日志
-            QueryWrapper<AccessLog> accessQuery = new QueryWrapper<>();
-            accessQuery.lt("created_at", cutoffTime);
-            int accessDeleted = accessLogMapper.delete(accessQuery);
-            
-            // 清理安全日志
-            QueryWrapper<SecurityLog> securityQuery = new QueryWrapper<>();
-            securityQuery.lt("created_at", cutoffTime);
-            int securityDeleted = securityLogMapper.delete(securityQuery);
-            
-            result.put("success", true);
-            result.put("message", "日志清理完成");
-            result.put("systemLogsDeleted", systemDeleted);
-            result.put("accessLogsDeleted", accessDeleted);
-            result.put("securityLogsDeleted", securityDeleted);
-            result.put("totalDeleted", systemDeleted + accessDeleted + securityDeleted);
-            
+            if (logRetentionEngine.start("MANUAL", cutoffs)) {
+                result.put("success", true);
+                result.put("message", "日志清理已开始，可通过/logs/cleanup/status查看进度");
+            } else {
+                result.put("success", false);
+                result.put("message", "已有日志清理在执行，请稍后再试");
+            }
         } catch (Exception e) {
             result.put("success", false);
             result.put("message", "日志清理失败: " + e.getMessage());
@@ -315,4 +369,74 @@ public class LogController {
         
         return result;
     }
+    
+    @Operation(summary = "获取日志清理进度", description = "当前或最近一次清理的各表进度、删除条数和删除速率")
+    @GetMapping("/cleanup/status")
+    public Map<String, Object> getCleanupStatus() {
+        return logRetentionEngine.getStatus();
+    }
+    
+    /**
+     * 日志分页查询
+     * 传入page时按页码分页并统计总数，兼容原有调用；否则按(created_at, id)倒序游标分页，
+     * 翻页代价与页深无关，默认不统计总数
+     */
+    private <T> Map<String, Object> queryLogs(BaseMapper<T> mapper, QueryWrapper<T> queryWrapper,
+                                              Integer page, Integer size, String before, boolean withTotal,
+                                              Function<T, LocalDateTime> createdAtGetter, Function<T, Long> idGetter) {
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Map<String, Object> response = new HashMap<>();
+        
+        if (page != null) {
+            queryWrapper.orderByDesc("created_at", "id");
+            Page<T> result = mapper.selectPage(new Page<>(page, pageSize), queryWrapper);
+            response.put("records", result.getRecords());
+            response.put("total", result.getTotal());
+            response.put("pages", result.getPages());
+            response.put("current", result.getCurrent());
+            response.put("size", result.getSize());
+            return response;
+        }
+        
+        if (withTotal) {
+            response.put("total", mapper.selectCount(queryWrapper));
+        }
+        
+        // 游标条件：(created_at, id) < (cursorCreatedAt, cursorId)
+        if (before != null && !before.isBlank()) {
+            String[] parts = before.split(",");
+            LocalDateTime cursorCreatedAt;
+            long cursorId;
+            try {
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException(before);
+                }
+                cursorCreatedAt = LocalDateTime.parse(parts[0].trim());
+                cursorId = Long.parseLong(parts[1].trim());
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "无效的分页游标: " + before);
+            }
+            queryWrapper.and(w -> w.lt("created_at", cursorCreatedAt)
+                    .or(o -> o.eq("created_at", cursorCreatedAt).lt("id", cursorId)));
+        }
+        
+        // 多取一条用于判断是否还有下一页
+        queryWrapper.orderByDesc("created_at", "id")
+                    .last("LIMIT " + (pageSize + 1));
+        
+        List<T> records = mapper.selectList(queryWrapper);
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = records.subList(0, pageSize);
+        }
+        
+        response.put("records", records);
+        response.put("size", pageSize);
+        response.put("hasMore", hasMore);
+        if (hasMore) {
+            T last = records.get(records.size() - 1);
+            response.put("nextCursor", createdAtGetter.apply(last) + "," + idGetter.apply(last));
+        }
+        return response;
+    }
 }
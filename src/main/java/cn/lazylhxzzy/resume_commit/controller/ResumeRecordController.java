@@ -1,24 +1,27 @@
 package cn.lazylhxzzy.resume_commit.controller;
 
+import cn.lazylhxzzy.resume_commit.annotation.CurrentUser;
+import cn.lazylhxzzy.resume_commit.dto.JobProgress;
 import cn.lazylhxzzy.resume_commit.dto.ResumeRecordDTO;
+import cn.lazylhxzzy.resume_commit.dto.ResumeRecordQuery;
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
 import cn.lazylhxzzy.resume_commit.entity.ResumeRecord;
-import cn.lazylhxzzy.resume_commit.entity.User;
-import cn.lazylhxzzy.resume_commit.mapper.UserMapper;
 import cn.lazylhxzzy.resume_commit.service.ResumeRecordService;
 import cn.lazylhxzzy.resume_commit.service.impl.ResumeRecordServiceImpl;
-import cn.lazylhxzzy.resume_commit.util.JwtUtil;
 import lombok.extern.slf4j.Slf4j;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,30 +40,15 @@ public class ResumeRecordController {
     @Autowired
     private ResumeRecordService resumeRecordService;
     
-    @Autowired
-    private UserMapper userMapper;
-    
-    @Autowired
-    private JwtUtil jwtUtil;
-    
     @Operation(summary = "获取投递记录", description = "获取当前用户的投递记录列表")
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getRecords(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<Map<String, Object>> getRecords(@CurrentUser UserContext currentUser) {
         try {
-            String username = jwtUtil.getUsernameFromToken(token.substring(7));
-            String role = jwtUtil.getRoleFromToken(token.substring(7));
-            
-            // 获取用户ID
-            User user = userMapper.selectOne(
-                new QueryWrapper<User>()
-                    .eq("username", username)
-            );
-            
             List<ResumeRecordDTO> records;
-            if ("ROOT".equals(role)) {
+            if (currentUser.isRoot()) {
                 records = resumeRecordService.getAllRecords();
             } else {
-                records = resumeRecordService.getUserRecords(user.getId());
+                records = resumeRecordService.getUserRecords(currentUser.getUserId());
             }
             
             Map<String, Object> response = new HashMap<>();
@@ -75,20 +63,79 @@ public class ResumeRecordController {
         }
     }
     
+    @Operation(summary = "分页获取投递记录", description = "按更新时间倒序游标分页获取投递记录，支持服务端筛选")
+    @GetMapping("/page")
+    public ResponseEntity<Map<String, Object>> getRecordPage(
+            @CurrentUser UserContext currentUser,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String companyName,
+            @RequestParam(required = false) String currentStatus,
+            @RequestParam(required = false) String finalResult,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime applyStart,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime applyEnd,
+            @RequestParam(required = false) Long userId) {
+        try {
+            ResumeRecordQuery query = new ResumeRecordQuery();
+            // 只有ROOT用户可以按用户筛选，普通用户只能查看自己的记录
+            query.setUserId(currentUser.isRoot() ? userId : currentUser.getUserId());
+            query.setCompanyName(companyName);
+            query.setCurrentStatus(currentStatus);
+            query.setFinalResult(finalResult);
+            query.setApplyStart(applyStart);
+            query.setApplyEnd(applyEnd);
+            query.setSize(size);
+            
+            // 游标格式：updatedAt,id
+            if (cursor != null && !cursor.isBlank()) {
+                String[] parts = cursor.split(",");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("无效的分页游标");
+                }
+                query.setCursorUpdatedAt(LocalDateTime.parse(parts[0].trim()));
+                query.setCursorId(Long.parseLong(parts[1].trim()));
+            }
+            
+            Map<String, Object> response = new HashMap<>(resumeRecordService.getRecordPage(query));
+            response.put("success", true);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @Operation(summary = "获取分组投递记录", description = "获取按公司分组的投递记录，岗位、面试记录和当前岗位由服务端合并")
+    @GetMapping("/groups")
+    public ResponseEntity<Map<String, Object>> getRecordGroups(@CurrentUser UserContext currentUser) {
+        try {
+            List<ResumeRecordDTO> groups;
+            if (currentUser.isRoot()) {
+                groups = resumeRecordService.getAllRecordGroups();
+            } else {
+                groups = resumeRecordService.getUserRecordGroups(currentUser.getUserId());
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", groups);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     @Operation(summary = "添加投递记录", description = "添加新的投递记录")
     @PostMapping
     public ResponseEntity<Map<String, Object>> addRecord(@RequestBody ResumeRecordDTO recordDTO, 
-                                                        @RequestHeader("Authorization") String token) {
+                                                        @CurrentUser UserContext currentUser) {
         try {
-            String username = jwtUtil.getUsernameFromToken(token.substring(7));
-            
-            // 获取用户ID
-            User user = userMapper.selectOne(
-                new QueryWrapper<User>()
-                    .eq("username", username)
-            );
-            
-            resumeRecordService.addRecord(recordDTO, user.getId());
+            resumeRecordService.addRecord(recordDTO, currentUser.getUserId());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -105,17 +152,9 @@ public class ResumeRecordController {
     @Operation(summary = "批量添加投递记录", description = "批量添加同一公司的多个岗位记录")
     @PostMapping("/batch")
     public ResponseEntity<Map<String, Object>> addMultipleRecords(@RequestBody List<ResumeRecordDTO> recordDTOs, 
-                                                                 @RequestHeader("Authorization") String token) {
+                                                                 @CurrentUser UserContext currentUser) {
         try {
-            String username = jwtUtil.getUsernameFromToken(token.substring(7));
-            
-            // 获取用户ID
-            User user = userMapper.selectOne(
-                new QueryWrapper<User>()
-                    .eq("username", username)
-            );
-            
-            resumeRecordService.addMultipleRecords(recordDTOs, user.getId());
+            resumeRecordService.addMultipleRecords(recordDTOs, currentUser.getUserId());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -133,18 +172,10 @@ public class ResumeRecordController {
     @PutMapping("/{id}")
     public ResponseEntity<Map<String, Object>> updateRecord(@PathVariable Long id, 
                                                            @RequestBody ResumeRecordDTO recordDTO,
-                                                           @RequestHeader("Authorization") String token) {
+                                                           @CurrentUser UserContext currentUser) {
         try {
-            String username = jwtUtil.getUsernameFromToken(token.substring(7));
-            
-            // 获取用户ID
-            User user = userMapper.selectOne(
-                new QueryWrapper<User>()
-                    .eq("username", username)
-            );
-            
             recordDTO.setId(id);
-            resumeRecordService.updateRecord(recordDTO, user.getId());
+            resumeRecordService.updateRecord(recordDTO, currentUser.getUserId());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -161,17 +192,9 @@ public class ResumeRecordController {
     @Operation(summary = "删除投递记录", description = "删除指定的投递记录")
     @DeleteMapping("/{id}")
     public ResponseEntity<Map<String, Object>> deleteRecord(@PathVariable Long id,
-                                                           @RequestHeader("Authorization") String token) {
+                                                           @CurrentUser UserContext currentUser) {
         try {
-            String username = jwtUtil.getUsernameFromToken(token.substring(7));
-            
-            // 获取用户ID
-            User user = userMapper.selectOne(
-                new QueryWrapper<User>()
-                    .eq("username", username)
-            );
-            
-            resumeRecordService.deleteRecord(id, user.getId());
+            resumeRecordService.deleteRecord(id, currentUser.getUserId());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -187,25 +210,18 @@ public class ResumeRecordController {
     
     @Operation(summary = "导出数据", description = "导出投递记录数据为Excel文件")
     @GetMapping("/export")
-    public ResponseEntity<byte[]> exportRecords(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<StreamingResponseBody> exportRecords(@CurrentUser UserContext currentUser) {
         try {
-            String username = jwtUtil.getUsernameFromToken(token.substring(7));
-            String role = jwtUtil.getRoleFromToken(token.substring(7));
-            
-            // 获取用户ID
-            User user = userMapper.selectOne(
-                new QueryWrapper<User>()
-                    .eq("username", username)
-            );
-            
-            byte[] excelData;
+            StreamingResponseBody body;
             String filename;
             
-            if ("ROOT".equals(role)) {
-                excelData = resumeRecordService.exportAllRecords();
+            // 直接写入响应输出流，不在内存中缓存整个文件
+            if (currentUser.isRoot()) {
+                body = outputStream -> resumeRecordService.exportAllRecords(outputStream, new JobProgress());
                 filename = "all_resume_records.xlsx";
             } else {
-                excelData = resumeRecordService.exportUserRecords(user.getId());
+                Long userId = currentUser.getUserId();
+                body = outputStream -> resumeRecordService.exportUserRecords(userId, outputStream, new JobProgress());
                 filename = "my_resume_records.xlsx";
             }
             
@@ -213,7 +229,7 @@ public class ResumeRecordController {
             headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
             headers.setContentDispositionFormData("attachment", filename);
             
-            return new ResponseEntity<>(excelData, headers, HttpStatus.OK);
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -224,28 +240,23 @@ public class ResumeRecordController {
     @Operation(summary = "获取同一公司的其他岗位记录", description = "获取同一公司的其他岗位记录，用于编辑时的岗位选择")
     @GetMapping("/company-others/{id}")
     public ResponseEntity<Map<String, Object>> getCompanyOtherRecords(@PathVariable Long id,
-                                                                     @RequestHeader("Authorization") String token) {
+                                                                     @CurrentUser UserContext currentUser) {
         try {
-            // 验证token并获取用户信息
-            String username = jwtUtil.getUsernameFromToken(token.substring(7));
-            QueryWrapper<User> userQuery = new QueryWrapper<>();
-            userQuery.eq("username", username);
-            User user = userMapper.selectOne(userQuery);
-            if (user == null) {
+            if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("success", false, "message", "用户不存在"));
             }
             
             // 先获取当前记录以获取公司名称
             ResumeRecord currentRecord = resumeRecordService.getById(id);
-            if (currentRecord == null || !currentRecord.getUserId().equals(user.getId())) {
+            if (currentRecord == null || !currentRecord.getUserId().equals(currentUser.getUserId())) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(Map.of("success", false, "message", "记录不存在"));
             }
             
             // 获取同一公司的其他岗位记录
             List<ResumeRecordDTO> otherRecords = ((ResumeRecordServiceImpl) resumeRecordService)
-                    .getCompanyOtherRecords(id, currentRecord.getCompanyName(), user.getId());
+                    .getCompanyOtherRecords(id, currentRecord.getCompanyName(), currentUser.getUserId());
             
             return ResponseEntity.ok(Map.of(
                     "success", true,
@@ -261,23 +272,14 @@ public class ResumeRecordController {
     @Operation(summary = "导入Excel数据", description = "导入Excel文件数据到系统")
     @PostMapping("/import")
     public ResponseEntity<Map<String, Object>> importRecords(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser UserContext currentUser,
             @RequestParam("file") MultipartFile file,
             @RequestParam("mode") String mode) {
         
         Map<String, Object> response = new HashMap<>();
         
         try {
-            String username = jwtUtil.getUsernameFromToken(token.substring(7));
-            String role = jwtUtil.getRoleFromToken(token.substring(7));
-            
-            // 获取用户ID
-            User user = userMapper.selectOne(
-                new QueryWrapper<User>()
-                    .eq("username", username)
-            );
-            
-            if (user == null) {
+            if (currentUser == null) {
                 response.put("success", false);
                 response.put("message", "用户不存在");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
@@ -308,10 +310,11 @@ public class ResumeRecordController {
             } else {
                 // 导入模式
                 Map<String, Object> importResult;
-                if ("ROOT".equals(role)) {
-                    importResult = resumeRecordService.importAllRecords(inputStream, fileName, mode);
+                if (currentUser.isRoot()) {
+                    importResult = resumeRecordService.importAllRecords(inputStream, fileName, mode, new JobProgress());
                 } else {
-                    importResult = resumeRecordService.importUserRecords(inputStream, fileName, mode, user.getId());
+                    importResult = resumeRecordService.importUserRecords(inputStream, fileName, mode, currentUser.getUserId(),
+                            new JobProgress());
                 }
                 
                 response.putAll(importResult);
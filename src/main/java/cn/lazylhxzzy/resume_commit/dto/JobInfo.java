@@ -0,0 +1,69 @@
+package cn.lazylhxzzy.resume_commit.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+
+/**
+ * 后台导入导出任务信息
+ */
+@Data
+public class JobInfo {
+
+    public static final String TYPE_IMPORT = "IMPORT";
+    public static final String TYPE_EXPORT = "EXPORT";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_SUCCEEDED = "SUCCEEDED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private String id;
+
+    // 任务类型：IMPORT / EXPORT
+    private String type;
+
+    // 任务状态：PENDING / RUNNING / SUCCEEDED / FAILED
+    private volatile String status;
+
+    // 提交任务的用户
+    private Long userId;
+
+    // 导入的原始文件名或导出的下载文件名
+    private String fileName;
+
+    private final JobProgress progress = new JobProgress();
+
+    // 导入结果（成功数、错误明细等）
+    private volatile Map<String, Object> result;
+
+    private volatile String message;
+
+    private LocalDateTime createdAt;
+
+    private volatile LocalDateTime startedAt;
+
+    private volatile LocalDateTime finishedAt;
+
+    // 任务信息及导出文件的过期时间
+    private volatile LocalDateTime expiresAt;
+
+    // 导出文件在本地磁盘的路径
+    @JsonIgnore
+    private volatile Path filePath;
+
+    // 正在进行的下载数，大于0时过期清理跳过该任务
+    @JsonIgnore
+    private final AtomicInteger activeDownloads = new AtomicInteger();
+
+    /**
+     * 导出文件是否可以下载
+     */
+    public boolean isDownloadable() {
+        return TYPE_EXPORT.equals(type) && STATUS_SUCCEEDED.equals(status) && filePath != null;
+    }
+}
@@ -0,0 +1,31 @@
+package cn.lazylhxzzy.resume_commit.dto;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 导入导出进度计数
+ * 由执行任务的线程更新，轮询接口并发读取
+ */
+@Getter
+public class JobProgress {
+
+    // 已解析行数
+    private final AtomicLong parsed = new AtomicLong();
+
+    // 导入事务中已写入、尚未提交的记录数，事务回滚时清零
+    private final AtomicLong written = new AtomicLong();
+
+    // 已提交到数据库的记录数
+    private final AtomicLong inserted = new AtomicLong();
+
+    // 跳过的记录数（跳过模式下已存在）
+    private final AtomicLong skipped = new AtomicLong();
+
+    // 解析或校验失败的行数
+    private final AtomicLong failed = new AtomicLong();
+
+    // 已导出的记录数
+    private final AtomicLong exported = new AtomicLong();
+}
@@ -0,0 +1,23 @@
+package cn.lazylhxzzy.resume_commit.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 日志表分区信息
+ * 取自information_schema.PARTITIONS
+ */
+@Data
+public class LogPartitionInfo {
+    
+    /**
+     * 分区名
+     */
+    private String partitionName;
+    
+    /**
+     * 分区上界（VALUES LESS THAN），MAXVALUE兜底分区为null
+     */
+    private LocalDateTime upperBound;
+}
@@ -1,5 +1,6 @@
 package cn.lazylhxzzy.resume_commit.dto;
 
+import cn.lazylhxzzy.resume_commit.annotation.Sensitive;
 import lombok.Data;
 import jakarta.validation.constraints.NotBlank;
 
@@ -12,6 +13,7 @@ public class LoginRequest {
     @NotBlank(message = "用户名不能为空")
     private String username;
     
+    @Sensitive
     @NotBlank(message = "密码不能为空")
     private String password;
 }
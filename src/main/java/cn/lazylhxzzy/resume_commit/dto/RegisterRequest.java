@@ -1,5 +1,6 @@
 package cn.lazylhxzzy.resume_commit.dto;
 
+import cn.lazylhxzzy.resume_commit.annotation.Sensitive;
 import lombok.Data;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -13,12 +14,14 @@ public class RegisterRequest {
     @NotBlank(message = "用户名不能为空")
     private String username;
     
+    @Sensitive
     @NotBlank(message = "密码不能为空")
     private String password;
     
     @Email(message = "邮箱格式不正确")
     private String email;
     
+    @Sensitive
     @NotBlank(message = "邀请码不能为空")
     private String inviteCode;
 }
@@ -0,0 +1,35 @@
+package cn.lazylhxzzy.resume_commit.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 投递记录分页查询条件DTO
+ * 按(updated_at, id)倒序进行游标分页
+ */
+@Data
+public class ResumeRecordQuery {
+
+    // 用户ID（普通用户强制为本人）
+    private Long userId;
+
+    // 公司名称前缀
+    private String companyName;
+
+    private String currentStatus;
+
+    private String finalResult;
+
+    // 投递时间范围
+    private LocalDateTime applyStart;
+
+    private LocalDateTime applyEnd;
+
+    // 游标：上一页最后一条记录的updated_at和id
+    private LocalDateTime cursorUpdatedAt;
+
+    private Long cursorId;
+
+    // 每页大小
+    private Integer size;
+}
@@ -0,0 +1,30 @@
+package cn.lazylhxzzy.resume_commit.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 当前请求的用户上下文
+ * 由JwtAuthenticationFilter在请求开始时构建一次，未登录时用户字段为null
+ */
+@Getter
+@AllArgsConstructor
+public class UserContext {
+
+    private final Long userId;
+
+    private final String username;
+
+    private final String role;
+
+    private final String ipAddress;
+
+    private final String userAgent;
+
+    /**
+     * 是否为ROOT用户
+     */
+    public boolean isRoot() {
+        return "ROOT".equals(role);
+    }
+}
@@ -21,11 +21,13 @@ public class LogAlert {
     private String severity; // LOW, MEDIUM, HIGH, CRITICAL
     private String message;
     private String details;
-    private String status; // PENDING, SENT, FAILED
+    private String status; // PENDING（待发送）, SENDING（发送中）, SENT, FAILED
     private String notificationType;
     private String notificationTarget;
     private LocalDateTime triggeredAt;
     private LocalDateTime sentAt;
     private String errorMessage;
+    private Integer attempts; // 已尝试发送次数
+    private LocalDateTime nextAttemptAt; // 下次发送时间
     private LocalDateTime createdAt;
 }
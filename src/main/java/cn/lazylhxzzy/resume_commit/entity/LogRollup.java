@@ -0,0 +1,38 @@
+package cn.lazylhxzzy.resume_commit.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 日志汇总记录
+ * 对应log_rollup_minute和log_rollup_hour两张表，每行是一个时间桶内某个维度取值的日志条数
+ */
+@Data
+public class LogRollup {
+    
+    /**
+     * 时间桶起点（分钟表为整分钟，小时表为整点）
+     */
+    private LocalDateTime bucketStart;
+    
+    /**
+     * 日志来源：SYSTEM, ACCESS, SECURITY
+     */
+    private String source;
+    
+    /**
+     * 维度：TOTAL, LEVEL, TYPE, MODULE, RESPONSE_CODE, RISK_LEVEL
+     */
+    private String dimension;
+    
+    /**
+     * 维度取值，TOTAL维度为空字符串
+     */
+    private String dimValue;
+    
+    /**
+     * 日志条数
+     */
+    private Long logCount;
+}
@@ -1,6 +1,7 @@
 package cn.lazylhxzzy.resume_commit.entity;
 
 import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import lombok.Data;
@@ -106,4 +107,10 @@ public class SystemLog {
      * 创建时间
      */
     private LocalDateTime createdAt;
+    
+    /**
+     * 全文检索相关度，只在搜索结果中有值
+     */
+    @TableField(exist = false)
+    private Double relevance;
 }
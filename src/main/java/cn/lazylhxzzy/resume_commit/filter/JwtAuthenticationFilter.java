@@ -1,6 +1,11 @@
 package cn.lazylhxzzy.resume_commit.filter;
 
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
+import cn.lazylhxzzy.resume_commit.entity.User;
+import cn.lazylhxzzy.resume_commit.service.impl.UserCache;
 import cn.lazylhxzzy.resume_commit.util.JwtUtil;
+import cn.lazylhxzzy.resume_commit.util.UserContextHolder;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,10 +19,10 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 
 /**
  * JWT认证过滤器
+ * 每个请求只解析一次token，同时构建UserContext供日志和切面使用
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -25,36 +30,76 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private UserCache userCache;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
         String token = request.getHeader("Authorization");
+        Long userId = null;
+        String username = null;
+        String role = null;
         
         if (token != null && token.startsWith("Bearer ")) {
             token = token.substring(7);
             
             try {
-                if (jwtUtil.validateToken(token)) {
-                    String username = jwtUtil.getUsernameFromToken(token);
-                    String role = jwtUtil.getRoleFromToken(token);
-                    
-                    // 创建权限列表
-                    ArrayList<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                    if (role != null) {
-                        authorities.add(new SimpleGrantedAuthority(role));
-                    }
-                    
-                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                        username, null, authorities
-                    );
-                    SecurityContextHolder.getContext().setAuthentication(auth);
+                // 解析时会校验签名和过期时间，失败直接抛出异常
+                Claims claims = jwtUtil.parse(token);
+                
+                // 新token带userId声明，按ID取缓存用户；旧token退回按用户名查找
+                Object claimUserId = claims.get("userId");
+                User user = claimUserId instanceof Number
+                        ? userCache.getById(((Number) claimUserId).longValue())
+                        : userCache.getByUsername(claims.getSubject());
+                if (user == null) {
+                    throw new IllegalStateException("用户不存在");
+                }
+                userId = user.getId();
+                username = user.getUsername();
+                // 角色以缓存为准，角色变更后无需等待token过期
+                role = user.getRole();
+                
+                // 创建权限列表
+                ArrayList<SimpleGrantedAuthority> authorities = new ArrayList<>();
+                if (role != null) {
+                    authorities.add(new SimpleGrantedAuthority(role));
                 }
+                
+                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                    username, null, authorities
+                );
+                SecurityContextHolder.getContext().setAuthentication(auth);
             } catch (Exception e) {
                 // Token无效，继续执行
             }
         }
         
-        filterChain.doFilter(request, response);
+        UserContextHolder.set(new UserContext(userId, username, role,
+                getClientIpAddress(request), request.getHeader("User-Agent")));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            UserContextHolder.clear();
+        }
+    }
+    
+    /**
+     * 获取客户端真实IP地址
+     */
+    private String getClientIpAddress(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
+            return xForwardedFor.split(",")[0].trim();
+        }
+        
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
+            return xRealIp;
+        }
+        
+        return request.getRemoteAddr();
     }
-}
\ No newline at end of file
+}
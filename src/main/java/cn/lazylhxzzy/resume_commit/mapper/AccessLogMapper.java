@@ -2,11 +2,36 @@ package cn.lazylhxzzy.resume_commit.mapper;
 
 import cn.lazylhxzzy.resume_commit.entity.AccessLog;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 访问日志Mapper
  */
 @Mapper
 public interface AccessLogMapper extends BaseMapper<AccessLog> {
+    
+    /**
+     * 多行批量插入访问日志
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO access_logs (",
+            "user_id, username, ip_address, user_agent, request_method, request_url, request_params,",
+            " response_code, response_time, request_size, response_size, referer, session_id, created_at",
+            ") VALUES ",
+            "<foreach collection='list' item='item' separator=','>",
+            "(",
+            "#{item.userId}, #{item.username}, #{item.ipAddress}, #{item.userAgent},",
+            "#{item.requestMethod}, #{item.requestUrl}, #{item.requestParams}, #{item.responseCode},",
+            "#{item.responseTime}, #{item.requestSize}, #{item.responseSize}, #{item.referer},",
+            "#{item.sessionId}, #{item.createdAt}",
+            ")",
+            "</foreach>",
+            "</script>"
+    })
+    int insertBatch(@Param("list") List<AccessLog> logs);
 }
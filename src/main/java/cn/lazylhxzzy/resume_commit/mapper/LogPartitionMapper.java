@@ -0,0 +1,45 @@
+package cn.lazylhxzzy.resume_commit.mapper;
+
+import cn.lazylhxzzy.resume_commit.dto.LogPartitionInfo;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 日志表分区维护Mapper
+ * 表名和分区定义由LogPartitionManager生成，不接受外部输入
+ */
+@Mapper
+public interface LogPartitionMapper {
+    
+    /**
+     * 按顺序列出表的分区及其上界，未分区的表返回空列表
+     * 分区按UNIX_TIMESTAMP(created_at)划分，上界用FROM_UNIXTIME换算，与建分区时使用同一会话时区
+     */
+    @Select({
+            "SELECT PARTITION_NAME AS partitionName,",
+            "       CASE WHEN PARTITION_DESCRIPTION = 'MAXVALUE' THEN NULL",
+            "            ELSE FROM_UNIXTIME(PARTITION_DESCRIPTION) END AS upperBound",
+            "FROM information_schema.PARTITIONS",
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{table} AND PARTITION_NAME IS NOT NULL",
+            "ORDER BY PARTITION_ORDINAL_POSITION"
+    })
+    List<LogPartitionInfo> listPartitions(@Param("table") String table);
+    
+    /**
+     * 把兜底分区拆分为若干新分区加新的兜底分区，兜底分区为空时只修改元数据
+     */
+    @Update("ALTER TABLE ${table} REORGANIZE PARTITION ${futurePartition} INTO (${definitions})")
+    void reorganizePartition(@Param("table") String table,
+                             @Param("futurePartition") String futurePartition,
+                             @Param("definitions") String definitions);
+    
+    /**
+     * 删除分区，partitions为逗号分隔的分区名
+     */
+    @Update("ALTER TABLE ${table} DROP PARTITION ${partitions}")
+    void dropPartitions(@Param("table") String table, @Param("partitions") String partitions);
+}
@@ -0,0 +1,63 @@
+package cn.lazylhxzzy.resume_commit.mapper;
+
+import cn.lazylhxzzy.resume_commit.entity.LogRollup;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 日志汇总Mapper
+ * table只接受LogRollupManager中的表名常量
+ */
+@Mapper
+public interface LogRollupMapper {
+    
+    /**
+     * 多行批量插入汇总记录
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO ${table} (bucket_start, source, dimension, dim_value, log_count) VALUES ",
+            "<foreach collection='list' item='item' separator=','>",
+            "(#{item.bucketStart}, #{item.source}, #{item.dimension}, #{item.dimValue}, #{item.logCount})",
+            "</foreach>",
+            "</script>"
+    })
+    int insertBatch(@Param("table") String table, @Param("list") List<LogRollup> rows);
+    
+    @Delete("DELETE FROM ${table} WHERE bucket_start >= #{from} AND bucket_start < #{to}")
+    int deleteRange(@Param("table") String table, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Delete("DELETE FROM ${table} WHERE bucket_start < #{cutoff}")
+    int deleteBefore(@Param("table") String table, @Param("cutoff") LocalDateTime cutoff);
+    
+    /**
+     * 由分钟汇总重新计算小时汇总，调用前先删除区间内的小时记录
+     */
+    @Insert({
+            "INSERT INTO log_rollup_hour (bucket_start, source, dimension, dim_value, log_count)",
+            "SELECT DATE_FORMAT(bucket_start, '%Y-%m-%d %H:00:00') AS hour_start, source, dimension, dim_value, SUM(log_count)",
+            "FROM log_rollup_minute",
+            "WHERE bucket_start >= #{from} AND bucket_start < #{to}",
+            "GROUP BY hour_start, source, dimension, dim_value"
+    })
+    int rollUpHours(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    /**
+     * 汇总区间内各维度取值的日志条数
+     */
+    @Select({
+            "SELECT source, dimension, dim_value, SUM(log_count) AS cnt FROM ${table}",
+            "WHERE bucket_start >= #{from} AND bucket_start < #{to}",
+            "GROUP BY source, dimension, dim_value"
+    })
+    List<Map<String, Object>> sumRange(@Param("table") String table,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+}
@@ -2,11 +2,35 @@ package cn.lazylhxzzy.resume_commit.mapper;
 
 import cn.lazylhxzzy.resume_commit.entity.PerformanceLog;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 性能监控日志Mapper
  */
 @Mapper
 public interface PerformanceLogMapper extends BaseMapper<PerformanceLog> {
+    
+    /**
+     * 多行批量插入性能日志
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO performance_logs (",
+            "module, method_name, execution_time, memory_usage, cpu_usage, thread_count, gc_count,",
+            " gc_time, additional_metrics, created_at",
+            ") VALUES ",
+            "<foreach collection='list' item='item' separator=','>",
+            "(",
+            "#{item.module}, #{item.methodName}, #{item.executionTime}, #{item.memoryUsage},",
+            "#{item.cpuUsage}, #{item.threadCount}, #{item.gcCount}, #{item.gcTime},",
+            "#{item.additionalMetrics}, #{item.createdAt}",
+            ")",
+            "</foreach>",
+            "</script>"
+    })
+    int insertBatch(@Param("list") List<PerformanceLog> logs);
 }
@@ -2,11 +2,34 @@ package cn.lazylhxzzy.resume_commit.mapper;
 
 import cn.lazylhxzzy.resume_commit.entity.SecurityLog;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 安全日志Mapper
  */
 @Mapper
 public interface SecurityLogMapper extends BaseMapper<SecurityLog> {
+    
+    /**
+     * 多行批量插入安全日志
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO security_logs (",
+            "log_type, user_id, username, ip_address, user_agent, event_description, risk_level,",
+            " additional_data, created_at",
+            ") VALUES ",
+            "<foreach collection='list' item='item' separator=','>",
+            "(",
+            "#{item.logType}, #{item.userId}, #{item.username}, #{item.ipAddress}, #{item.userAgent},",
+            "#{item.eventDescription}, #{item.riskLevel}, #{item.additionalData}, #{item.createdAt}",
+            ")",
+            "</foreach>",
+            "</script>"
+    })
+    int insertBatch(@Param("list") List<SecurityLog> logs);
 }
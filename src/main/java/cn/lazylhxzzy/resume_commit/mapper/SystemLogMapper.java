@@ -2,11 +2,63 @@ package cn.lazylhxzzy.resume_commit.mapper;
 
 import cn.lazylhxzzy.resume_commit.entity.SystemLog;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 系统日志Mapper
  */
 @Mapper
 public interface SystemLogMapper extends BaseMapper<SystemLog> {
+    
+    /**
+     * 多行批量插入系统日志
+     */
+    @Insert({
+            "<script>",
+            "INSERT INTO system_logs (",
+            "log_level, log_type, module, operation, user_id, username, ip_address, user_agent,",
+            " request_method, request_url, request_params, response_code, response_time, error_code,",
+            " error_message, stack_trace, extra_data, created_at",
+            ") VALUES ",
+            "<foreach collection='list' item='item' separator=','>",
+            "(",
+            "#{item.logLevel}, #{item.logType}, #{item.module}, #{item.operation}, #{item.userId},",
+            "#{item.username}, #{item.ipAddress}, #{item.userAgent}, #{item.requestMethod},",
+            "#{item.requestUrl}, #{item.requestParams}, #{item.responseCode}, #{item.responseTime},",
+            "#{item.errorCode}, #{item.errorMessage}, #{item.stackTrace}, #{item.extraData},",
+            "#{item.createdAt}",
+            ")",
+            "</foreach>",
+            "</script>"
+    })
+    int insertBatch(@Param("list") List<SystemLog> logs);
+    
+    /**
+     * 在error_message和operation上做全文检索，按相关度倒序
+     * 依赖sql/add_log_fulltext.sql创建的ngram全文索引，query为布尔模式检索表达式
+     */
+    @Select({
+            "<script>",
+            "SELECT *, MATCH(error_message, operation) AGAINST (#{query} IN BOOLEAN MODE) AS relevance",
+            "FROM system_logs",
+            "WHERE MATCH(error_message, operation) AGAINST (#{query} IN BOOLEAN MODE)",
+            "<if test='level != null'> AND log_level = #{level}</if>",
+            "<if test='startTime != null'> AND created_at &gt;= #{startTime}</if>",
+            "<if test='endTime != null'> AND created_at &lt;= #{endTime}</if>",
+            "ORDER BY relevance DESC, created_at DESC, id DESC",
+            "LIMIT #{offset}, #{limit}",
+            "</script>"
+    })
+    List<SystemLog> searchFullText(@Param("query") String query,
+                                   @Param("level") String level,
+                                   @Param("startTime") LocalDateTime startTime,
+                                   @Param("endTime") LocalDateTime endTime,
+                                   @Param("offset") int offset,
+                                   @Param("limit") int limit);
 }
@@ -0,0 +1,22 @@
+package cn.lazylhxzzy.resume_commit.service;
+
+import cn.lazylhxzzy.resume_commit.entity.LogAlert;
+
+import java.util.List;
+
+/**
+ * 告警通知渠道
+ * 每种通知类型（EMAIL、WEBHOOK、SMS）一个实现，由AlertDispatcher按notification_type选择
+ */
+public interface AlertNotifier {
+    
+    /**
+     * 对应的通知类型
+     */
+    String getType();
+    
+    /**
+     * 向同一目标发送一条或多条（合并后的）告警，失败时抛出异常，由调用方重试
+     */
+    void send(String target, List<LogAlert> alerts) throws Exception;
+}
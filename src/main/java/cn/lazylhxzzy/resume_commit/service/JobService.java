@@ -0,0 +1,37 @@
+package cn.lazylhxzzy.resume_commit.service;
+
+import cn.lazylhxzzy.resume_commit.dto.JobInfo;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 后台导入导出任务服务接口
+ */
+public interface JobService {
+    
+    /**
+     * 提交导入任务，上传文件先落盘再交给任务线程处理
+     *
+     * @param global 是否为ROOT全局导入
+     */
+    JobInfo submitImport(MultipartFile file, String mode, Long userId, boolean global) throws IOException;
+    
+    /**
+     * 提交导出任务
+     *
+     * @param global 是否导出所有用户的数据（ROOT用户）
+     */
+    JobInfo submitExport(Long userId, boolean global);
+    
+    /**
+     * 获取任务信息，仅任务提交者和ROOT用户可见
+     */
+    JobInfo getJob(String jobId, Long userId, boolean root);
+    
+    /**
+     * 打开导出文件用于下载，流关闭前过期清理不会删除该文件
+     */
+    InputStream openDownload(JobInfo job) throws IOException;
+}
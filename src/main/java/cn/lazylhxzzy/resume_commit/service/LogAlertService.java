@@ -2,6 +2,7 @@ package cn.lazylhxzzy.resume_commit.service;
 
 import cn.lazylhxzzy.resume_commit.entity.LogAlert;
 import cn.lazylhxzzy.resume_commit.entity.LogAlertConfig;
+import cn.lazylhxzzy.resume_commit.entity.SystemLog;
 
 import java.util.List;
 import java.util.Map;
@@ -17,7 +18,12 @@ public interface LogAlertService {
     void checkAndTriggerAlerts();
     
     /**
-     * 发送告警通知
+     * 系统日志写入时调用，更新告警窗口计数并在达到阈值时触发告警
+     */
+    void onSystemLog(SystemLog systemLog);
+    
+    /**
+     * 提交告警通知，写入发送队列后由后台线程异步发送
      */
     void sendAlert(LogAlert alert);
     
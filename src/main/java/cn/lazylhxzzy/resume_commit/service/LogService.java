@@ -51,7 +51,7 @@ public interface LogService {
                         Long memoryUsage, Double cpuUsage, Map<String, Object> metrics);
     
     /**
-     * 异步记录系统日志
+     * 异步记录系统日志，告警窗口计数在调用线程更新
      */
     void logSystemAsync(String level, String type, String module, String operation,
                         Long userId, String username, String ipAddress, String userAgent,
@@ -66,4 +66,30 @@ public interface LogService {
                         String requestMethod, String requestUrl, String requestParams,
                         Integer responseCode, Long responseTime, Long requestSize,
                         Long responseSize, String referer, String sessionId);
+    
+    /**
+     * 异步记录安全日志
+     */
+    void logSecurityAsync(String logType, Long userId, String username, String ipAddress,
+                          String userAgent, String eventDescription, String riskLevel,
+                          Map<String, Object> additionalData);
+    
+    /**
+     * 异步记录业务日志
+     */
+    void logBusinessAsync(String operation, Long userId, String username, String ipAddress,
+                          Map<String, Object> businessData);
+    
+    /**
+     * 异步记录错误日志
+     */
+    void logErrorAsync(String module, String operation, Long userId, String username,
+                       String ipAddress, String errorCode, String errorMessage,
+                       String stackTrace, Map<String, Object> extraData);
+    
+    /**
+     * 异步记录性能日志
+     */
+    void logPerformanceAsync(String module, String methodName, Long executionTime,
+                             Long memoryUsage, Double cpuUsage, Map<String, Object> metrics);
 }
@@ -1,12 +1,15 @@
 package cn.lazylhxzzy.resume_commit.service;
 
+import cn.lazylhxzzy.resume_commit.dto.JobProgress;
 import cn.lazylhxzzy.resume_commit.dto.ResumeRecordDTO;
+import cn.lazylhxzzy.resume_commit.dto.ResumeRecordQuery;
 import cn.lazylhxzzy.resume_commit.entity.ResumeRecord;
 import com.baomidou.mybatisplus.extension.service.IService;
 
 import java.util.List;
 import java.util.Map;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * 投递记录服务接口
@@ -23,6 +26,21 @@ public interface ResumeRecordService extends IService<ResumeRecord> {
      */
     List<ResumeRecordDTO> getAllRecords();
     
+    /**
+     * 按(updated_at, id)游标分页查询投递记录
+     */
+    Map<String, Object> getRecordPage(ResumeRecordQuery query);
+    
+    /**
+     * 获取用户按公司分组的投递记录
+     */
+    List<ResumeRecordDTO> getUserRecordGroups(Long userId);
+    
+    /**
+     * 获取所有按公司分组的投递记录（ROOT用户）
+     */
+    List<ResumeRecordDTO> getAllRecordGroups();
+    
     /**
      * 添加投递记录
      */
@@ -44,14 +62,14 @@ public interface ResumeRecordService extends IService<ResumeRecord> {
     void deleteRecord(Long recordId, Long userId);
     
     /**
-     * 导出用户数据为Excel
+     * 导出用户数据为Excel，流式写入输出流，导出行数累加到progress
      */
-    byte[] exportUserRecords(Long userId);
+    void exportUserRecords(Long userId, OutputStream outputStream, JobProgress progress);
     
     /**
-     * 导出所有数据为Excel（ROOT用户）
+     * 导出所有数据为Excel，流式写入输出流（ROOT用户）
      */
-    byte[] exportAllRecords();
+    void exportAllRecords(OutputStream outputStream, JobProgress progress);
     
     /**
      * 导入Excel数据（预览模式）
@@ -59,12 +77,13 @@ public interface ResumeRecordService extends IService<ResumeRecord> {
     List<ResumeRecordDTO> previewImportData(InputStream inputStream, String fileName);
     
     /**
-     * 导入Excel数据（用户）
+     * 导入Excel数据（用户），解析、写入、跳过、失败行数实时累加到progress
      */
-    Map<String, Object> importUserRecords(InputStream inputStream, String fileName, String mode, Long userId);
+    Map<String, Object> importUserRecords(InputStream inputStream, String fileName, String mode, Long userId,
+                                          JobProgress progress);
     
     /**
      * 导入Excel数据（ROOT用户）
      */
-    Map<String, Object> importAllRecords(InputStream inputStream, String fileName, String mode);
+    Map<String, Object> importAllRecords(InputStream inputStream, String fileName, String mode, JobProgress progress);
 }
\ No newline at end of file
@@ -0,0 +1,462 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.AccessLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 访问日志本地缓冲文件
+ * 访问日志以长度前缀的二进制记录追加到内存映射的定长分段文件中，请求线程只做一次内存拷贝，不依赖数据库
+ * 分段写满或超过轮转间隔后关闭（.open改名为.seg），由AccessLogSpoolLoader批量导入access_logs后删除
+ * 轮转时请求线程只切换到新分段，旧分段的刷盘（force）和改名由导入线程在锁外完成
+ * 分段格式：魔数、版本号，之后每条记录为 int长度 + 内容，长度为0表示结束
+ */
+@Component
+public class AccessLogSpool {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogSpool.class);
+    
+    private static final int MAGIC = 0x414C5331;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    
+    static final String OPEN_SUFFIX = ".open";
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String BAD_SUFFIX = ".bad";
+    
+    /**
+     * 单个字符串字段的最大长度，超出部分截断
+     */
+    private static final int MAX_FIELD_CHARS = 16384;
+    
+    @Value("${log.access.spool.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${log.access.spool.dir:logs/access-spool}")
+    private String dir;
+    
+    @Value("${log.access.spool.segment-bytes:16777216}")
+    private int segmentBytes;
+    
+    /**
+     * 未导入分段占用的磁盘上限，超出后新日志丢弃
+     */
+    @Value("${log.access.spool.max-disk-bytes:1073741824}")
+    private long maxDiskBytes;
+    
+    /**
+     * 当前分段有数据且打开超过该时间后关闭，控制导入延迟
+     */
+    @Value("${log.access.spool.rotate-interval-ms:2000}")
+    private long rotateIntervalMs;
+    
+    private Path spoolPath;
+    
+    private FileChannel channel;
+    
+    private MappedByteBuffer buffer;
+    
+    private Path openSegment;
+    
+    private long openedAt;
+    
+    private int recordCount;
+    
+    private long sequence;
+    
+    /**
+     * 已切换出去、尚未刷盘改名的分段
+     */
+    private final ConcurrentLinkedQueue<RetiredSegment> retiredSegments = new ConcurrentLinkedQueue<>();
+    
+    /**
+     * 未导入的分段数，含尚未刷盘改名的分段，用于磁盘配额
+     */
+    private final AtomicInteger closedSegments = new AtomicInteger();
+    
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong loadedCount = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            spoolPath = Paths.get(dir);
+            Files.createDirectories(spoolPath);
+            // 上次未正常关闭的分段直接作为已关闭分段导入，未写入部分为0，读取时自然结束
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(spoolPath, "*" + OPEN_SUFFIX)) {
+                for (Path path : stream) {
+                    Files.move(path, segmentPathFor(path), StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            closedSegments.set(listClosedSegments().size());
+            synchronized (this) {
+                openNewSegment();
+            }
+            logger.info("访问日志缓冲文件已启用: {}，待导入分段{}个", spoolPath.toAbsolutePath(), closedSegments.get());
+        } catch (IOException e) {
+            logger.error("访问日志缓冲文件初始化失败，改为直接写入数据库", e);
+            enabled = false;
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        synchronized (this) {
+            if (buffer != null) {
+                try {
+                    retireCurrentSegment();
+                } catch (IOException e) {
+                    logger.error("关闭访问日志缓冲分段失败", e);
+                }
+                buffer = null;
+            }
+        }
+        finishRetiredSegments();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * 追加一条访问日志，返回false表示已丢弃（磁盘配额用尽或记录过大）
+     */
+    public boolean append(AccessLog accessLog) {
+        byte[] record;
+        try {
+            record = encode(accessLog);
+        } catch (IOException e) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        
+        synchronized (this) {
+            if (buffer == null) {
+                droppedCount.incrementAndGet();
+                return false;
+            }
+            try {
+                // 留出4字节给结束标记
+                if (buffer.remaining() < record.length + 8) {
+                    if (recordCount == 0 || !rotate()) {
+                        droppedCount.incrementAndGet();
+                        return false;
+                    }
+                    if (buffer.remaining() < record.length + 8) {
+                        droppedCount.incrementAndGet();
+                        return false;
+                    }
+                }
+                buffer.putInt(record.length);
+                buffer.put(record);
+                recordCount++;
+            } catch (IOException e) {
+                logger.error("访问日志缓冲分段轮转失败", e);
+                droppedCount.incrementAndGet();
+                return false;
+            }
+        }
+        appendedCount.incrementAndGet();
+        return true;
+    }
+    
+    /**
+     * 当前分段有数据且已打开超过轮转间隔时切换到新分段，由finishRetiredSegments完成关闭
+     */
+    public synchronized void rotateIfStale() {
+        if (buffer == null || recordCount == 0 || System.currentTimeMillis() - openedAt < rotateIntervalMs) {
+            return;
+        }
+        try {
+            rotate();
+        } catch (IOException e) {
+            logger.error("访问日志缓冲分段轮转失败", e);
+        }
+    }
+    
+    /**
+     * 把已切换出去的分段刷盘并改名为.seg，在导入线程中调用，不持有追加锁
+     */
+    public void finishRetiredSegments() {
+        RetiredSegment segment;
+        while ((segment = retiredSegments.poll()) != null) {
+            try {
+                segment.buffer.force();
+                segment.channel.close();
+                Files.move(segment.path, segmentPathFor(segment.path), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // 留在.open状态，下次启动时按未正常关闭的分段导入
+                logger.error("关闭访问日志缓冲分段失败: {}", segment.path, e);
+            }
+        }
+    }
+    
+    /**
+     * 已关闭、待导入的分段，按创建顺序排列
+     */
+    public List<Path> listClosedSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (spoolPath == null || !Files.isDirectory(spoolPath)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(spoolPath, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+    
+    /**
+     * 分段导入完成后删除
+     */
+    public void onSegmentLoaded(Path segment, int records) throws IOException {
+        Files.deleteIfExists(segment);
+        closedSegments.decrementAndGet();
+        loadedCount.addAndGet(records);
+    }
+    
+    /**
+     * 无法读取的分段改名为.bad保留，不再导入
+     */
+    public void quarantine(Path segment) throws IOException {
+        Files.move(segment, segment.resolveSibling(segment.getFileName() + BAD_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        closedSegments.decrementAndGet();
+    }
+    
+    public int getPendingSegments() {
+        return closedSegments.get();
+    }
+    
+    public long getAppendedCount() {
+        return appendedCount.get();
+    }
+    
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+    
+    public long getLoadedCount() {
+        return loadedCount.get();
+    }
+    
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("pendingSegments", closedSegments.get());
+        status.put("segmentBytes", segmentBytes);
+        status.put("maxDiskBytes", maxDiskBytes);
+        status.put("appendedCount", appendedCount.get());
+        status.put("droppedCount", droppedCount.get());
+        status.put("loadedCount", loadedCount.get());
+        return status;
+    }
+    
+    /**
+     * 读取一个分段中的全部访问日志
+     */
+    public static List<AccessLog> readSegment(Path segment) throws IOException {
+        List<AccessLog> logs = new ArrayList<>();
+        try (FileChannel readChannel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer data = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            if (data.remaining() < HEADER_BYTES || data.getInt() != MAGIC) {
+                throw new IOException("不是访问日志缓冲分段: " + segment);
+            }
+            int version = data.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("不支持的分段格式版本" + version + ": " + segment);
+            }
+            while (data.remaining() >= 4) {
+                int length = data.getInt();
+                if (length <= 0 || length > data.remaining()) {
+                    break;
+                }
+                ByteBuffer record = data.slice();
+                record.limit(length);
+                logs.add(decode(record));
+                data.position(data.position() + length);
+            }
+        }
+        return logs;
+    }
+    
+    /**
+     * 空间不足时切换到新分段，磁盘配额用尽时返回false
+     */
+    private boolean rotate() throws IOException {
+        if ((long) (closedSegments.get() + 2) * segmentBytes > maxDiskBytes) {
+            return false;
+        }
+        retireCurrentSegment();
+        openNewSegment();
+        return true;
+    }
+    
+    private void openNewSegment() throws IOException {
+        String name = String.format("access-%d-%06d", System.currentTimeMillis(), sequence++);
+        openSegment = spoolPath.resolve(name + OPEN_SUFFIX);
+        channel = FileChannel.open(openSegment, StandardOpenOption.CREATE_NEW,
+                                   StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        openedAt = System.currentTimeMillis();
+        recordCount = 0;
+    }
+    
+    /**
+     * 写入结束标记并把当前分段交给finishRetiredSegments，不在这里刷盘
+     */
+    private void retireCurrentSegment() throws IOException {
+        buffer.putInt(0);
+        if (recordCount > 0) {
+            retiredSegments.add(new RetiredSegment(openSegment, channel, buffer));
+            closedSegments.incrementAndGet();
+        } else {
+            channel.close();
+            Files.deleteIfExists(openSegment);
+        }
+    }
+    
+    private Path segmentPathFor(Path open) {
+        String name = open.getFileName().toString();
+        return open.resolveSibling(name.substring(0, name.length() - OPEN_SUFFIX.length()) + SEGMENT_SUFFIX);
+    }
+    
+    static byte[] encode(AccessLog log) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        LocalDateTime createdAt = log.getCreatedAt() != null ? log.getCreatedAt() : LocalDateTime.now();
+        out.writeLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(createdAt.getNano());
+        writeLong(out, log.getUserId());
+        writeString(out, log.getUsername());
+        writeString(out, log.getIpAddress());
+        writeString(out, log.getUserAgent());
+        writeString(out, log.getRequestMethod());
+        writeString(out, log.getRequestUrl());
+        writeString(out, log.getRequestParams());
+        writeInt(out, log.getResponseCode());
+        writeLong(out, log.getResponseTime());
+        writeLong(out, log.getRequestSize());
+        writeLong(out, log.getResponseSize());
+        writeString(out, log.getReferer());
+        writeString(out, log.getSessionId());
+        return bytes.toByteArray();
+    }
+    
+    static AccessLog decode(ByteBuffer in) {
+        AccessLog log = new AccessLog();
+        long epochSecond = in.getLong();
+        int nano = in.getInt();
+        log.setCreatedAt(LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC));
+        log.setUserId(readLong(in));
+        log.setUsername(readString(in));
+        log.setIpAddress(readString(in));
+        log.setUserAgent(readString(in));
+        log.setRequestMethod(readString(in));
+        log.setRequestUrl(readString(in));
+        log.setRequestParams(readString(in));
+        log.setResponseCode(readInt(in));
+        log.setResponseTime(readLong(in));
+        log.setRequestSize(readLong(in));
+        log.setResponseSize(readLong(in));
+        log.setReferer(readString(in));
+        log.setSessionId(readString(in));
+        return log;
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        String truncated = value.length() > MAX_FIELD_CHARS ? value.substring(0, MAX_FIELD_CHARS) : value;
+        byte[] data = truncated.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+    
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+    
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+    
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("访问日志记录已损坏，字段长度" + length + "超出记录范围");
+        }
+        byte[] data = new byte[length];
+        in.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+    
+    private static Long readLong(ByteBuffer in) {
+        return in.get() != 0 ? in.getLong() : null;
+    }
+    
+    private static Integer readInt(ByteBuffer in) {
+        return in.get() != 0 ? in.getInt() : null;
+    }
+    
+    private static final class RetiredSegment {
+        
+        private final Path path;
+        
+        private final FileChannel channel;
+        
+        private final MappedByteBuffer buffer;
+        
+        private RetiredSegment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.AccessLog;
+import cn.lazylhxzzy.resume_commit.mapper.AccessLogMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 访问日志缓冲文件导入
+ * 后台线程把AccessLogSpool中已关闭的分段按顺序批量导入access_logs，每个分段一个事务，提交后删除分段文件
+ * 数据库不可用时分段留在磁盘上，间隔一段时间后重试；提交后、删除前进程退出时该分段会被重复导入
+ */
+@Component
+public class AccessLogSpoolLoader {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogSpoolLoader.class);
+    
+    @Autowired
+    private AccessLogSpool accessLogSpool;
+    
+    @Autowired
+    private AccessLogMapper accessLogMapper;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private LogRollupManager logRollupManager;
+    
+    /**
+     * 每条INSERT语句的行数
+     */
+    @Value("${log.access.spool.load-batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${log.access.spool.poll-interval-ms:500}")
+    private long pollIntervalMs;
+    
+    @Value("${log.access.spool.retry-interval-ms:5000}")
+    private long retryIntervalMs;
+    
+    private Thread loader;
+    
+    private volatile boolean running;
+    
+    private final AtomicLong failedLoads = new AtomicLong();
+    
+    @PostConstruct
+    public void start() {
+        if (!accessLogSpool.isEnabled()) {
+            return;
+        }
+        running = true;
+        loader = new Thread(this::runLoader, "access-log-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (loader != null) {
+            loader.interrupt();
+            try {
+                loader.join(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    public long getFailedLoads() {
+        return failedLoads.get();
+    }
+    
+    private void runLoader() {
+        while (running) {
+            try {
+                accessLogSpool.rotateIfStale();
+                accessLogSpool.finishRetiredSegments();
+                boolean loadedAny = false;
+                for (Path segment : accessLogSpool.listClosedSegments()) {
+                    if (!running) {
+                        break;
+                    }
+                    loadSegment(segment);
+                    loadedAny = true;
+                }
+                if (!loadedAny) {
+                    Thread.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                failedLoads.incrementAndGet();
+                logger.error("导入访问日志缓冲分段失败，{}ms后重试", retryIntervalMs, e);
+                try {
+                    Thread.sleep(retryIntervalMs);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            }
+        }
+    }
+    
+    void loadSegment(Path segment) throws Exception {
+        long start = System.currentTimeMillis();
+        List<AccessLog> logs;
+        try {
+            logs = AccessLogSpool.readSegment(segment);
+        } catch (IOException | RuntimeException e) {
+            // 记录损坏时解码抛出的是运行时异常（如BufferUnderflowException），同样隔离，避免阻塞后续分段
+            logger.error("访问日志缓冲分段无法读取，已隔离: {}", segment, e);
+            accessLogSpool.quarantine(segment);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < logs.size(); i += batchSize) {
+                accessLogMapper.insertBatch(logs.subList(i, Math.min(i + batchSize, logs.size())));
+            }
+        });
+        accessLogSpool.onSegmentLoaded(segment, logs.size());
+        // 数据库故障后积压的分段导入时日志可能已早于汇总水位线
+        logRollupManager.onLogsWritten(logs.stream().map(AccessLog::getCreatedAt).toList());
+        
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        logger.debug("导入访问日志分段{}: {}条，耗时{}ms，{}条/秒",
+                    segment.getFileName(), logs.size(), elapsed, logs.size() * 1000L / elapsed);
+    }
+}
@@ -0,0 +1,320 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogAlert;
+import cn.lazylhxzzy.resume_commit.mapper.LogAlertMapper;
+import cn.lazylhxzzy.resume_commit.service.AlertNotifier;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 告警通知发送器
+ * log_alerts中状态为PENDING的记录即发送队列（outbox），重启后未发送的告警会继续发送
+ * 按通知目标分组，同一目标积压的多条告警合并为一次通知，每个目标同时只有一个发送任务，并限制最小发送间隔
+ * 发送失败按指数退避重试，超过最大次数后置为FAILED
+ * 发送前用条件更新把记录从PENDING认领为SENDING，扫描结果过期（已被发送）的记录认领不到，不会重复发送；
+ * 认领带租约（next_attempt_at），进程在发送中退出时租约到期后重新发送
+ */
+@Component
+public class AlertDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AlertDispatcher.class);
+    
+    @Autowired
+    private LogAlertMapper alertMapper;
+    
+    @Autowired
+    private AlertStatisticsTable alertStatisticsTable;
+    
+    @Autowired
+    private List<AlertNotifier> notifierList;
+    
+    @Autowired
+    @Qualifier("alertExecutor")
+    private ThreadPoolTaskExecutor alertExecutor;
+    
+    @Value("${log.alert.dispatch.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${log.alert.dispatch.max-coalesce:20}")
+    private int maxCoalesce;
+    
+    @Value("${log.alert.dispatch.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${log.alert.dispatch.backoff-initial-ms:5000}")
+    private long backoffInitialMs;
+    
+    @Value("${log.alert.dispatch.backoff-max-ms:600000}")
+    private long backoffMaxMs;
+    
+    @Value("${log.alert.dispatch.target-interval-ms:10000}")
+    private long targetIntervalMs;
+    
+    @Value("${log.alert.dispatch.rescan-interval-ms:60000}")
+    private long rescanIntervalMs;
+    
+    /**
+     * 认领租约，超过该时间仍为SENDING的记录视为发送中断，重新发送
+     */
+    @Value("${log.alert.dispatch.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+    
+    private final Map<String, AlertNotifier> notifiers = new HashMap<>();
+    
+    /**
+     * 正在发送的目标
+     */
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * 目标 -> 下次允许发送的时间
+     */
+    private final Map<String, Long> nextAllowedAt = new ConcurrentHashMap<>();
+    
+    /**
+     * 有新告警或刚发送完时置位，下一轮立即扫描；启动时扫描一次接上重启前未发送的告警
+     */
+    private final AtomicBoolean wakeRequested = new AtomicBoolean(true);
+    
+    /**
+     * 没有新告警时，下一次扫描的时间（等待重试或限流到期）
+     */
+    private final AtomicLong nextScanAt = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        for (AlertNotifier notifier : notifierList) {
+            notifiers.put(notifier.getType(), notifier);
+        }
+    }
+    
+    /**
+     * 有新的待发送告警
+     */
+    public void wakeUp() {
+        wakeRequested.set(true);
+    }
+    
+    /**
+     * 取出到期的待发送告警，按目标分组后交给发送线程池
+     * 没有新告警且未到重试时间时不查询数据库
+     */
+    @Scheduled(fixedDelayString = "${log.alert.dispatch.poll-interval-ms:1000}")
+    public void dispatch() {
+        long now = System.currentTimeMillis();
+        if (!wakeRequested.getAndSet(false) && now < nextScanAt.get()) {
+            return;
+        }
+        nextScanAt.set(now + rescanIntervalMs);
+        
+        try {
+            LocalDateTime dueTime = LocalDateTime.now();
+            QueryWrapper<LogAlert> queryWrapper = new QueryWrapper<>();
+            queryWrapper.and(w -> w.nested(p -> p.eq("status", "PENDING")
+                                                    .and(d -> d.isNull("next_attempt_at").or().le("next_attempt_at", dueTime)))
+                                   .or(c -> c.eq("status", "SENDING").le("next_attempt_at", dueTime)))
+                        .orderByAsc("id")
+                        .last("LIMIT " + batchSize);
+            List<LogAlert> dueAlerts = alertMapper.selectList(queryWrapper);
+            if (dueAlerts.size() >= batchSize) {
+                wakeUp();
+            }
+            
+            Map<String, List<LogAlert>> byTarget = new LinkedHashMap<>();
+            for (LogAlert alert : dueAlerts) {
+                byTarget.computeIfAbsent(targetKey(alert), k -> new ArrayList<>()).add(alert);
+            }
+            for (Map.Entry<String, List<LogAlert>> entry : byTarget.entrySet()) {
+                submit(entry.getKey(), entry.getValue(), now);
+            }
+        } catch (Exception e) {
+            logger.error("扫描待发送告警失败", e);
+            wakeUp();
+        }
+    }
+    
+    private void submit(String key, List<LogAlert> alerts, long now) {
+        // 同一目标上一次发送完成后会重新唤醒扫描
+        if (inFlight.contains(key)) {
+            return;
+        }
+        Long allowedAt = nextAllowedAt.get(key);
+        if (allowedAt != null && allowedAt > now) {
+            scheduleScan(allowedAt);
+            return;
+        }
+        
+        List<LogAlert> batch = alerts;
+        if (alerts.size() > maxCoalesce) {
+            batch = new ArrayList<>(alerts.subList(0, maxCoalesce));
+            wakeUp();
+        }
+        if (!inFlight.add(key)) {
+            return;
+        }
+        nextAllowedAt.put(key, now + targetIntervalMs);
+        
+        List<LogAlert> toSend = batch;
+        try {
+            alertExecutor.execute(() -> deliver(key, toSend));
+        } catch (TaskRejectedException e) {
+            inFlight.remove(key);
+            nextAllowedAt.remove(key);
+            scheduleScan(now + 1000);
+        }
+    }
+    
+    private void deliver(String key, List<LogAlert> candidates) {
+        try {
+            List<LogAlert> alerts;
+            try {
+                alerts = claim(candidates);
+            } catch (Exception e) {
+                logger.warn("认领待发送告警失败: {} - {}", key, e.getMessage());
+                return;
+            }
+            if (!alerts.isEmpty()) {
+                send(key, alerts);
+            }
+        } finally {
+            inFlight.remove(key);
+            wakeUp();
+        }
+    }
+    
+    private void send(String key, List<LogAlert> alerts) {
+        LogAlert first = alerts.get(0);
+        try {
+            AlertNotifier notifier = notifiers.get(first.getNotificationType());
+            if (notifier == null) {
+                markFailed(alerts, "未知的通知类型: " + first.getNotificationType());
+                return;
+            }
+            notifier.send(first.getNotificationTarget(), alerts);
+            markSent(alerts);
+            if (alerts.size() > 1) {
+                logger.info("合并发送{}条告警: {}", alerts.size(), key);
+            }
+        } catch (Exception e) {
+            logger.warn("发送告警通知失败: {} - {}", key, e.getMessage());
+            scheduleRetry(alerts, e.getMessage());
+        }
+    }
+    
+    /**
+     * 把仍待发送的记录认领为SENDING，返回本次认领到的记录
+     * 扫描后已被上一次发送处理的记录状态已变化，不会被认领
+     */
+    private List<LogAlert> claim(List<LogAlert> alerts) {
+        List<Long> ids = new ArrayList<>();
+        for (LogAlert alert : alerts) {
+            ids.add(alert.getId());
+        }
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        LocalDateTime leaseUntil = now.plusNanos(TimeUnit.MILLISECONDS.toNanos(claimTimeoutMs));
+        UpdateWrapper<LogAlert> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.in("id", ids)
+                     .and(w -> w.eq("status", "PENDING").or(c -> c.eq("status", "SENDING").le("next_attempt_at", now)))
+                     .set("status", "SENDING")
+                     .set("next_attempt_at", leaseUntil);
+        int claimed = alertMapper.update(null, updateWrapper);
+        
+        List<LogAlert> result = alerts;
+        if (claimed == 0) {
+            return new ArrayList<>();
+        }
+        if (claimed < alerts.size()) {
+            result = alertMapper.selectList(new QueryWrapper<LogAlert>()
+                    .in("id", ids)
+                    .eq("status", "SENDING")
+                    .eq("next_attempt_at", leaseUntil)
+                    .orderByAsc("id"));
+        }
+        // SENDING只是发送中的占位，统计和后续状态变化仍按PENDING处理
+        for (LogAlert alert : result) {
+            alert.setStatus("PENDING");
+        }
+        return result;
+    }
+    
+    private void markSent(List<LogAlert> alerts) {
+        List<Long> ids = new ArrayList<>();
+        for (LogAlert alert : alerts) {
+            ids.add(alert.getId());
+        }
+        UpdateWrapper<LogAlert> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.in("id", ids)
+                     .set("status", "SENT")
+                     .set("sent_at", LocalDateTime.now())
+                     .set("error_message", null)
+                     .setSql("attempts = attempts + 1");
+        alertMapper.update(null, updateWrapper);
+        for (LogAlert alert : alerts) {
+            alertStatisticsTable.onStatusChanged(alert.getStatus(), "SENT", alert.getSeverity());
+        }
+    }
+    
+    private void markFailed(List<LogAlert> alerts, String errorMessage) {
+        for (LogAlert alert : alerts) {
+            String previousStatus = alert.getStatus();
+            alert.setStatus("FAILED");
+            alert.setErrorMessage(errorMessage);
+            alert.setNextAttemptAt(null);
+            alertMapper.updateById(alert);
+            alertStatisticsTable.onStatusChanged(previousStatus, "FAILED", alert.getSeverity());
+        }
+    }
+    
+    /**
+     * 指数退避：第n次失败后等待 initial * 2^(n-1)，不超过上限
+     */
+    private void scheduleRetry(List<LogAlert> alerts, String errorMessage) {
+        List<LogAlert> exhausted = new ArrayList<>();
+        for (LogAlert alert : alerts) {
+            int attempts = (alert.getAttempts() != null ? alert.getAttempts() : 0) + 1;
+            alert.setAttempts(attempts);
+            if (attempts >= maxAttempts) {
+                exhausted.add(alert);
+                continue;
+            }
+            long delay = Math.min(backoffMaxMs, backoffInitialMs << Math.min(attempts - 1, 20));
+            alert.setErrorMessage(errorMessage);
+            alert.setNextAttemptAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(delay)));
+            alertMapper.updateById(alert);
+            scheduleScan(System.currentTimeMillis() + delay);
+        }
+        if (!exhausted.isEmpty()) {
+            markFailed(exhausted, errorMessage);
+        }
+    }
+    
+    private void scheduleScan(long at) {
+        nextScanAt.accumulateAndGet(at, Math::min);
+    }
+    
+    private String targetKey(LogAlert alert) {
+        return alert.getNotificationType() + ":" + alert.getNotificationTarget();
+    }
+}
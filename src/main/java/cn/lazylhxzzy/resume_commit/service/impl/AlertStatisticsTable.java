@@ -0,0 +1,207 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogAlert;
+import cn.lazylhxzzy.resume_commit.mapper.LogAlertMapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 告警统计计数表
+ * 按 状态 x 严重程度 维护告警数量，由告警触发和发送时增量更新
+ * 清理任务或直接改库造成的偏差，靠超过最大陈旧时间后的一次GROUP BY查询校正
+ * 汇总查询在锁外执行，期间的增量先记下来，换表时按告警ID去掉查询已包含的新增告警后补上
+ * 汇总期间的状态变化无法判断查询是否已包含，直接补上，偶尔的偏差由下一次汇总校正
+ */
+@Component
+public class AlertStatisticsTable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AlertStatisticsTable.class);
+    
+    private static final String[] STATUSES = {"PENDING", "SENT", "FAILED"};
+    private static final String[] SEVERITIES = {"CRITICAL", "HIGH", "MEDIUM", "LOW"};
+    
+    @Autowired
+    private LogAlertMapper alertMapper;
+    
+    @Value("${log.alert.stats.max-staleness-seconds:60}")
+    private long maxStalenessSeconds;
+    
+    /**
+     * 状态 -> 严重程度 -> 数量
+     */
+    private Map<String, Map<String, Long>> counts = new HashMap<>();
+    
+    private volatile LocalDateTime refreshedAt;
+    
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    
+    /**
+     * 汇总查询期间发生的增量，不在汇总时为null
+     */
+    private List<Change> changesDuringReload;
+    
+    /**
+     * 新告警入库后调用
+     */
+    public synchronized void onCreated(Long alertId, String status, String severity) {
+        apply(new Change(alertId, null, status, severity));
+    }
+    
+    /**
+     * 告警状态变化后调用
+     */
+    public synchronized void onStatusChanged(String fromStatus, String toStatus, String severity) {
+        if (fromStatus != null && fromStatus.equals(toStatus)) {
+            return;
+        }
+        apply(new Change(null, fromStatus, toStatus, severity));
+    }
+    
+    /**
+     * 获取统计结果，计数表超过最大陈旧时间时先从数据库重新汇总
+     * 同一时间只有一个调用方执行汇总，其余调用方直接返回当前计数
+     */
+    public Map<String, Object> snapshot() {
+        LocalDateTime refreshed = refreshedAt;
+        if ((refreshed == null || refreshed.isBefore(LocalDateTime.now().minusSeconds(maxStalenessSeconds)))
+                && reloading.compareAndSet(false, true)) {
+            try {
+                reload();
+            } finally {
+                reloading.set(false);
+            }
+        }
+        return buildStatistics();
+    }
+    
+    private synchronized Map<String, Object> buildStatistics() {
+        long total = 0;
+        Map<String, Long> statusStats = new HashMap<>();
+        Map<String, Long> severityStats = new HashMap<>();
+        for (String severity : SEVERITIES) {
+            severityStats.put(severity, 0L);
+        }
+        for (Map.Entry<String, Map<String, Long>> statusEntry : counts.entrySet()) {
+            for (Map.Entry<String, Long> entry : statusEntry.getValue().entrySet()) {
+                total += entry.getValue();
+                statusStats.merge(statusEntry.getKey(), entry.getValue(), Long::sum);
+                severityStats.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
+        }
+        
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("totalAlerts", total);
+        statistics.put("pendingAlerts", statusStats.getOrDefault(STATUSES[0], 0L));
+        statistics.put("sentAlerts", statusStats.getOrDefault(STATUSES[1], 0L));
+        statistics.put("failedAlerts", statusStats.getOrDefault(STATUSES[2], 0L));
+        statistics.put("severityStats", severityStats);
+        statistics.put("refreshedAt", refreshedAt);
+        statistics.put("maxStalenessSeconds", maxStalenessSeconds);
+        return statistics;
+    }
+    
+    /**
+     * 一次GROUP BY status, severity汇总，查询不持有锁，完成后整体替换计数表
+     * 同时取出最大告警ID，换表时据此判断汇总期间新增的告警是否已被查询统计
+     */
+    private void reload() {
+        synchronized (this) {
+            changesDuringReload = new ArrayList<>();
+        }
+        List<Map<String, Object>> rows;
+        try {
+            QueryWrapper<LogAlert> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("status", "severity", "COUNT(*) AS cnt", "MAX(id) AS max_id")
+                        .groupBy("status", "severity");
+            rows = alertMapper.selectMaps(queryWrapper);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changesDuringReload = null;
+            }
+            throw e;
+        }
+        
+        Map<String, Map<String, Long>> loaded = new HashMap<>();
+        long maxId = 0;
+        for (Map<String, Object> row : rows) {
+            // 发送中的告警仍计为待发送
+            String status = String.valueOf(row.get("status"));
+            add(loaded, "SENDING".equals(status) ? "PENDING" : status, String.valueOf(row.get("severity")),
+                ((Number) row.get("cnt")).longValue());
+            if (row.get("max_id") != null) {
+                maxId = Math.max(maxId, ((Number) row.get("max_id")).longValue());
+            }
+        }
+        
+        synchronized (this) {
+            for (Change change : changesDuringReload) {
+                if (change.alertId != null && change.alertId <= maxId) {
+                    // 查询已统计过这条新增告警
+                    continue;
+                }
+                apply(loaded, change);
+            }
+            changesDuringReload = null;
+            counts = loaded;
+            refreshedAt = LocalDateTime.now();
+        }
+        logger.debug("告警统计已从数据库重新汇总: {}组", rows.size());
+    }
+    
+    /**
+     * 更新当前计数，汇总期间同时记下增量，需持有锁
+     */
+    private void apply(Change change) {
+        apply(counts, change);
+        if (changesDuringReload != null) {
+            changesDuringReload.add(change);
+        }
+    }
+    
+    private static void apply(Map<String, Map<String, Long>> target, Change change) {
+        if (change.fromStatus != null) {
+            add(target, change.fromStatus, change.severity, -1);
+        }
+        add(target, change.toStatus, change.severity, 1);
+    }
+    
+    private static void add(Map<String, Map<String, Long>> target, String status, String severity, long delta) {
+        if (status == null || severity == null) {
+            return;
+        }
+        target.computeIfAbsent(status, s -> new HashMap<>()).merge(severity, delta, Long::sum);
+    }
+    
+    /**
+     * 一次计数变化，alertId只在新增告警时有值
+     */
+    private static final class Change {
+        
+        private final Long alertId;
+        
+        private final String fromStatus;
+        
+        private final String toStatus;
+        
+        private final String severity;
+        
+        private Change(Long alertId, String fromStatus, String toStatus, String severity) {
+            this.alertId = alertId;
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+            this.severity = severity;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogAlert;
+import cn.lazylhxzzy.resume_commit.service.AlertNotifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 邮件告警
+ */
+@Component
+public class EmailAlertNotifier implements AlertNotifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EmailAlertNotifier.class);
+    
+    @Override
+    public String getType() {
+        return "EMAIL";
+    }
+    
+    @Override
+    public void send(String target, List<LogAlert> alerts) {
+        // TODO: 实现邮件发送逻辑
+        for (LogAlert alert : alerts) {
+            logger.info("发送邮件告警: {} - {} - {}", target, alert.getAlertName(), alert.getMessage());
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.dto.JobInfo;
+import cn.lazylhxzzy.resume_commit.service.JobService;
+import cn.lazylhxzzy.resume_commit.service.ResumeRecordService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 后台导入导出任务服务实现
+ * 任务信息保存在内存中，任务结束后保留一段时间供轮询和下载，过期后连同导出文件一起清理
+ */
+@Service
+public class JobServiceImpl implements JobService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobServiceImpl.class);
+    
+    private final Map<String, JobInfo> jobs = new ConcurrentHashMap<>();
+    
+    @Autowired
+    @Qualifier("jobExecutor")
+    private ThreadPoolTaskExecutor jobExecutor;
+    
+    @Autowired
+    private ResumeRecordService resumeRecordService;
+    
+    @Value("${job.storage.dir:${java.io.tmpdir}/resume_commit_jobs}")
+    private String storageDir;
+    
+    @Value("${job.result.ttl-minutes:30}")
+    private long resultTtlMinutes;
+    
+    private Path storagePath;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        storagePath = Paths.get(storageDir);
+        Files.createDirectories(storagePath);
+        
+        // 任务信息只在内存中，重启后遗留的文件已无法下载
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(storagePath)) {
+            for (Path file : files) {
+                deleteQuietly(file);
+            }
+        }
+    }
+    
+    @Override
+    public JobInfo submitImport(MultipartFile file, String mode, Long userId, boolean global) throws IOException {
+        JobInfo job = createJob(JobInfo.TYPE_IMPORT, userId, file.getOriginalFilename());
+        
+        // 请求结束后上传的临时文件会被容器删除，先复制到任务目录
+        Path uploadPath = storagePath.resolve(job.getId() + ".upload");
+        try (InputStream inputStream = file.getInputStream()) {
+            Files.copy(inputStream, uploadPath);
+        }
+        
+        submit(job, () -> runImport(job, uploadPath, mode, global), uploadPath);
+        return job;
+    }
+    
+    @Override
+    public JobInfo submitExport(Long userId, boolean global) {
+        String fileName = global ? "all_resume_records.xlsx" : "my_resume_records.xlsx";
+        JobInfo job = createJob(JobInfo.TYPE_EXPORT, userId, fileName);
+        submit(job, () -> runExport(job, global), null);
+        return job;
+    }
+    
+    @Override
+    public JobInfo getJob(String jobId, Long userId, boolean root) {
+        JobInfo job = jobs.get(jobId);
+        if (job == null || (!root && !job.getUserId().equals(userId))) {
+            throw new RuntimeException("任务不存在或已过期");
+        }
+        return job;
+    }
+    
+    @Override
+    public InputStream openDownload(JobInfo job) throws IOException {
+        job.getActiveDownloads().incrementAndGet();
+        InputStream inputStream;
+        try {
+            inputStream = Files.newInputStream(job.getFilePath());
+        } catch (IOException | RuntimeException e) {
+            job.getActiveDownloads().decrementAndGet();
+            throw e;
+        }
+        return new FilterInputStream(inputStream) {
+            private boolean closed;
+            
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (!closed) {
+                        closed = true;
+                        job.getActiveDownloads().decrementAndGet();
+                    }
+                }
+            }
+        };
+    }
+    
+    /**
+     * 清理过期的任务信息和导出文件，正在下载的任务留到下一轮再清理
+     */
+    @Scheduled(fixedRate = 60000)
+    public void cleanupExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        Iterator<JobInfo> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            JobInfo job = iterator.next();
+            if (job.getExpiresAt() != null && job.getExpiresAt().isBefore(now)
+                    && job.getActiveDownloads().get() == 0) {
+                iterator.remove();
+                if (job.getFilePath() != null) {
+                    deleteQuietly(job.getFilePath());
+                }
+                logger.info("清理过期任务: {}", job.getId());
+            }
+        }
+    }
+    
+    private JobInfo createJob(String type, Long userId, String fileName) {
+        JobInfo job = new JobInfo();
+        job.setId(UUID.randomUUID().toString().replace("-", ""));
+        job.setType(type);
+        job.setStatus(JobInfo.STATUS_PENDING);
+        job.setUserId(userId);
+        job.setFileName(fileName);
+        job.setCreatedAt(LocalDateTime.now());
+        return job;
+    }
+    
+    /**
+     * 提交到有界线程池，队列已满时拒绝并清理已落盘的上传文件
+     */
+    private void submit(JobInfo job, Runnable task, Path uploadPath) {
+        jobs.put(job.getId(), job);
+        try {
+            jobExecutor.execute(task);
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            if (uploadPath != null) {
+                deleteQuietly(uploadPath);
+            }
+            throw new TaskRejectedException("当前任务较多，请稍后再试", e);
+        }
+    }
+    
+    private void runImport(JobInfo job, Path uploadPath, String mode, boolean global) {
+        start(job);
+        try (InputStream inputStream = Files.newInputStream(uploadPath)) {
+            Map<String, Object> result = global
+                    ? resumeRecordService.importAllRecords(inputStream, job.getFileName(), mode, job.getProgress())
+                    : resumeRecordService.importUserRecords(inputStream, job.getFileName(), mode, job.getUserId(),
+                                                            job.getProgress());
+            job.setResult(result);
+            job.setMessage((String) result.get("message"));
+            finish(job, Boolean.TRUE.equals(result.get("success")));
+        } catch (Exception e) {
+            logger.error("导入任务失败: {}", job.getId(), e);
+            job.setMessage("导入失败: " + e.getMessage());
+            finish(job, false);
+        } finally {
+            deleteQuietly(uploadPath);
+        }
+    }
+    
+    private void runExport(JobInfo job, boolean global) {
+        start(job);
+        Path exportPath = storagePath.resolve(job.getId() + ".xlsx");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(exportPath)) {
+                if (global) {
+                    resumeRecordService.exportAllRecords(outputStream, job.getProgress());
+                } else {
+                    resumeRecordService.exportUserRecords(job.getUserId(), outputStream, job.getProgress());
+                }
+            }
+            job.setFilePath(exportPath);
+            job.setMessage("导出完成");
+            finish(job, true);
+        } catch (Exception e) {
+            logger.error("导出任务失败: {}", job.getId(), e);
+            deleteQuietly(exportPath);
+            job.setMessage("导出失败: " + e.getMessage());
+            finish(job, false);
+        }
+    }
+    
+    private void start(JobInfo job) {
+        job.setStartedAt(LocalDateTime.now());
+        job.setStatus(JobInfo.STATUS_RUNNING);
+    }
+    
+    private void finish(JobInfo job, boolean success) {
+        LocalDateTime now = LocalDateTime.now();
+        job.setFinishedAt(now);
+        job.setExpiresAt(now.plusMinutes(resultTtlMinutes));
+        job.setStatus(success ? JobInfo.STATUS_SUCCEEDED : JobInfo.STATUS_FAILED);
+    }
+    
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("删除任务文件失败: {}", path, e);
+        }
+    }
+}
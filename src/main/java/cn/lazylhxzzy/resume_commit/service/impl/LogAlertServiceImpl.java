@@ -7,27 +7,54 @@ import cn.lazylhxzzy.resume_commit.mapper.LogAlertConfigMapper;
 import cn.lazylhxzzy.resume_commit.mapper.LogAlertMapper;
 import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
 import cn.lazylhxzzy.resume_commit.service.LogAlertService;
+import cn.lazylhxzzy.resume_commit.util.SlidingWindowCounter;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 日志告警服务实现类
+ * 系统日志写入时逐条喂给各告警规则的滑动窗口计数器，达到阈值后在告警线程池中写入告警，不再定时扫描system_logs
+ * 只在启动时从数据库回填一次窗口内的历史计数
  */
 @Service
 public class LogAlertServiceImpl implements LogAlertService {
     
     private static final Logger logger = LoggerFactory.getLogger(LogAlertServiceImpl.class);
     
+    private static final DateTimeFormatter SECOND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    /**
+     * 同一规则两次触发的最小间隔
+     */
+    private static final long FIRE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    
     @Autowired
     private LogAlertConfigMapper alertConfigMapper;
     
@@ -37,106 +64,188 @@ public class LogAlertServiceImpl implements LogAlertService {
     @Autowired
     private SystemLogMapper systemLogMapper;
     
-    @Override
-    @Scheduled(fixedRate = 60000) // 每分钟检查一次
-    public void checkAndTriggerAlerts() {
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private AlertStatisticsTable alertStatisticsTable;
+    
+    @Autowired
+    private AlertDispatcher alertDispatcher;
+    
+    @Autowired
+    private LogBatchWriter logBatchWriter;
+    
+    @Autowired
+    @Qualifier("alertExecutor")
+    private ThreadPoolTaskExecutor alertExecutor;
+    
+    /**
+     * 启动回填前等待日志写缓冲落库的最长时间
+     */
+    @Value("${log.alert.startup-flush-timeout-ms:5000}")
+    private long startupFlushTimeoutMs;
+    
+    private Timer evaluationTimer;
+    
+    private final AtomicLong lastEvaluationNanos = new AtomicLong();
+    
+    /**
+     * 当前生效的告警规则，配置变更时整体替换
+     */
+    private volatile List<AlertRule> rules = Collections.emptyList();
+    
+    /**
+     * 内存计数的起点：早于它的日志由启动回填从数据库统计，启动完成前为null，不做内存计数
+     */
+    private volatile LocalDateTime countFrom;
+    
+    @PostConstruct
+    public void initMetrics() {
+        evaluationTimer = Timer.builder("log.alert.evaluation")
+                .description("单条系统日志的告警判定耗时")
+                .register(meterRegistry);
+        TimeGauge.builder("log.alert.evaluation.last", lastEvaluationNanos, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .description("最近一次告警判定的耗时")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 启动时加载规则，并用数据库中窗口内的历史日志回填计数器
+     * 先发布规则，再取截断时刻：截断之后创建的日志只由内存计数，之前的只从数据库统计，避免重复或遗漏
+     * 回填前先等待日志写缓冲把截断前入队的日志落库
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startup() {
+        LocalDateTime cutoff = null;
         try {
-            List<LogAlertConfig> configs = alertConfigMapper.selectList(
-                new QueryWrapper<LogAlertConfig>().eq("enabled", true)
-            );
-            
-            for (LogAlertConfig config : configs) {
-                checkAlert(config);
+            reloadRules();
+            cutoff = LocalDateTime.now();
+            countFrom = cutoff;
+            if (!logBatchWriter.flush(startupFlushTimeoutMs)) {
+                logger.warn("等待日志写缓冲落库超时，告警回填可能少计");
+            }
+            for (AlertRule rule : rules) {
+                reconcile(rule, cutoff);
             }
+            evaluateAll();
+            logger.info("告警规则已加载: {}条", rules.size());
         } catch (Exception e) {
-            logger.error("检查告警失败", e);
+            logger.error("加载告警规则失败", e);
+        } finally {
+            if (cutoff == null) {
+                countFrom = LocalDateTime.now();
+            }
         }
     }
     
+    @Override
+    public void onSystemLog(SystemLog systemLog) {
+        List<AlertRule> current = rules;
+        LocalDateTime from = countFrom;
+        if (current.isEmpty() || from == null
+                || (systemLog.getCreatedAt() != null && systemLog.getCreatedAt().isBefore(from))) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        long now = System.currentTimeMillis();
+        for (AlertRule rule : current) {
+            if (!rule.matches(systemLog)) {
+                continue;
+            }
+            long count = rule.counter.add(now / 1000, 1);
+            if (count >= rule.limit && rule.tryFire(now)) {
+                triggerAlertAsync(rule, now);
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+        lastEvaluationNanos.set(elapsed);
+        evaluationTimer.record(elapsed, TimeUnit.NANOSECONDS);
+    }
+    
     /**
-     * 检查单个告警配置
+     * 定期刷新告警配置（只查询log_alert_configs），并检查各窗口当前计数
+     * 配置未变化的规则保留原有计数器
      */
-    private void checkAlert(LogAlertConfig config) {
+    @Override
+    @Scheduled(fixedDelayString = "${log.alert.config-refresh-ms:300000}",
+               initialDelayString = "${log.alert.config-refresh-ms:300000}")
+    public void checkAndTriggerAlerts() {
         try {
-            boolean shouldTrigger = false;
-            String message = "";
-            String severity = "MEDIUM";
-            
-            switch (config.getAlertType()) {
-                case "ERROR_COUNT":
-                    shouldTrigger = checkErrorCountAlert(config);
-                    message = "错误日志数量超过阈值";
-                    severity = "HIGH";
-                    break;
-                case "PERFORMANCE":
-                    shouldTrigger = checkPerformanceAlert(config);
-                    message = "性能指标异常";
-                    severity = "MEDIUM";
-                    break;
-                case "SECURITY":
-                    shouldTrigger = checkSecurityAlert(config);
-                    message = "安全事件告警";
-                    severity = "CRITICAL";
-                    break;
-            }
-            
-            if (shouldTrigger) {
-                triggerAlert(config, message, severity);
-            }
+            reloadRules();
+            evaluateAll();
         } catch (Exception e) {
-            logger.error("检查告警配置失败: " + config.getAlertName(), e);
+            logger.error("检查告警失败", e);
+        }
+    }
+    
+    private void evaluateAll() {
+        long now = System.currentTimeMillis();
+        for (AlertRule rule : rules) {
+            if (rule.counter.total(now / 1000) >= rule.limit && rule.tryFire(now)) {
+                triggerAlert(rule.config, rule.message, rule.severity);
+            }
         }
     }
     
     /**
-     * 检查错误数量告警
+     * 从数据库重新加载启用的配置
      */
-    private boolean checkErrorCountAlert(LogAlertConfig config) {
-        QueryWrapper<SystemLog> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("log_level", "ERROR");
+    private synchronized void reloadRules() {
+        List<LogAlertConfig> configs = alertConfigMapper.selectList(
+            new QueryWrapper<LogAlertConfig>().eq("enabled", true)
+        );
         
-        if (config.getModule() != null && !config.getModule().isEmpty()) {
-            queryWrapper.eq("module", config.getModule());
+        Map<Long, AlertRule> existing = new HashMap<>();
+        for (AlertRule rule : rules) {
+            existing.put(rule.config.getId(), rule);
         }
         
-        // 检查最近5分钟的错误数量
-        LocalDateTime fiveMinutesAgo = LocalDateTime.now().minusMinutes(5);
-        queryWrapper.ge("created_at", fiveMinutesAgo);
-        
-        Long errorCount = systemLogMapper.selectCount(queryWrapper);
-        return errorCount >= config.getThreshold();
+        List<AlertRule> loaded = new ArrayList<>();
+        for (LogAlertConfig config : configs) {
+            AlertRule rule = existing.get(config.getId());
+            if (rule != null && rule.sameCondition(config)) {
+                rule.config = config;
+            } else {
+                rule = AlertRule.of(config);
+            }
+            if (rule != null) {
+                loaded.add(rule);
+            }
+        }
+        rules = Collections.unmodifiableList(loaded);
     }
     
     /**
-     * 检查性能告警
+     * 按秒汇总窗口内已落库的匹配日志，回填到规则的计数器
      */
-    private boolean checkPerformanceAlert(LogAlertConfig config) {
+    private void reconcile(AlertRule rule, LocalDateTime cutoff) {
         QueryWrapper<SystemLog> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("log_type", "PERFORMANCE");
-        queryWrapper.gt("response_time", config.getThreshold());
+        queryWrapper.select("DATE_FORMAT(created_at, '%Y-%m-%d %H:%i:%s') AS bucket_time", "COUNT(*) AS cnt");
+        rule.applyCondition(queryWrapper);
+        queryWrapper.ge("created_at", cutoff.minusSeconds(rule.counter.getWindowSeconds()))
+                    .lt("created_at", cutoff)
+                    .groupBy("bucket_time");
         
-        // 检查最近10分钟的性能数据
-        LocalDateTime tenMinutesAgo = LocalDateTime.now().minusMinutes(10);
-        queryWrapper.ge("created_at", tenMinutesAgo);
-        
-        Long performanceCount = systemLogMapper.selectCount(queryWrapper);
-        return performanceCount >= 3; // 10分钟内超过3次性能异常
+        for (Map<String, Object> row : systemLogMapper.selectMaps(queryWrapper)) {
+            LocalDateTime bucketTime = LocalDateTime.parse(String.valueOf(row.get("bucket_time")), SECOND_FORMATTER);
+            long epochSecond = bucketTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+            rule.counter.add(epochSecond, ((Number) row.get("cnt")).longValue());
+        }
     }
     
     /**
-     * 检查安全告警
+     * 告警去重查询和写入放到告警线程池，不占用写日志的调用线程
+     * 线程池拒绝时撤销本次触发时间，下一条匹配日志可以重新触发，不会静默整个触发间隔
      */
-    private boolean checkSecurityAlert(LogAlertConfig config) {
-        QueryWrapper<SystemLog> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("log_type", "SECURITY");
-        queryWrapper.eq("log_level", "WARN");
-        
-        // 检查最近1小时的安全事件
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        queryWrapper.ge("created_at", oneHourAgo);
-        
-        Long securityCount = systemLogMapper.selectCount(queryWrapper);
-        return securityCount >= config.getThreshold();
+    private void triggerAlertAsync(AlertRule rule, long firedAt) {
+        LogAlertConfig config = rule.config;
+        try {
+            alertExecutor.execute(() -> triggerAlert(config, rule.message, rule.severity));
+        } catch (TaskRejectedException e) {
+            rule.cancelFire(firedAt);
+            logger.warn("告警线程池已满，告警未能触发: {}", config.getAlertName());
+        }
     }
     
     /**
@@ -148,7 +257,8 @@ public class LogAlertServiceImpl implements LogAlertService {
             QueryWrapper<LogAlert> existingQuery = new QueryWrapper<>();
             existingQuery.eq("alert_name", config.getAlertName())
                         .eq("status", "PENDING")
-                        .ge("triggered_at", LocalDateTime.now().minusMinutes(30));
+                        .ge("triggered_at", LocalDateTime.now().minusMinutes(30))
+                        .last("LIMIT 1");
             
             LogAlert existingAlert = alertMapper.selectOne(existingQuery);
             if (existingAlert != null) {
@@ -168,9 +278,7 @@ public class LogAlertServiceImpl implements LogAlertService {
             alert.setTriggeredAt(LocalDateTime.now());
             alert.setCreatedAt(LocalDateTime.now());
             
-            alertMapper.insert(alert);
-            
-            // 发送告警通知
+            // 写入发送队列，由AlertDispatcher异步发送
             sendAlert(alert);
             
         } catch (Exception e) {
@@ -178,61 +286,19 @@ public class LogAlertServiceImpl implements LogAlertService {
         }
     }
     
+    /**
+     * 告警写入log_alerts即进入发送队列，这里不做网络调用，避免慢的通知渠道拖住告警判定
+     */
     @Override
     public void sendAlert(LogAlert alert) {
-        try {
-            // 这里可以实现具体的通知逻辑
-            // 例如：发送邮件、调用webhook、发送短信等
-            
-            switch (alert.getNotificationType()) {
-                case "EMAIL":
-                    sendEmailAlert(alert);
-                    break;
-                case "WEBHOOK":
-                    sendWebhookAlert(alert);
-                    break;
-                case "SMS":
-                    sendSmsAlert(alert);
-                    break;
-                default:
-                    logger.warn("未知的通知类型: " + alert.getNotificationType());
-            }
-            
-            // 更新告警状态
-            alert.setStatus("SENT");
-            alert.setSentAt(LocalDateTime.now());
-            alertMapper.updateById(alert);
-            
-        } catch (Exception e) {
-            logger.error("发送告警通知失败", e);
-            alert.setStatus("FAILED");
-            alert.setErrorMessage(e.getMessage());
-            alertMapper.updateById(alert);
+        if (alert.getId() == null) {
+            alert.setStatus("PENDING");
+            alert.setAttempts(0);
+            alert.setNextAttemptAt(LocalDateTime.now());
+            alertMapper.insert(alert);
+            alertStatisticsTable.onCreated(alert.getId(), alert.getStatus(), alert.getSeverity());
         }
-    }
-    
-    /**
-     * 发送邮件告警
-     */
-    private void sendEmailAlert(LogAlert alert) {
-        // TODO: 实现邮件发送逻辑
-        logger.info("发送邮件告警: {} - {}", alert.getAlertName(), alert.getMessage());
-    }
-    
-    /**
-     * 发送Webhook告警
-     */
-    private void sendWebhookAlert(LogAlert alert) {
-        // TODO: 实现Webhook发送逻辑
-        logger.info("发送Webhook告警: {} - {}", alert.getAlertName(), alert.getMessage());
-    }
-    
-    /**
-     * 发送短信告警
-     */
-    private void sendSmsAlert(LogAlert alert) {
-        // TODO: 实现短信发送逻辑
-        logger.info("发送短信告警: {} - {}", alert.getAlertName(), alert.getMessage());
+        alertDispatcher.wakeUp();
     }
     
     @Override
@@ -245,17 +311,20 @@ public class LogAlertServiceImpl implements LogAlertService {
         config.setCreatedAt(LocalDateTime.now());
         config.setUpdatedAt(LocalDateTime.now());
         alertConfigMapper.insert(config);
+        reloadRules();
     }
     
     @Override
     public void updateAlertConfig(LogAlertConfig config) {
         config.setUpdatedAt(LocalDateTime.now());
         alertConfigMapper.updateById(config);
+        reloadRules();
     }
     
     @Override
     public void deleteAlertConfig(Long id) {
         alertConfigMapper.deleteById(id);
+        reloadRules();
     }
     
     @Override
@@ -279,46 +348,109 @@ public class LogAlertServiceImpl implements LogAlertService {
     
     @Override
     public Map<String, Object> getAlertStatistics() {
-        Map<String, Object> statistics = new HashMap<>();
+        return alertStatisticsTable.snapshot();
+    }
+    
+    /**
+     * 告警规则：一个配置对应一个滑动窗口
+     * 匹配条件、窗口长度与原先按时间范围查询system_logs的口径一致
+     */
+    private static class AlertRule {
         
-        // 总告警数
-        Long totalAlerts = alertMapper.selectCount(new QueryWrapper<>());
-        statistics.put("totalAlerts", totalAlerts);
+        private volatile LogAlertConfig config;
+        private final SlidingWindowCounter counter;
+        private final long limit;
+        private final String message;
+        private final String severity;
+        private final AtomicLong lastFiredAt = new AtomicLong();
         
-        // 待处理告警数
-        Long pendingAlerts = alertMapper.selectCount(
-            new QueryWrapper<LogAlert>().eq("status", "PENDING")
-        );
-        statistics.put("pendingAlerts", pendingAlerts);
+        private AlertRule(LogAlertConfig config, int windowSeconds, long limit, String message, String severity) {
+            this.config = config;
+            this.counter = new SlidingWindowCounter(windowSeconds);
+            this.limit = limit;
+            this.message = message;
+            this.severity = severity;
+        }
         
-        // 已发送告警数
-        Long sentAlerts = alertMapper.selectCount(
-            new QueryWrapper<LogAlert>().eq("status", "SENT")
-        );
-        statistics.put("sentAlerts", sentAlerts);
+        static AlertRule of(LogAlertConfig config) {
+            if (config.getAlertType() == null || config.getThreshold() == null) {
+                return null;
+            }
+            switch (config.getAlertType()) {
+                case "ERROR_COUNT":
+                    // 最近5分钟的错误数量
+                    return new AlertRule(config, 300, config.getThreshold(), "错误日志数量超过阈值", "HIGH");
+                case "PERFORMANCE":
+                    // 10分钟内超过3次性能异常
+                    return new AlertRule(config, 600, 3, "性能指标异常", "MEDIUM");
+                case "SECURITY":
+                    // 最近1小时的安全事件
+                    return new AlertRule(config, 3600, config.getThreshold(), "安全事件告警", "CRITICAL");
+                default:
+                    return null;
+            }
+        }
         
-        // 失败告警数
-        Long failedAlerts = alertMapper.selectCount(
-            new QueryWrapper<LogAlert>().eq("status", "FAILED")
-        );
-        statistics.put("failedAlerts", failedAlerts);
+        boolean matches(SystemLog log) {
+            switch (config.getAlertType()) {
+                case "ERROR_COUNT":
+                    return "ERROR".equals(log.getLogLevel())
+                            && (isBlank(config.getModule()) || config.getModule().equals(log.getModule()));
+                case "PERFORMANCE":
+                    return "PERFORMANCE".equals(log.getLogType())
+                            && log.getResponseTime() != null && log.getResponseTime() > config.getThreshold();
+                case "SECURITY":
+                    return "SECURITY".equals(log.getLogType()) && "WARN".equals(log.getLogLevel());
+                default:
+                    return false;
+            }
+        }
         
-        // 按严重程度统计
-        Map<String, Long> severityStats = new HashMap<>();
-        severityStats.put("CRITICAL", alertMapper.selectCount(
-            new QueryWrapper<LogAlert>().eq("severity", "CRITICAL")
-        ));
-        severityStats.put("HIGH", alertMapper.selectCount(
-            new QueryWrapper<LogAlert>().eq("severity", "HIGH")
-        ));
-        severityStats.put("MEDIUM", alertMapper.selectCount(
-            new QueryWrapper<LogAlert>().eq("severity", "MEDIUM")
-        ));
-        severityStats.put("LOW", alertMapper.selectCount(
-            new QueryWrapper<LogAlert>().eq("severity", "LOW")
-        ));
-        statistics.put("severityStats", severityStats);
+        /**
+         * 与matches相同的条件，用于启动时回填
+         */
+        void applyCondition(QueryWrapper<SystemLog> queryWrapper) {
+            switch (config.getAlertType()) {
+                case "ERROR_COUNT":
+                    queryWrapper.eq("log_level", "ERROR");
+                    if (!isBlank(config.getModule())) {
+                        queryWrapper.eq("module", config.getModule());
+                    }
+                    break;
+                case "PERFORMANCE":
+                    queryWrapper.eq("log_type", "PERFORMANCE");
+                    queryWrapper.gt("response_time", config.getThreshold());
+                    break;
+                case "SECURITY":
+                    queryWrapper.eq("log_type", "SECURITY");
+                    queryWrapper.eq("log_level", "WARN");
+                    break;
+            }
+        }
+        
+        boolean sameCondition(LogAlertConfig other) {
+            return Objects.equals(config.getAlertType(), other.getAlertType())
+                    && Objects.equals(config.getModule(), other.getModule())
+                    && Objects.equals(config.getThreshold(), other.getThreshold());
+        }
+        
+        /**
+         * 达到阈值后同一规则在间隔内只触发一次
+         */
+        boolean tryFire(long now) {
+            long last = lastFiredAt.get();
+            return now - last >= FIRE_INTERVAL_MILLIS && lastFiredAt.compareAndSet(last, now);
+        }
+        
+        /**
+         * 撤销tryFire记录的触发时间，期间已有新的触发时不覆盖
+         */
+        void cancelFire(long firedAt) {
+            lastFiredAt.compareAndSet(firedAt, 0);
+        }
         
-        return statistics;
+        private static boolean isBlank(String value) {
+            return value == null || value.isEmpty();
+        }
     }
 }
@@ -0,0 +1,455 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.AccessLog;
+import cn.lazylhxzzy.resume_commit.entity.PerformanceLog;
+import cn.lazylhxzzy.resume_commit.entity.SecurityLog;
+import cn.lazylhxzzy.resume_commit.entity.SystemLog;
+import cn.lazylhxzzy.resume_commit.mapper.AccessLogMapper;
+import cn.lazylhxzzy.resume_commit.mapper.PerformanceLogMapper;
+import cn.lazylhxzzy.resume_commit.mapper.SecurityLogMapper;
+import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日志写缓冲
+ * 调用方只把日志实体放入有界队列，由后台线程按数量或时间攒批，按表执行多行INSERT
+ * 队列满时按溢出策略处理：DROP直接丢弃，BLOCK限时等待，SPILL追加到本地文件并在空闲时回灌
+ */
+@Component
+public class LogBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogBatchWriter.class);
+
+    public static final String POLICY_DROP = "DROP";
+    public static final String POLICY_BLOCK = "BLOCK";
+    public static final String POLICY_SPILL = "SPILL";
+
+    private static final String SPILL_FILE = "log-spill.jsonl";
+    private static final String REPLAY_FILE = "log-spill.replaying";
+    private static final String REPLAY_OFFSET_FILE = "log-spill.replaying.offset";
+
+    @Autowired
+    private SystemLogMapper systemLogMapper;
+
+    @Autowired
+    private AccessLogMapper accessLogMapper;
+
+    @Autowired
+    private SecurityLogMapper securityLogMapper;
+
+    @Autowired
+    private PerformanceLogMapper performanceLogMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LogRollupManager logRollupManager;
+
+    @Value("${log.sink.capacity:10000}")
+    private int capacity;
+
+    @Value("${log.sink.batch-size:200}")
+    private int batchSize;
+
+    @Value("${log.sink.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${log.sink.overflow-policy:DROP}")
+    private String overflowPolicy;
+
+    @Value("${log.sink.block-timeout-ms:50}")
+    private long blockTimeoutMs;
+
+    @Value("${log.sink.spill-dir:logs/spill}")
+    private String spillDir;
+
+    /**
+     * 关闭时等待写入线程退出的最长时间
+     */
+    @Value("${log.sink.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private BlockingQueue<Object> queue;
+
+    private Path spillPath;
+
+    private Thread flusher;
+
+    private volatile boolean running;
+
+    private final Object spillLock = new Object();
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spilledCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        spillPath = Paths.get(spillDir);
+        running = true;
+        flusher = new Thread(this::runFlusher, "log-batch-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 关闭时停止接收并把队列中剩余的日志全部写入数据库
+     * 写入线程超时仍未退出（通常卡在数据库写入）时不再并发写库，剩余日志写入溢出文件，下次启动后回灌
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        flusher.interrupt();
+        try {
+            flusher.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Object> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (flusher.isAlive()) {
+            logger.warn("日志写入线程未在{}ms内退出，剩余{}条日志写入溢出文件", shutdownTimeoutMs, remaining.size());
+            List<Object> logs = remaining.stream().filter(log -> !(log instanceof CountDownLatch)).toList();
+            if (!logs.isEmpty()) {
+                spill(logs);
+            }
+        } else if (!remaining.isEmpty()) {
+            writeBatch(remaining);
+            releaseFlushWaiters(remaining);
+        }
+        logger.info("日志写缓冲已关闭: 写入{}条, 丢弃{}条, 溢出到文件{}条, 写入失败{}条",
+                   writtenCount.get(), droppedCount.get(), spilledCount.get(), failedCount.get());
+    }
+
+    /**
+     * 放入一条日志（SystemLog / AccessLog / SecurityLog / PerformanceLog）
+     */
+    public void add(Object log) {
+        if (!running) {
+            // 关闭阶段不在调用方线程写库，写入溢出文件，下次启动后回灌
+            spill(List.of(log));
+            return;
+        }
+        if (queue.offer(log)) {
+            enqueuedCount.incrementAndGet();
+            if (!running && queue.remove(log)) {
+                // 入队时恰好开始关闭，shutdown可能已经取走队列，没被取走的改写溢出文件
+                spill(List.of(log));
+            }
+            return;
+        }
+
+        if (POLICY_BLOCK.equalsIgnoreCase(overflowPolicy)) {
+            try {
+                if (queue.offer(log, blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    enqueuedCount.incrementAndGet();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            droppedCount.incrementAndGet();
+        } else if (POLICY_SPILL.equalsIgnoreCase(overflowPolicy)) {
+            spill(List.of(log));
+        } else {
+            droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 等待调用前已放入队列的日志全部写入数据库
+     * 在队列中放入一个标记，写入线程处理到标记时立即写出当前批次并唤醒等待方
+     *
+     * @return 超时前是否已写完
+     */
+    public boolean flush(long timeoutMs) {
+        if (!running) {
+            return true;
+        }
+        CountDownLatch marker = new CountDownLatch(1);
+        try {
+            return queue.offer(marker, timeoutMs, TimeUnit.MILLISECONDS)
+                    && marker.await(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount.get();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getSpilledCount() {
+        return spilledCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private void runFlusher() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.currentTimeMillis();
+        while (running) {
+            try {
+                Object first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+
+                long now = System.currentTimeMillis();
+                boolean flushRequested = batch.stream().anyMatch(CountDownLatch.class::isInstance);
+                if (flushRequested || batch.size() >= batchSize
+                        || (!batch.isEmpty() && now - lastFlush >= flushIntervalMs)) {
+                    writeBatch(batch);
+                    releaseFlushWaiters(batch);
+                    batch.clear();
+                    lastFlush = now;
+                }
+
+                if (queue.isEmpty()) {
+                    replaySpill();
+                }
+            } catch (InterruptedException e) {
+                // 关闭时由shutdown负责写完剩余日志
+                break;
+            } catch (Exception e) {
+                logger.error("日志批量写入线程异常", e);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+            releaseFlushWaiters(batch);
+        }
+    }
+
+    /**
+     * 唤醒批次中flush标记对应的等待方
+     */
+    private void releaseFlushWaiters(List<Object> batch) {
+        for (Object item : batch) {
+            if (item instanceof CountDownLatch marker) {
+                marker.countDown();
+            }
+        }
+    }
+
+    /**
+     * 按表分组后执行多行INSERT，写入失败时按溢出策略保留或丢弃
+     * 写入成功后通知统计汇总，回灌或积压的旧日志所在小时会被重算
+     */
+    private void writeBatch(List<Object> batch) {
+        List<SystemLog> systemLogs = new ArrayList<>();
+        List<AccessLog> accessLogs = new ArrayList<>();
+        List<SecurityLog> securityLogs = new ArrayList<>();
+        List<PerformanceLog> performanceLogs = new ArrayList<>();
+        for (Object log : batch) {
+            if (log instanceof SystemLog systemLog) {
+                systemLogs.add(systemLog);
+            } else if (log instanceof AccessLog accessLog) {
+                accessLogs.add(accessLog);
+            } else if (log instanceof SecurityLog securityLog) {
+                securityLogs.add(securityLog);
+            } else if (log instanceof PerformanceLog performanceLog) {
+                performanceLogs.add(performanceLog);
+            }
+        }
+        List<LocalDateTime> written = new ArrayList<>();
+        if (insert(systemLogs, () -> systemLogMapper.insertBatch(systemLogs))) {
+            systemLogs.forEach(log -> written.add(log.getCreatedAt()));
+        }
+        if (insert(accessLogs, () -> accessLogMapper.insertBatch(accessLogs))) {
+            accessLogs.forEach(log -> written.add(log.getCreatedAt()));
+        }
+        if (insert(securityLogs, () -> securityLogMapper.insertBatch(securityLogs))) {
+            securityLogs.forEach(log -> written.add(log.getCreatedAt()));
+        }
+        insert(performanceLogs, () -> performanceLogMapper.insertBatch(performanceLogs));
+        if (!written.isEmpty()) {
+            logRollupManager.onLogsWritten(written);
+        }
+    }
+
+    /**
+     * @return 是否写入了数据库
+     */
+    private boolean insert(List<?> logs, Runnable action) {
+        if (logs.isEmpty()) {
+            return false;
+        }
+        try {
+            action.run();
+            writtenCount.addAndGet(logs.size());
+            return true;
+        } catch (Exception e) {
+            logger.error("批量写入日志失败: {}条", logs.size(), e);
+            if (POLICY_SPILL.equalsIgnoreCase(overflowPolicy)) {
+                spill(logs);
+            } else {
+                failedCount.addAndGet(logs.size());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 追加到溢出文件，每行一条：{"type":"SystemLog","data":{...}}
+     */
+    private void spill(List<?> logs) {
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(spillPath);
+                try (BufferedWriter writer = Files.newBufferedWriter(spillPath.resolve(SPILL_FILE),
+                        StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (Object log : logs) {
+                        writer.write("{\"type\":\"" + log.getClass().getSimpleName() + "\",\"data\":"
+                                + objectMapper.writeValueAsString(log) + "}");
+                        writer.newLine();
+                    }
+                }
+                spilledCount.addAndGet(logs.size());
+            } catch (IOException e) {
+                logger.error("日志写入溢出文件失败", e);
+                droppedCount.addAndGet(logs.size());
+            }
+        }
+    }
+
+    /**
+     * 队列空闲时把溢出文件中的日志重新写入数据库
+     * 每写完一批把已处理的行数记到偏移文件，中途崩溃或关闭后从该行继续，已写入的批次不会重复插入
+     */
+    private void replaySpill() throws IOException {
+        Path spillFile = spillPath.resolve(SPILL_FILE);
+        Path replayFile = spillPath.resolve(REPLAY_FILE);
+        Path offsetFile = spillPath.resolve(REPLAY_OFFSET_FILE);
+        synchronized (spillLock) {
+            if (!Files.exists(replayFile)) {
+                if (!Files.exists(spillFile)) {
+                    return;
+                }
+                Files.deleteIfExists(offsetFile);
+                Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        long offset = readReplayOffset(offsetFile);
+        long lineNo = 0;
+        List<Object> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            String line;
+            while (running && (line = reader.readLine()) != null) {
+                lineNo++;
+                if (lineNo <= offset) {
+                    continue;
+                }
+                Object log = parseSpillLine(line);
+                if (log != null) {
+                    batch.add(log);
+                }
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch);
+                    batch.clear();
+                    saveReplayOffset(offsetFile, lineNo);
+                }
+            }
+            if (!running) {
+                // 未处理完的批次不写，保留回放文件和偏移，下次启动继续
+                return;
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch);
+        }
+        Files.deleteIfExists(replayFile);
+        Files.deleteIfExists(offsetFile);
+    }
+
+    private long readReplayOffset(Path offsetFile) {
+        try {
+            return Files.exists(offsetFile) ? Long.parseLong(Files.readString(offsetFile).trim()) : 0;
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("溢出回放偏移文件无法读取，从头回放", e);
+            return 0;
+        }
+    }
+
+    /**
+     * 先写临时文件再原子替换，避免崩溃时留下半截的偏移
+     */
+    private void saveReplayOffset(Path offsetFile, long lineNo) throws IOException {
+        Path tmp = offsetFile.resolveSibling(REPLAY_OFFSET_FILE + ".tmp");
+        Files.writeString(tmp, Long.toString(lineNo), StandardCharsets.UTF_8);
+        Files.move(tmp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Object parseSpillLine(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            JsonNode data = node.get("data");
+            switch (node.get("type").asText()) {
+                case "SystemLog":
+                    return objectMapper.treeToValue(data, SystemLog.class);
+                case "AccessLog":
+                    return objectMapper.treeToValue(data, AccessLog.class);
+                case "SecurityLog":
+                    return objectMapper.treeToValue(data, SecurityLog.class);
+                case "PerformanceLog":
+                    return objectMapper.treeToValue(data, PerformanceLog.class);
+                default:
+                    return null;
+            }
+        } catch (Exception e) {
+            logger.warn("无法解析溢出日志: {}", line);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogConfig;
+import cn.lazylhxzzy.resume_commit.mapper.LogConfigMapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 日志采集策略
+ * 控制AOP切面记录哪些日志：按类别开关、系统日志最低级别、性能监控的层级，以及成功调用的采样率
+ * （可按接口单独配置）。失败和慢调用不参与采样，始终记录；安全日志不受本策略控制
+ * 默认值取自配置文件，log_configs中以log.capture.开头的启用配置覆盖默认值，定期重新加载
+ */
+@Component
+public class LogCapturePolicy {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogCapturePolicy.class);
+    
+    public static final String CATEGORY_SYSTEM = "system";
+    public static final String CATEGORY_ACCESS = "access";
+    public static final String CATEGORY_BUSINESS = "business";
+    public static final String CATEGORY_PERFORMANCE = "performance";
+    
+    private static final List<String> CATEGORIES = List.of(
+            CATEGORY_SYSTEM, CATEGORY_ACCESS, CATEGORY_BUSINESS, CATEGORY_PERFORMANCE);
+    
+    private static final List<String> LEVELS = List.of("DEBUG", "INFO", "WARN", "ERROR");
+    
+    static final String KEY_PREFIX = "log.capture.";
+    static final String KEY_SUCCESS_RATE = KEY_PREFIX + "success-rate";
+    static final String KEY_SLOW_THRESHOLD = KEY_PREFIX + "slow-threshold-ms";
+    static final String KEY_SYSTEM_LEVEL = KEY_PREFIX + "system-level";
+    static final String KEY_MONITOR_LAYERS = KEY_PREFIX + "monitor-layers";
+    static final String KEY_ENDPOINT_PREFIX = KEY_PREFIX + "endpoint.";
+    
+    @Autowired
+    private LogConfigMapper logConfigMapper;
+    
+    /**
+     * 成功调用的默认采样率，0~1
+     */
+    @Value("${log.capture.success-rate:1.0}")
+    private double defaultSuccessRate;
+    
+    /**
+     * 耗时达到该值的成功调用不参与采样
+     */
+    @Value("${log.capture.slow-threshold-ms:1000}")
+    private long defaultSlowThresholdMs;
+    
+    /**
+     * 切面写入系统日志的最低级别
+     */
+    @Value("${log.capture.system-level:INFO}")
+    private String defaultSystemLevel;
+    
+    /**
+     * 性能监控切面记录的层级
+     */
+    @Value("${log.capture.monitor-layers:CONTROLLER,SERVICE,MAPPER}")
+    private String defaultMonitorLayers;
+    
+    @Value("${log.capture.system.enabled:true}")
+    private boolean systemEnabled;
+    
+    @Value("${log.capture.access.enabled:true}")
+    private boolean accessEnabled;
+    
+    @Value("${log.capture.business.enabled:true}")
+    private boolean businessEnabled;
+    
+    @Value("${log.capture.performance.enabled:true}")
+    private boolean performanceEnabled;
+    
+    private volatile Policy policy;
+    
+    @PostConstruct
+    public void init() {
+        policy = build(Collections.emptyMap());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadQuietly();
+    }
+    
+    @Scheduled(fixedDelayString = "${log.capture.refresh-ms:60000}",
+               initialDelayString = "${log.capture.refresh-ms:60000}")
+    public void reloadQuietly() {
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("加载日志采集策略失败，继续使用当前策略", e);
+        }
+    }
+    
+    /**
+     * 从log_configs重新加载策略
+     */
+    public synchronized Policy reload() {
+        List<LogConfig> configs = logConfigMapper.selectList(
+            new QueryWrapper<LogConfig>().likeRight("config_key", KEY_PREFIX).eq("is_active", true)
+        );
+        Map<String, String> overrides = new HashMap<>();
+        for (LogConfig config : configs) {
+            overrides.put(config.getConfigKey(), config.getConfigValue());
+        }
+        policy = build(overrides);
+        return policy;
+    }
+    
+    /**
+     * 当前生效的策略，一次调用内应只取一次，保证同一请求的各项判断一致
+     */
+    public Policy current() {
+        return policy;
+    }
+    
+    Policy build(Map<String, String> overrides) {
+        Set<String> overridden = new LinkedHashSet<>();
+        
+        double successRate = parseRate(overrides, KEY_SUCCESS_RATE, defaultSuccessRate, overridden);
+        long slowThresholdMs = defaultSlowThresholdMs;
+        String slowValue = overrides.get(KEY_SLOW_THRESHOLD);
+        if (slowValue != null) {
+            try {
+                slowThresholdMs = Long.parseLong(slowValue.trim());
+                overridden.add(KEY_SLOW_THRESHOLD);
+            } catch (NumberFormatException e) {
+                logger.warn("日志采集配置{}无效: {}", KEY_SLOW_THRESHOLD, slowValue);
+            }
+        }
+        
+        String systemLevel = defaultSystemLevel.trim().toUpperCase(Locale.ROOT);
+        String levelValue = overrides.get(KEY_SYSTEM_LEVEL);
+        if (levelValue != null) {
+            String level = levelValue.trim().toUpperCase(Locale.ROOT);
+            if (LEVELS.contains(level)) {
+                systemLevel = level;
+                overridden.add(KEY_SYSTEM_LEVEL);
+            } else {
+                logger.warn("日志采集配置{}无效: {}", KEY_SYSTEM_LEVEL, levelValue);
+            }
+        }
+        
+        String layersValue = overrides.getOrDefault(KEY_MONITOR_LAYERS, defaultMonitorLayers);
+        if (overrides.containsKey(KEY_MONITOR_LAYERS)) {
+            overridden.add(KEY_MONITOR_LAYERS);
+        }
+        Set<String> monitorLayers = new LinkedHashSet<>();
+        for (String layer : layersValue.split(",")) {
+            if (!layer.isBlank()) {
+                monitorLayers.add(layer.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        
+        Map<String, Boolean> categories = new LinkedHashMap<>();
+        categories.put(CATEGORY_SYSTEM, systemEnabled);
+        categories.put(CATEGORY_ACCESS, accessEnabled);
+        categories.put(CATEGORY_BUSINESS, businessEnabled);
+        categories.put(CATEGORY_PERFORMANCE, performanceEnabled);
+        for (String category : CATEGORIES) {
+            String key = KEY_PREFIX + category + ".enabled";
+            String value = overrides.get(key);
+            if (value != null) {
+                categories.put(category, Boolean.parseBoolean(value.trim()));
+                overridden.add(key);
+            }
+        }
+        
+        Map<String, Double> endpointRates = new LinkedHashMap<>();
+        for (String key : overrides.keySet()) {
+            if (key.startsWith(KEY_ENDPOINT_PREFIX) && key.length() > KEY_ENDPOINT_PREFIX.length()) {
+                double rate = parseRate(overrides, key, -1, overridden);
+                if (rate >= 0) {
+                    endpointRates.put(key.substring(KEY_ENDPOINT_PREFIX.length()), rate);
+                }
+            }
+        }
+        
+        return new Policy(successRate, slowThresholdMs, systemLevel, monitorLayers, categories,
+                          endpointRates, overridden, LocalDateTime.now());
+    }
+    
+    private double parseRate(Map<String, String> overrides, String key, double defaultValue,
+                             Set<String> overridden) {
+        String value = overrides.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            double rate = Double.parseDouble(value.trim());
+            if (rate >= 0 && rate <= 1) {
+                overridden.add(key);
+                return rate;
+            }
+        } catch (NumberFormatException e) {
+            // 按无效配置处理
+        }
+        logger.warn("日志采集配置{}无效，采样率应在0~1之间: {}", key, value);
+        return defaultValue;
+    }
+    
+    /**
+     * 一次加载得到的不可变策略
+     */
+    public static final class Policy {
+        
+        private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+        
+        private final double successRate;
+        
+        private final long slowThresholdMs;
+        
+        private final String systemLevel;
+        
+        private final int systemLevelOrder;
+        
+        private final Set<String> monitorLayers;
+        
+        private final Map<String, Boolean> categories;
+        
+        /**
+         * 接口路径模式 -> 采样率，支持Ant风格通配符
+         */
+        private final Map<String, Double> endpointRates;
+        
+        /**
+         * 被log_configs覆盖的配置键
+         */
+        private final Set<String> overriddenKeys;
+        
+        private final LocalDateTime loadedAt;
+        
+        /**
+         * 请求路径模式 -> 解析出的采样率；路径模式取自Spring MVC匹配到的映射，数量有限
+         */
+        private final Map<String, Double> resolvedRates = new ConcurrentHashMap<>();
+        
+        private Policy(double successRate, long slowThresholdMs, String systemLevel, Set<String> monitorLayers,
+                       Map<String, Boolean> categories, Map<String, Double> endpointRates,
+                       Set<String> overriddenKeys, LocalDateTime loadedAt) {
+            this.successRate = successRate;
+            this.slowThresholdMs = slowThresholdMs;
+            this.systemLevel = systemLevel;
+            this.systemLevelOrder = LEVELS.indexOf(systemLevel);
+            this.monitorLayers = Collections.unmodifiableSet(monitorLayers);
+            this.categories = Collections.unmodifiableMap(categories);
+            this.endpointRates = Collections.unmodifiableMap(endpointRates);
+            this.overriddenKeys = Collections.unmodifiableSet(overriddenKeys);
+            this.loadedAt = loadedAt;
+        }
+        
+        public boolean isEnabled(String category) {
+            return categories.getOrDefault(category, true);
+        }
+        
+        /**
+         * 该级别的系统日志是否记录
+         */
+        public boolean isLevelEnabled(String level) {
+            return LEVELS.indexOf(level) >= systemLevelOrder;
+        }
+        
+        /**
+         * 性能监控切面是否记录该层
+         */
+        public boolean isMonitored(String layer) {
+            return monitorLayers.contains(layer);
+        }
+        
+        /**
+         * 接口的成功调用采样率：精确匹配优先，其次取最长的匹配模式，都不匹配时用默认采样率
+         */
+        public double rateFor(String endpoint) {
+            if (endpoint == null || endpointRates.isEmpty()) {
+                return successRate;
+            }
+            return resolvedRates.computeIfAbsent(endpoint, this::resolveRate);
+        }
+        
+        private double resolveRate(String endpoint) {
+            Double exact = endpointRates.get(endpoint);
+            if (exact != null) {
+                return exact;
+            }
+            String best = null;
+            for (String pattern : endpointRates.keySet()) {
+                if (PATH_MATCHER.match(pattern, endpoint) && (best == null || pattern.length() > best.length())) {
+                    best = pattern;
+                }
+            }
+            return best != null ? endpointRates.get(best) : successRate;
+        }
+        
+        /**
+         * 成功调用是否记录：慢调用始终记录，其余按接口采样率随机采样
+         */
+        public boolean sampleSuccess(String endpoint, long executionTime) {
+            if (executionTime >= slowThresholdMs) {
+                return true;
+            }
+            double rate = rateFor(endpoint);
+            if (rate >= 1) {
+                return true;
+            }
+            return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+        }
+        
+        /**
+         * 策略内容，供查看当前生效的配置
+         */
+        public Map<String, Object> describe() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("successRate", successRate);
+            result.put("slowThresholdMs", slowThresholdMs);
+            result.put("systemLevel", systemLevel);
+            result.put("monitorLayers", monitorLayers);
+            result.put("categories", categories);
+            result.put("endpointRates", endpointRates);
+            result.put("overriddenKeys", overriddenKeys);
+            result.put("loadedAt", loadedAt);
+            return result;
+        }
+    }
+}
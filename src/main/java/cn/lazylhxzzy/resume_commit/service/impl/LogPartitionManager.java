@@ -0,0 +1,177 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.dto.LogPartitionInfo;
+import cn.lazylhxzzy.resume_commit.mapper.LogPartitionMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 日志表分区管理
+ * 分区模式下日志表按 UNIX_TIMESTAMP(created_at) 做RANGE分区，分区名为 p+起始日期（按天 pyyyyMMdd，按月 pyyyyMM），
+ * 末尾保留一个 VALUES LESS THAN MAXVALUE 的兜底分区 p_future
+ * 定时从兜底分区拆出未来的分区；清理时整块删除已全部过期的分区，只修改元数据
+ * 分区边界一律读取information_schema中的实际上界，不从分区名推算
+ * 表结构的转换见 sql/add_log_partitions.sql，未转换的表会被跳过
+ */
+@Component
+public class LogPartitionManager {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogPartitionManager.class);
+    
+    public static final String FUTURE_PARTITION = "p_future";
+    
+    private static final DateTimeFormatter DAY_NAME = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter MONTH_NAME = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter BOUNDARY = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    public static final List<String> PARTITIONED_TABLES = List.of(
+            LogRetentionEngine.TABLE_SYSTEM_LOGS,
+            LogRetentionEngine.TABLE_ACCESS_LOGS,
+            LogRetentionEngine.TABLE_SECURITY_LOGS,
+            LogRetentionEngine.TABLE_PERFORMANCE_LOGS);
+    
+    @Autowired
+    private LogPartitionMapper logPartitionMapper;
+    
+    @Value("${log.partition.enabled:false}")
+    private boolean enabled;
+    
+    /**
+     * 分区粒度：DAY 或 MONTH
+     */
+    @Value("${log.partition.granularity:DAY}")
+    private String granularity;
+    
+    /**
+     * 预先创建的未来分区数量（不含当前周期）
+     */
+    @Value("${log.partition.precreate:7}")
+    private int precreate;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * 为各日志表补齐从当前周期到未来precreate个周期的分区
+     */
+    public synchronized void ensureFuturePartitions() {
+        if (!enabled) {
+            return;
+        }
+        for (String table : PARTITIONED_TABLES) {
+            try {
+                ensureFuturePartitions(table);
+            } catch (Exception e) {
+                logger.error("预创建日志分区失败: {}", table, e);
+            }
+        }
+    }
+    
+    /**
+     * 删除上界不晚于cutoff的分区（含p_history），返回删除的分区数
+     * 跨越cutoff的分区保留，其中的过期记录仍由分批删除处理
+     */
+    public synchronized int dropPartitionsBefore(String table, LocalDateTime cutoff) {
+        if (!enabled || !PARTITIONED_TABLES.contains(table)) {
+            return 0;
+        }
+        List<LogPartitionInfo> partitions = logPartitionMapper.listPartitions(table);
+        if (!hasFuturePartition(partitions)) {
+            return 0;
+        }
+        
+        List<String> expired = new ArrayList<>();
+        for (LogPartitionInfo partition : partitions) {
+            LocalDateTime upperBound = partition.getUpperBound();
+            if (upperBound != null && !upperBound.isAfter(cutoff)) {
+                expired.add(partition.getPartitionName());
+            }
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        
+        long start = System.currentTimeMillis();
+        logPartitionMapper.dropPartitions(table, String.join(",", expired));
+        logger.info("删除{}的{}个过期分区（{} ~ {}），耗时{}ms",
+                   table, expired.size(), expired.get(0), expired.get(expired.size() - 1),
+                   System.currentTimeMillis() - start);
+        return expired.size();
+    }
+    
+    private void ensureFuturePartitions(String table) {
+        List<LogPartitionInfo> partitions = logPartitionMapper.listPartitions(table);
+        if (!hasFuturePartition(partitions)) {
+            logger.warn("{}未按时间分区，跳过分区维护", table);
+            return;
+        }
+        
+        boolean monthly = "MONTH".equalsIgnoreCase(granularity);
+        LocalDate current = periodStart(LocalDate.now(), monthly);
+        LocalDate last = current.plus(precreate, monthly ? ChronoUnit.MONTHS : ChronoUnit.DAYS);
+        
+        // 从已有分区的最大上界开始（含p_history），新分区上界必须严格大于它
+        LocalDate next = current;
+        for (LogPartitionInfo partition : partitions) {
+            LocalDateTime upperBound = partition.getUpperBound();
+            if (upperBound != null && upperBound.toLocalDate().isAfter(next)) {
+                next = upperBound.toLocalDate();
+            }
+        }
+        next = alignUp(next, monthly);
+        
+        List<String> definitions = new ArrayList<>();
+        String firstName = null;
+        while (!next.isAfter(last)) {
+            LocalDate end = monthly ? next.plusMonths(1) : next.plusDays(1);
+            String name = "p" + next.format(monthly ? MONTH_NAME : DAY_NAME);
+            if (firstName == null) {
+                firstName = name;
+            }
+            definitions.add("PARTITION " + name + " VALUES LESS THAN (UNIX_TIMESTAMP('"
+                    + end.atStartOfDay().format(BOUNDARY) + "'))");
+            next = end;
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE");
+        
+        logPartitionMapper.reorganizePartition(table, FUTURE_PARTITION, String.join(", ", definitions));
+        logger.info("为{}预创建{}个分区（{}起）", table, definitions.size() - 1, firstName);
+    }
+    
+    private static boolean hasFuturePartition(List<LogPartitionInfo> partitions) {
+        for (LogPartitionInfo partition : partitions) {
+            if (FUTURE_PARTITION.equals(partition.getPartitionName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static LocalDate periodStart(LocalDate date, boolean monthly) {
+        return monthly ? date.withDayOfMonth(1) : date;
+    }
+    
+    /**
+     * 按月分区时，由按天分区切换过来的边界可能不在月初，取下一个月初
+     */
+    private static LocalDate alignUp(LocalDate date, boolean monthly) {
+        if (!monthly || date.getDayOfMonth() == 1) {
+            return date;
+        }
+        return date.withDayOfMonth(1).plusMonths(1);
+    }
+}
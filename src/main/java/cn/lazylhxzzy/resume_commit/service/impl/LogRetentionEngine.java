@@ -0,0 +1,481 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogConfig;
+import cn.lazylhxzzy.resume_commit.mapper.AccessLogMapper;
+import cn.lazylhxzzy.resume_commit.mapper.LogAlertMapper;
+import cn.lazylhxzzy.resume_commit.mapper.LogConfigMapper;
+import cn.lazylhxzzy.resume_commit.mapper.PerformanceLogMapper;
+import cn.lazylhxzzy.resume_commit.mapper.SecurityLogMapper;
+import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 日志分批清理
+ * 按主键区间分批删除过期日志，每批约batchSize条，单独提交并在批次之间暂停，避免一次大事务锁表、撑大undo日志
+ * 每批完成后把进度写入log_configs，进程中断后在下次启动时从断点继续
+ * 定时任务和手动清理共用log_configs中的一条锁记录，多实例部署时同一时间也只有一个清理在执行
+ * 开启分区模式时先整块删除已全部过期的分区，剩余的过期记录再分批删除
+ */
+@Component
+public class LogRetentionEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogRetentionEngine.class);
+    
+    private static final String CHECKPOINT_KEY = "log.cleanup.checkpoint";
+    
+    private static final String LOCK_KEY = "log.cleanup.lock";
+    
+    public static final String TABLE_SYSTEM_LOGS = "system_logs";
+    public static final String TABLE_ACCESS_LOGS = "access_logs";
+    public static final String TABLE_SECURITY_LOGS = "security_logs";
+    public static final String TABLE_PERFORMANCE_LOGS = "performance_logs";
+    public static final String TABLE_LOG_ALERTS = "log_alerts";
+    
+    @Autowired
+    private SystemLogMapper systemLogMapper;
+    
+    @Autowired
+    private AccessLogMapper accessLogMapper;
+    
+    @Autowired
+    private SecurityLogMapper securityLogMapper;
+    
+    @Autowired
+    private PerformanceLogMapper performanceLogMapper;
+    
+    @Autowired
+    private LogAlertMapper alertMapper;
+    
+    @Autowired
+    private LogConfigMapper logConfigMapper;
+    
+    @Autowired
+    private LogPartitionManager logPartitionManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    @Qualifier("retentionExecutor")
+    private ThreadPoolTaskExecutor retentionExecutor;
+    
+    @Value("${log.cleanup.batch-size:5000}")
+    private int batchSize;
+    
+    @Value("${log.cleanup.pause-ms:200}")
+    private long pauseMs;
+    
+    /**
+     * 锁租约时长，持有者超过这个时间没有续约（进程崩溃等）时其他实例可以接管
+     */
+    @Value("${log.cleanup.lock-timeout-ms:600000}")
+    private long lockTimeoutMs;
+    
+    @Value("${server.port:8080}")
+    private int serverPort;
+    
+    /**
+     * 锁持有者标识：主机名+端口，同一实例重启后可以直接取回自己的锁继续断点
+     */
+    private String lockOwner;
+    
+    private final Map<String, BaseMapper<?>> mappers = new HashMap<>();
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    private volatile RetentionRun currentRun;
+    
+    private volatile RetentionRun lastRun;
+    
+    /**
+     * 断点记录，只在清理线程中读写
+     */
+    private LogConfig checkpoint;
+    
+    @PostConstruct
+    public void init() {
+        mappers.put(TABLE_SYSTEM_LOGS, systemLogMapper);
+        mappers.put(TABLE_ACCESS_LOGS, accessLogMapper);
+        mappers.put(TABLE_SECURITY_LOGS, securityLogMapper);
+        mappers.put(TABLE_PERFORMANCE_LOGS, performanceLogMapper);
+        mappers.put(TABLE_LOG_ALERTS, alertMapper);
+        
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        lockOwner = host + ":" + serverPort;
+    }
+    
+    /**
+     * 启动时检查是否有中断的清理，有则按原截止时间继续
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        try {
+            LogConfig saved = findCheckpoint();
+            if (saved == null) {
+                return;
+            }
+            RetentionRun run = objectMapper.readValue(saved.getConfigValue(), RetentionRun.class);
+            logger.info("发现未完成的日志清理（{}，开始于{}），从断点继续", run.getTrigger(), run.getStartedAt());
+            start(run);
+        } catch (Exception e) {
+            logger.error("恢复日志清理失败", e);
+        }
+    }
+    
+    /**
+     * 在后台启动一次清理，cutoffs为 表名 -> 截止时间（删除早于该时间的记录）
+     *
+     * @return 已有清理在执行时返回false
+     */
+    public boolean start(String trigger, Map<String, LocalDateTime> cutoffs) {
+        RetentionRun run = new RetentionRun();
+        run.setTrigger(trigger);
+        run.setStartedAt(LocalDateTime.now());
+        for (Map.Entry<String, LocalDateTime> entry : cutoffs.entrySet()) {
+            if (!mappers.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("不支持清理的表: " + entry.getKey());
+            }
+            TableProgress progress = new TableProgress();
+            progress.setTable(entry.getKey());
+            progress.setCutoff(entry.getValue());
+            run.getTables().add(progress);
+        }
+        return start(run);
+    }
+    
+    public boolean isRunning() {
+        return running.get();
+    }
+    
+    /**
+     * 当前或最近一次清理的进度
+     */
+    public Map<String, Object> getStatus() {
+        RetentionRun run = currentRun != null ? currentRun : lastRun;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("batchSize", batchSize);
+        status.put("pauseMs", pauseMs);
+        status.put("run", run);
+        return status;
+    }
+    
+    private boolean start(RetentionRun run) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            if (!tryAcquireLock()) {
+                logger.info("其他实例正在执行日志清理，本次跳过");
+                running.set(false);
+                return false;
+            }
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        currentRun = run;
+        try {
+            retentionExecutor.execute(() -> execute(run));
+        } catch (RuntimeException e) {
+            currentRun = null;
+            releaseLock();
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+    
+    private void execute(RetentionRun run) {
+        try {
+            // 断点记录可能已被其他实例删除，重新查询
+            checkpoint = null;
+            saveCheckpoint(run);
+            for (TableProgress progress : run.getTables()) {
+                if (!progress.isDone()) {
+                    cleanTable(run, progress);
+                }
+            }
+            deleteCheckpoint();
+            logger.info("日志清理完成（{}），共删除{}条记录", run.getTrigger(), run.getTotalDeleted());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.setError("清理被中断");
+            logger.warn("日志清理被中断，下次启动时从断点继续");
+        } catch (Exception e) {
+            run.setError(e.getMessage());
+            logger.error("日志清理失败，下次启动时从断点继续", e);
+        } finally {
+            run.setFinishedAt(LocalDateTime.now());
+            lastRun = run;
+            currentRun = null;
+            releaseLock();
+            running.set(false);
+        }
+    }
+    
+    /**
+     * 分区模式下先删除整块过期的分区
+     * 再通过(created_at, id)索引定位截止时间前最后一条记录的主键作为上界，从头按主键逐批删除
+     * 每批的上界取 nextId 之后第batchSize条过期记录的主键，批次大小不受主键空洞影响
+     * 删除条件同时带上created_at，区间内未过期的记录不会被误删
+     * 分区删除和定位上界前后都续约清理锁，耗时较长时不会被其他实例接管
+     */
+    private void cleanTable(RetentionRun run, TableProgress progress) throws Exception {
+        BaseMapper<?> mapper = mappers.get(progress.getTable());
+        if (progress.getMaxId() == null) {
+            renewLockOrFail();
+            long dropStart = System.currentTimeMillis();
+            progress.setPartitionsDropped(logPartitionManager.dropPartitionsBefore(progress.getTable(), progress.getCutoff()));
+            progress.setElapsedMs(progress.getElapsedMs() + System.currentTimeMillis() - dropStart);
+            saveCheckpoint(run);
+            
+            Long maxId = findLastIdBefore(mapper, progress.getCutoff());
+            if (maxId == null) {
+                progress.setDone(true);
+                saveCheckpoint(run);
+                if (progress.getPartitionsDropped() > 0) {
+                    logger.info("清理{}完成，删除{}个分区", progress.getTable(), progress.getPartitionsDropped());
+                }
+                return;
+            }
+            progress.setMaxId(maxId);
+            progress.setNextId(0L);
+            saveCheckpoint(run);
+        }
+        
+        while (progress.getNextId() <= progress.getMaxId()) {
+            long chunkStart = System.currentTimeMillis();
+            long fromId = progress.getNextId();
+            Long chunkEnd = findChunkEnd(mapper, fromId, progress.getMaxId(), progress.getCutoff());
+            // 剩余的过期记录不足一批时直接删到上界
+            long toId = chunkEnd != null ? chunkEnd : progress.getMaxId();
+            
+            int deleted = deleteRange(mapper, fromId, toId, progress.getCutoff());
+            progress.setNextId(toId + 1);
+            progress.setDeleted(progress.getDeleted() + deleted);
+            saveCheckpoint(run);
+            
+            if (pauseMs > 0 && progress.getNextId() <= progress.getMaxId()) {
+                Thread.sleep(pauseMs);
+            }
+            progress.setElapsedMs(progress.getElapsedMs() + System.currentTimeMillis() - chunkStart);
+        }
+        progress.setDone(true);
+        saveCheckpoint(run);
+        logger.info("清理{}完成，删除{}个分区、{}条记录，耗时{}ms，{}条/秒",
+                   progress.getTable(), progress.getPartitionsDropped(), progress.getDeleted(),
+                   progress.getElapsedMs(), progress.getRowsPerSecond());
+    }
+    
+    /**
+     * 沿(created_at, id)索引倒序只读一行，不扫描整个过期区间
+     * 主键更大但created_at更早的补写记录本次不处理，后续清理的截止时间推后、上界越过它们时再删除
+     */
+    private <T> Long findLastIdBefore(BaseMapper<T> mapper, LocalDateTime cutoff) {
+        QueryWrapper<T> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id")
+                    .lt("created_at", cutoff)
+                    .orderByDesc("created_at", "id")
+                    .last("LIMIT 1");
+        Long maxId = firstLong(mapper.selectObjs(queryWrapper));
+        renewLockOrFail();
+        return maxId;
+    }
+    
+    /**
+     * 从fromId开始第batchSize条过期记录的主键，不足一批时返回null
+     */
+    private <T> Long findChunkEnd(BaseMapper<T> mapper, long fromId, long maxId, LocalDateTime cutoff) {
+        QueryWrapper<T> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id")
+                    .between("id", fromId, maxId)
+                    .lt("created_at", cutoff)
+                    .orderByAsc("id")
+                    .last("LIMIT 1 OFFSET " + (batchSize - 1));
+        return firstLong(mapper.selectObjs(queryWrapper));
+    }
+    
+    private <T> int deleteRange(BaseMapper<T> mapper, long fromId, long toId, LocalDateTime cutoff) {
+        QueryWrapper<T> queryWrapper = new QueryWrapper<>();
+        queryWrapper.between("id", fromId, toId)
+                    .lt("created_at", cutoff);
+        return mapper.delete(queryWrapper);
+    }
+    
+    private Long firstLong(List<Object> values) {
+        if (values == null || values.isEmpty() || values.get(0) == null) {
+            return null;
+        }
+        return ((Number) values.get(0)).longValue();
+    }
+    
+    private LogConfig findCheckpoint() {
+        return logConfigMapper.selectOne(new QueryWrapper<LogConfig>().eq("config_key", CHECKPOINT_KEY));
+    }
+    
+    /**
+     * 写入断点，同时续约清理锁；锁已被其他实例接管时中止本次清理
+     */
+    private void saveCheckpoint(RetentionRun run) throws Exception {
+        renewLockOrFail();
+        String value = objectMapper.writeValueAsString(run);
+        if (checkpoint == null) {
+            checkpoint = findCheckpoint();
+        }
+        if (checkpoint == null) {
+            checkpoint = new LogConfig();
+            checkpoint.setConfigKey(CHECKPOINT_KEY);
+            checkpoint.setConfigValue(value);
+            checkpoint.setDescription("日志清理断点，清理完成后自动删除");
+            checkpoint.setIsActive(true);
+            logConfigMapper.insert(checkpoint);
+        } else {
+            checkpoint.setConfigValue(value);
+            logConfigMapper.updateById(checkpoint);
+        }
+    }
+    
+    private void deleteCheckpoint() {
+        logConfigMapper.delete(new QueryWrapper<LogConfig>().eq("config_key", CHECKPOINT_KEY));
+        checkpoint = null;
+    }
+    
+    /**
+     * 条件更新抢锁：锁记录未被持有、租约已过期或本来就属于本实例时才能抢到
+     * 锁记录不存在时插入，config_key唯一约束保证只有一个实例插入成功
+     */
+    private boolean tryAcquireLock() {
+        LocalDateTime now = LocalDateTime.now();
+        UpdateWrapper<LogConfig> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.eq("config_key", LOCK_KEY)
+                     .and(w -> w.eq("is_active", false)
+                             .or().lt("updated_at", now.minus(lockTimeoutMs, ChronoUnit.MILLIS))
+                             .or().eq("config_value", lockOwner))
+                     .set("config_value", lockOwner)
+                     .set("is_active", true)
+                     .set("updated_at", now);
+        if (logConfigMapper.update(null, updateWrapper) > 0) {
+            return true;
+        }
+        if (logConfigMapper.selectCount(new QueryWrapper<LogConfig>().eq("config_key", LOCK_KEY)) > 0) {
+            return false;
+        }
+        
+        LogConfig lock = new LogConfig();
+        lock.setConfigKey(LOCK_KEY);
+        lock.setConfigValue(lockOwner);
+        lock.setDescription("日志清理锁，记录当前持有清理的实例");
+        lock.setIsActive(true);
+        lock.setCreatedAt(now);
+        lock.setUpdatedAt(now);
+        try {
+            logConfigMapper.insert(lock);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 续约清理锁，锁已被其他实例接管时中止本次清理
+     */
+    private void renewLockOrFail() {
+        if (!renewLock()) {
+            throw new IllegalStateException("清理锁已失效，可能已被其他实例接管");
+        }
+    }
+    
+    private boolean renewLock() {
+        UpdateWrapper<LogConfig> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.eq("config_key", LOCK_KEY)
+                     .eq("config_value", lockOwner)
+                     .eq("is_active", true)
+                     .set("updated_at", LocalDateTime.now());
+        return logConfigMapper.update(null, updateWrapper) > 0;
+    }
+    
+    private void releaseLock() {
+        try {
+            UpdateWrapper<LogConfig> updateWrapper = new UpdateWrapper<>();
+            updateWrapper.eq("config_key", LOCK_KEY)
+                         .eq("config_value", lockOwner)
+                         .set("is_active", false);
+            logConfigMapper.update(null, updateWrapper);
+        } catch (Exception e) {
+            logger.warn("释放日志清理锁失败，租约过期后自动失效", e);
+        }
+    }
+    
+    /**
+     * 一次清理
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class RetentionRun {
+        private String trigger;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private String error;
+        private List<TableProgress> tables = new ArrayList<>();
+        
+        public long getTotalDeleted() {
+            long total = 0;
+            for (TableProgress progress : tables) {
+                total += progress.getDeleted();
+            }
+            return total;
+        }
+    }
+    
+    /**
+     * 单表清理进度，nextId之前的区间已处理完
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class TableProgress {
+        private String table;
+        private LocalDateTime cutoff;
+        private Long maxId;
+        private Long nextId;
+        private int partitionsDropped;
+        private long deleted;
+        private long elapsedMs;
+        private boolean done;
+        
+        public long getRowsPerSecond() {
+            return elapsedMs > 0 ? deleted * 1000 / elapsedMs : deleted;
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.AccessLog;
+import cn.lazylhxzzy.resume_commit.entity.LogConfig;
+import cn.lazylhxzzy.resume_commit.entity.LogRollup;
+import cn.lazylhxzzy.resume_commit.entity.SecurityLog;
+import cn.lazylhxzzy.resume_commit.entity.SystemLog;
+import cn.lazylhxzzy.resume_commit.mapper.AccessLogMapper;
+import cn.lazylhxzzy.resume_commit.mapper.LogConfigMapper;
+import cn.lazylhxzzy.resume_commit.mapper.LogRollupMapper;
+import cn.lazylhxzzy.resume_commit.mapper.SecurityLogMapper;
+import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 日志统计汇总
+ * 定时把原始日志按分钟汇总到log_rollup_minute，再由分钟汇总得到log_rollup_hour，
+ * 每行记录一个时间桶内 来源 x 维度取值 的日志条数（级别、类型、模块、响应码、风险级别）
+ * 水位线（已汇总到的时间）保存在log_configs中，统计查询时水位线之前读汇总表，之后的少量日志直接查原始表
+ * 分钟汇总只保留最近几天，更早的区间按小时精度统计
+ */
+@Component
+public class LogRollupManager {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogRollupManager.class);
+    
+    public static final String TABLE_MINUTE = "log_rollup_minute";
+    public static final String TABLE_HOUR = "log_rollup_hour";
+    
+    public static final String SOURCE_SYSTEM = "SYSTEM";
+    public static final String SOURCE_ACCESS = "ACCESS";
+    public static final String SOURCE_SECURITY = "SECURITY";
+    
+    public static final String DIM_TOTAL = "TOTAL";
+    public static final String DIM_LEVEL = "LEVEL";
+    public static final String DIM_TYPE = "TYPE";
+    public static final String DIM_MODULE = "MODULE";
+    public static final String DIM_RESPONSE_CODE = "RESPONSE_CODE";
+    public static final String DIM_RISK_LEVEL = "RISK_LEVEL";
+    
+    private static final String WATERMARK_KEY = "log.rollup.watermark";
+    
+    private static final String MINUTE_BUCKET = "DATE_FORMAT(created_at, '%Y-%m-%d %H:%i:00') AS bucket_time";
+    private static final DateTimeFormatter BUCKET_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    
+    /**
+     * 不限开始时间时的查询起点
+     */
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private static final int INSERT_BATCH_SIZE = 500;
+    
+    @Autowired
+    private SystemLogMapper systemLogMapper;
+    
+    @Autowired
+    private AccessLogMapper accessLogMapper;
+    
+    @Autowired
+    private SecurityLogMapper securityLogMapper;
+    
+    @Autowired
+    private LogRollupMapper logRollupMapper;
+    
+    @Autowired
+    private LogConfigMapper logConfigMapper;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${log.rollup.enabled:true}")
+    private boolean enabled;
+    
+    /**
+     * 只汇总早于 当前时间-lag 的日志，给批量写入留出落库时间
+     */
+    @Value("${log.rollup.lag-seconds:120}")
+    private long lagSeconds;
+    
+    /**
+     * 每次最多推进的小时数，首次启动回填历史数据时分多次完成
+     */
+    @Value("${log.rollup.max-hours-per-run:24}")
+    private int maxHoursPerRun;
+    
+    @Value("${log.rollup.minute-retention-days:7}")
+    private int minuteRetentionDays;
+    
+    /**
+     * 已汇总到的时间（不含），之前的日志都已计入汇总表
+     */
+    private volatile LocalDateTime watermark;
+    
+    /**
+     * 水位线记录，只在汇总线程中读写
+     */
+    private LogConfig watermarkConfig;
+    
+    /**
+     * 汇总后又补写了日志的小时（溢出文件回灌、访问日志缓冲分段延迟导入等），下次汇总时整小时重算
+     */
+    private final Set<LocalDateTime> lateHours = new ConcurrentSkipListSet<>();
+    
+    /**
+     * 日志落库后调用：早于 当前时间-lag 的日志可能落在已汇总的区间，记下所在小时等待重算
+     */
+    public void onLogsWritten(Collection<LocalDateTime> createdAts) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(lagSeconds);
+        for (LocalDateTime createdAt : createdAts) {
+            if (createdAt != null && createdAt.isBefore(cutoff)) {
+                lateHours.add(createdAt.truncatedTo(ChronoUnit.HOURS));
+            }
+        }
+    }
+    
+    /**
+     * 先重算补写过日志的小时，再把水位线推进到 当前时间-lag，
+     * 每个小时内的分钟汇总、小时汇总和水位线在同一事务中更新
+     */
+    public synchronized void rollUp() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime target = LocalDateTime.now().minusSeconds(lagSeconds).truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime current = loadWatermark();
+        if (current != null) {
+            rollUpLateHours(current);
+        }
+        if (current == null) {
+            current = findEarliestLog(target);
+            logger.info("日志汇总从{}开始", current);
+        }
+        
+        LocalDateTime limit = min(target, current.plusHours(maxHoursPerRun));
+        long start = System.currentTimeMillis();
+        int hours = 0;
+        while (current.isBefore(limit)) {
+            LocalDateTime from = current;
+            LocalDateTime to = min(from.truncatedTo(ChronoUnit.HOURS).plusHours(1), limit);
+            transactionTemplate.executeWithoutResult(status -> {
+                rollUpRange(from, to);
+                saveWatermark(to);
+            });
+            watermark = to;
+            current = to;
+            hours++;
+        }
+        
+        // 保留水位线所在小时的分钟记录，重算该小时的小时汇总时要用到
+        LocalDateTime purgeBefore = min(LocalDateTime.now().minusDays(minuteRetentionDays).truncatedTo(ChronoUnit.HOURS),
+                                        current.truncatedTo(ChronoUnit.HOURS));
+        logRollupMapper.deleteBefore(TABLE_MINUTE, purgeBefore);
+        
+        if (hours > 1) {
+            logger.info("日志汇总推进{}个小时区间到{}，耗时{}ms", hours, current, System.currentTimeMillis() - start);
+        }
+    }
+    
+    /**
+     * 统计[start, end]内各类日志的数量，start/end为空时不限
+     */
+    public Map<String, Object> getStatistics(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime from = start != null ? start : EARLIEST;
+        LocalDateTime to = end != null ? end.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1) : LocalDateTime.now();
+        LocalDateTime rolledUpTo = enabled ? currentWatermark() : null;
+        
+        Counts counts = new Counts();
+        if (from.isBefore(to)) {
+            collect(counts, from, to, rolledUpTo);
+        }
+        
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("systemLogCount", counts.get(SOURCE_SYSTEM, DIM_TOTAL, ""));
+        statistics.put("accessLogCount", counts.get(SOURCE_ACCESS, DIM_TOTAL, ""));
+        statistics.put("securityLogCount", counts.get(SOURCE_SECURITY, DIM_TOTAL, ""));
+        statistics.put("errorLogCount", counts.get(SOURCE_SYSTEM, DIM_LEVEL, "ERROR"));
+        statistics.put("levelStats", counts.values(SOURCE_SYSTEM, DIM_LEVEL));
+        statistics.put("typeStats", counts.values(SOURCE_SYSTEM, DIM_TYPE));
+        statistics.put("moduleStats", counts.values(SOURCE_SYSTEM, DIM_MODULE));
+        statistics.put("responseCodeStats", counts.values(SOURCE_ACCESS, DIM_RESPONSE_CODE));
+        statistics.put("securityTypeStats", counts.values(SOURCE_SECURITY, DIM_TYPE));
+        statistics.put("riskLevelStats", counts.values(SOURCE_SECURITY, DIM_RISK_LEVEL));
+        statistics.put("rolledUpTo", rolledUpTo);
+        return statistics;
+    }
+    
+    /**
+     * 按区间拆分：水位线之前的整小时读小时汇总，首尾不足一小时的部分读分钟汇总，
+     * 不足一分钟的边角和水位线之后的部分查原始表
+     */
+    private void collect(Counts counts, LocalDateTime from, LocalDateTime to, LocalDateTime rolledUpTo) {
+        if (rolledUpTo == null) {
+            counts.addAll(aggregateRaw(from, to));
+            return;
+        }
+        LocalDateTime rollFrom = ceil(from, ChronoUnit.MINUTES);
+        LocalDateTime rollTo = min(to.truncatedTo(ChronoUnit.MINUTES), rolledUpTo);
+        if (!rollFrom.isBefore(rollTo)) {
+            counts.addAll(aggregateRaw(from, to));
+            return;
+        }
+        
+        if (from.isBefore(rollFrom)) {
+            counts.addAll(aggregateRaw(from, rollFrom));
+        }
+        LocalDateTime minuteFloor = minuteRetentionFloor();
+        LocalDateTime hourFrom = ceil(rollFrom, ChronoUnit.HOURS);
+        LocalDateTime hourTo = rollTo.truncatedTo(ChronoUnit.HOURS);
+        if (hourFrom.isBefore(hourTo)) {
+            sumMinutes(counts, rollFrom, hourFrom, minuteFloor);
+            sumRollups(counts, TABLE_HOUR, hourFrom, hourTo);
+            sumMinutes(counts, hourTo, rollTo, minuteFloor);
+        } else {
+            sumMinutes(counts, rollFrom, rollTo, minuteFloor);
+        }
+        if (rollTo.isBefore(to)) {
+            counts.addAll(aggregateRaw(rollTo, to));
+        }
+    }
+    
+    /**
+     * 读分钟汇总；分钟记录已清理的部分改读小时汇总，按整小时计入
+     */
+    private void sumMinutes(Counts counts, LocalDateTime from, LocalDateTime to, LocalDateTime minuteFloor) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (from.isBefore(minuteFloor)) {
+            LocalDateTime split = min(to, minuteFloor);
+            sumRollups(counts, TABLE_HOUR, from.truncatedTo(ChronoUnit.HOURS), ceil(split, ChronoUnit.HOURS));
+            from = ceil(split, ChronoUnit.HOURS);
+        }
+        sumRollups(counts, TABLE_MINUTE, from, to);
+    }
+    
+    /**
+     * 分钟汇总保证存在的最早时间，比清理边界多留一小时，避免查询与清理交错
+     */
+    private LocalDateTime minuteRetentionFloor() {
+        return LocalDateTime.now().minusDays(minuteRetentionDays).truncatedTo(ChronoUnit.HOURS).plusHours(1);
+    }
+    
+    private void sumRollups(Counts counts, String table, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        for (Map<String, Object> row : logRollupMapper.sumRange(table, from, to)) {
+            counts.add(String.valueOf(row.get("source")), String.valueOf(row.get("dimension")),
+                       String.valueOf(row.get("dim_value")), ((Number) row.get("cnt")).longValue());
+        }
+    }
+    
+    /**
+     * 重算水位线之前补写过日志的小时，水位线及之后的部分由正常推进汇总
+     * 先从集合中移除再重算，重算期间同一小时再有补写会重新加入，下次继续处理
+     */
+    private void rollUpLateHours(LocalDateTime current) {
+        int hours = 0;
+        Iterator<LocalDateTime> iterator = lateHours.iterator();
+        while (iterator.hasNext()) {
+            LocalDateTime hourStart = iterator.next();
+            iterator.remove();
+            if (!hourStart.isBefore(current)) {
+                continue;
+            }
+            LocalDateTime to = min(hourStart.plusHours(1), current);
+            try {
+                transactionTemplate.executeWithoutResult(status -> rollUpRange(hourStart, to));
+            } catch (RuntimeException e) {
+                lateHours.add(hourStart);
+                throw e;
+            }
+            hours++;
+        }
+        if (hours > 0) {
+            logger.info("重算{}个补写了日志的小时区间", hours);
+        }
+    }
+    
+    private void rollUpRange(LocalDateTime from, LocalDateTime to) {
+        List<LogRollup> rows = aggregateRaw(from, to);
+        logRollupMapper.deleteRange(TABLE_MINUTE, from, to);
+        for (int i = 0; i < rows.size(); i += INSERT_BATCH_SIZE) {
+            logRollupMapper.insertBatch(TABLE_MINUTE, rows.subList(i, Math.min(i + INSERT_BATCH_SIZE, rows.size())));
+        }
+        
+        LocalDateTime hourStart = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime hourEnd = hourStart.plusHours(1);
+        logRollupMapper.deleteRange(TABLE_HOUR, hourStart, hourEnd);
+        logRollupMapper.rollUpHours(hourStart, hourEnd);
+    }
+    
+    /**
+     * 按分钟分组统计原始日志，每个来源一次GROUP BY，展开为各维度的汇总行
+     */
+    private List<LogRollup> aggregateRaw(LocalDateTime from, LocalDateTime to) {
+        Map<String, LogRollup> rows = new LinkedHashMap<>();
+        
+        QueryWrapper<SystemLog> systemQuery = new QueryWrapper<>();
+        systemQuery.select(MINUTE_BUCKET, "log_level", "log_type", "module", "COUNT(*) AS cnt")
+                   .ge("created_at", from)
+                   .lt("created_at", to)
+                   .groupBy("bucket_time", "log_level", "log_type", "module");
+        for (Map<String, Object> row : systemLogMapper.selectMaps(systemQuery)) {
+            LocalDateTime bucket = parseBucket(row);
+            long count = ((Number) row.get("cnt")).longValue();
+            addRow(rows, bucket, SOURCE_SYSTEM, DIM_TOTAL, null, count);
+            addRow(rows, bucket, SOURCE_SYSTEM, DIM_LEVEL, row.get("log_level"), count);
+            addRow(rows, bucket, SOURCE_SYSTEM, DIM_TYPE, row.get("log_type"), count);
+            addRow(rows, bucket, SOURCE_SYSTEM, DIM_MODULE, row.get("module"), count);
+        }
+        
+        QueryWrapper<AccessLog> accessQuery = new QueryWrapper<>();
+        accessQuery.select(MINUTE_BUCKET, "response_code", "COUNT(*) AS cnt")
+                   .ge("created_at", from)
+                   .lt("created_at", to)
+                   .groupBy("bucket_time", "response_code");
+        for (Map<String, Object> row : accessLogMapper.selectMaps(accessQuery)) {
+            LocalDateTime bucket = parseBucket(row);
+            long count = ((Number) row.get("cnt")).longValue();
+            addRow(rows, bucket, SOURCE_ACCESS, DIM_TOTAL, null, count);
+            addRow(rows, bucket, SOURCE_ACCESS, DIM_RESPONSE_CODE, row.get("response_code"), count);
+        }
+        
+        QueryWrapper<SecurityLog> securityQuery = new QueryWrapper<>();
+        securityQuery.select(MINUTE_BUCKET, "log_type", "risk_level", "COUNT(*) AS cnt")
+                     .ge("created_at", from)
+                     .lt("created_at", to)
+                     .groupBy("bucket_time", "log_type", "risk_level");
+        for (Map<String, Object> row : securityLogMapper.selectMaps(securityQuery)) {
+            LocalDateTime bucket = parseBucket(row);
+            long count = ((Number) row.get("cnt")).longValue();
+            addRow(rows, bucket, SOURCE_SECURITY, DIM_TOTAL, null, count);
+            addRow(rows, bucket, SOURCE_SECURITY, DIM_TYPE, row.get("log_type"), count);
+            addRow(rows, bucket, SOURCE_SECURITY, DIM_RISK_LEVEL, row.get("risk_level"), count);
+        }
+        
+        return new ArrayList<>(rows.values());
+    }
+    
+    private void addRow(Map<String, LogRollup> rows, LocalDateTime bucket, String source, String dimension,
+                        Object value, long count) {
+        String dimValue = value != null ? String.valueOf(value) : "";
+        LogRollup row = rows.computeIfAbsent(bucket + "|" + source + "|" + dimension + "|" + dimValue, k -> {
+            LogRollup created = new LogRollup();
+            created.setBucketStart(bucket);
+            created.setSource(source);
+            created.setDimension(dimension);
+            created.setDimValue(dimValue);
+            created.setLogCount(0L);
+            return created;
+        });
+        row.setLogCount(row.getLogCount() + count);
+    }
+    
+    private LocalDateTime parseBucket(Map<String, Object> row) {
+        return LocalDateTime.parse(String.valueOf(row.get("bucket_time")), BUCKET_FORMATTER);
+    }
+    
+    /**
+     * 首次汇总从最早的一条日志开始
+     */
+    private LocalDateTime findEarliestLog(LocalDateTime fallback) {
+        LocalDateTime earliest = fallback;
+        for (BaseMapper<?> mapper : List.of(systemLogMapper, accessLogMapper, securityLogMapper)) {
+            LocalDateTime first = findFirstBucket(mapper);
+            if (first != null && first.isBefore(earliest)) {
+                earliest = first;
+            }
+        }
+        return earliest;
+    }
+    
+    private <T> LocalDateTime findFirstBucket(BaseMapper<T> mapper) {
+        QueryWrapper<T> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("DATE_FORMAT(MIN(created_at), '%Y-%m-%d %H:%i:00') AS bucket_time");
+        List<Object> values = mapper.selectObjs(queryWrapper);
+        if (values == null || values.isEmpty() || values.get(0) == null) {
+            return null;
+        }
+        return LocalDateTime.parse(String.valueOf(values.get(0)), BUCKET_FORMATTER);
+    }
+    
+    private LocalDateTime currentWatermark() {
+        if (watermark == null) {
+            synchronized (this) {
+                loadWatermark();
+            }
+        }
+        return watermark;
+    }
+    
+    private LocalDateTime loadWatermark() {
+        if (watermarkConfig == null) {
+            watermarkConfig = logConfigMapper.selectOne(new QueryWrapper<LogConfig>().eq("config_key", WATERMARK_KEY));
+            if (watermarkConfig != null) {
+                watermark = LocalDateTime.parse(watermarkConfig.getConfigValue());
+            }
+        }
+        return watermark;
+    }
+    
+    private void saveWatermark(LocalDateTime value) {
+        if (watermarkConfig == null) {
+            LogConfig config = new LogConfig();
+            config.setConfigKey(WATERMARK_KEY);
+            config.setConfigValue(value.toString());
+            config.setDescription("日志统计已汇总到的时间");
+            config.setIsActive(true);
+            logConfigMapper.insert(config);
+            watermarkConfig = config;
+        } else {
+            watermarkConfig.setConfigValue(value.toString());
+            logConfigMapper.updateById(watermarkConfig);
+        }
+    }
+    
+    private static LocalDateTime ceil(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime floor = time.truncatedTo(unit);
+        return floor.equals(time) ? floor : floor.plus(1, unit);
+    }
+    
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+    
+    /**
+     * 来源:维度 -> 取值 -> 条数
+     */
+    private static class Counts {
+        private final Map<String, Map<String, Long>> counts = new LinkedHashMap<>();
+        
+        void add(String source, String dimension, String value, long count) {
+            counts.computeIfAbsent(source + ":" + dimension, k -> new TreeMap<>()).merge(value, count, Long::sum);
+        }
+        
+        void addAll(List<LogRollup> rows) {
+            for (LogRollup row : rows) {
+                add(row.getSource(), row.getDimension(), row.getDimValue(), row.getLogCount());
+            }
+        }
+        
+        long get(String source, String dimension, String value) {
+            return values(source, dimension).getOrDefault(value, 0L);
+        }
+        
+        Map<String, Long> values(String source, String dimension) {
+            return counts.getOrDefault(source + ":" + dimension, new TreeMap<>());
+        }
+    }
+}
@@ -4,17 +4,16 @@ import cn.lazylhxzzy.resume_commit.entity.AccessLog;
 import cn.lazylhxzzy.resume_commit.entity.PerformanceLog;
 import cn.lazylhxzzy.resume_commit.entity.SecurityLog;
 import cn.lazylhxzzy.resume_commit.entity.SystemLog;
-import cn.lazylhxzzy.resume_commit.mapper.AccessLogMapper;
-import cn.lazylhxzzy.resume_commit.mapper.PerformanceLogMapper;
-import cn.lazylhxzzy.resume_commit.mapper.SecurityLogMapper;
-import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
+import cn.lazylhxzzy.resume_commit.service.LogAlertService;
 import cn.lazylhxzzy.resume_commit.service.LogService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -23,6 +22,7 @@ import java.util.Map;
 
 /**
  * 日志服务实现类
+ * 数据库日志经LogBatchWriter异步批量写入，调用方只承担入队开销
  */
 @Service
 public class LogServiceImpl implements LogService {
@@ -32,20 +32,26 @@ public class LogServiceImpl implements LogService {
     private static final Logger securityLogger = LoggerFactory.getLogger("SECURITY_LOG");
     private static final Logger performanceLogger = LoggerFactory.getLogger("PERFORMANCE_LOG");
     
+    /**
+     * 执行时间超过该值的性能日志同时记一条WARN系统日志
+     */
+    private static final long SLOW_EXECUTION_MILLIS = 1000;
+    
     @Autowired
-    private SystemLogMapper systemLogMapper;
+    private LogBatchWriter logBatchWriter;
     
     @Autowired
-    private AccessLogMapper accessLogMapper;
+    private AccessLogSpool accessLogSpool;
     
     @Autowired
-    private SecurityLogMapper securityLogMapper;
+    private ObjectMapper objectMapper;
     
     @Autowired
-    private PerformanceLogMapper performanceLogMapper;
+    private LogAlertService logAlertService;
     
     @Autowired
-    private ObjectMapper objectMapper;
+    @Qualifier("logExecutor")
+    private ThreadPoolTaskExecutor logExecutor;
     
     @Override
     public void logSystem(String level, String type, String module, String operation,
@@ -54,31 +60,11 @@ public class LogServiceImpl implements LogService {
                          Integer responseCode, Long responseTime, String errorCode,
                          String errorMessage, String stackTrace, Map<String, Object> extraData) {
         try {
-            SystemLog systemLog = new SystemLog();
-            systemLog.setLogLevel(level);
-            systemLog.setLogType(type);
-            systemLog.setModule(module);
-            systemLog.setOperation(operation);
-            systemLog.setUserId(userId);
-            systemLog.setUsername(username);
-            systemLog.setIpAddress(ipAddress);
-            systemLog.setUserAgent(userAgent);
-            systemLog.setRequestMethod(requestMethod);
-            systemLog.setRequestUrl(requestUrl);
-            systemLog.setRequestParams(requestParams);
-            systemLog.setResponseCode(responseCode);
-            systemLog.setResponseTime(responseTime);
-            systemLog.setErrorCode(errorCode);
-            systemLog.setErrorMessage(errorMessage);
-            systemLog.setStackTrace(stackTrace);
-            systemLog.setExtraData(convertToJson(extraData));
-            systemLog.setCreatedAt(LocalDateTime.now());
-            
-            systemLogMapper.insert(systemLog);
-            
-            // 同时写入文件日志
-            logger.info("系统日志记录成功: {} - {} - {}", module, operation, errorMessage);
-            
+            SystemLog systemLog = buildSystemLog(level, type, module, operation, userId, username, ipAddress,
+                                                 userAgent, requestMethod, requestUrl, requestParams, responseCode,
+                                                 responseTime, errorCode, errorMessage, stackTrace);
+            logAlertService.onSystemLog(systemLog);
+            writeSystemLog(systemLog, extraData);
         } catch (Exception e) {
             logger.error("记录系统日志失败", e);
         }
@@ -106,7 +92,12 @@ public class LogServiceImpl implements LogService {
             accessLog.setSessionId(sessionId);
             accessLog.setCreatedAt(LocalDateTime.now());
             
-            accessLogMapper.insert(accessLog);
+            // 启用缓冲文件时只追加到本地分段，由后台线程批量导入
+            if (accessLogSpool.isEnabled()) {
+                accessLogSpool.append(accessLog);
+            } else {
+                logBatchWriter.add(accessLog);
+            }
             
             // 同时写入文件日志
             accessLogger.info("访问日志记录成功: {} {} - {} - {}ms", requestMethod, requestUrl, responseCode, responseTime);
@@ -132,7 +123,7 @@ public class LogServiceImpl implements LogService {
             securityLog.setAdditionalData(convertToJson(additionalData));
             securityLog.setCreatedAt(LocalDateTime.now());
             
-            securityLogMapper.insert(securityLog);
+            logBatchWriter.add(securityLog);
             
             // 同时写入文件日志
             securityLogger.warn("安全日志记录成功: {} - {} - {}", logType, eventDescription, riskLevel);
@@ -160,6 +151,125 @@ public class LogServiceImpl implements LogService {
     @Override
     public void logPerformance(String module, String methodName, Long executionTime,
                               Long memoryUsage, Double cpuUsage, Map<String, Object> metrics) {
+        writePerformanceLog(module, methodName, executionTime, memoryUsage, cpuUsage, metrics);
+        
+        // 如果执行时间超过阈值，同时记录到系统日志
+        if (executionTime > SLOW_EXECUTION_MILLIS) {
+            logSystem("WARN", "PERFORMANCE", module, methodName, null, null, null, null,
+                     null, null, null, null, executionTime, null, null, null, metrics);
+        }
+    }
+    
+    /**
+     * 异步的系统日志由logExecutor写入，告警计数在调用线程更新，
+     * 日志线程池满时丢弃的只是写入任务，告警窗口不会少计
+     */
+    @Override
+    public void logSystemAsync(String level, String type, String module, String operation,
+                              Long userId, String username, String ipAddress, String userAgent,
+                              String requestMethod, String requestUrl, String requestParams,
+                              Integer responseCode, Long responseTime, String errorCode,
+                              String errorMessage, String stackTrace, Map<String, Object> extraData) {
+        try {
+            SystemLog systemLog = buildSystemLog(level, type, module, operation, userId, username, ipAddress,
+                                                 userAgent, requestMethod, requestUrl, requestParams, responseCode,
+                                                 responseTime, errorCode, errorMessage, stackTrace);
+            logAlertService.onSystemLog(systemLog);
+            logExecutor.execute(() -> writeSystemLog(systemLog, extraData));
+        } catch (Exception e) {
+            logger.error("记录系统日志失败", e);
+        }
+    }
+    
+    @Override
+    @Async("logExecutor")
+    public void logAccessAsync(Long userId, String username, String ipAddress, String userAgent,
+                              String requestMethod, String requestUrl, String requestParams,
+                              Integer responseCode, Long responseTime, Long requestSize,
+                              Long responseSize, String referer, String sessionId) {
+        logAccess(userId, username, ipAddress, userAgent, requestMethod, requestUrl, requestParams,
+                 responseCode, responseTime, requestSize, responseSize, referer, sessionId);
+    }
+    
+    @Override
+    @Async("logExecutor")
+    public void logSecurityAsync(String logType, Long userId, String username, String ipAddress,
+                                 String userAgent, String eventDescription, String riskLevel,
+                                 Map<String, Object> additionalData) {
+        logSecurity(logType, userId, username, ipAddress, userAgent, eventDescription, riskLevel, additionalData);
+    }
+    
+    @Override
+    public void logBusinessAsync(String operation, Long userId, String username, String ipAddress,
+                                 Map<String, Object> businessData) {
+        logSystemAsync("INFO", "BUSINESS", "BUSINESS", operation, userId, username, ipAddress, null,
+                      null, null, null, null, null, null, null, null, businessData);
+    }
+    
+    @Override
+    public void logErrorAsync(String module, String operation, Long userId, String username,
+                              String ipAddress, String errorCode, String errorMessage,
+                              String stackTrace, Map<String, Object> extraData) {
+        logSystemAsync("ERROR", "ERROR", module, operation, userId, username, ipAddress, null,
+                      null, null, null, null, null, errorCode, errorMessage, stackTrace, extraData);
+    }
+    
+    @Override
+    public void logPerformanceAsync(String module, String methodName, Long executionTime,
+                                    Long memoryUsage, Double cpuUsage, Map<String, Object> metrics) {
+        logExecutor.execute(() -> writePerformanceLog(module, methodName, executionTime, memoryUsage, cpuUsage, metrics));
+        
+        if (executionTime > SLOW_EXECUTION_MILLIS) {
+            logSystemAsync("WARN", "PERFORMANCE", module, methodName, null, null, null, null,
+                          null, null, null, null, executionTime, null, null, null, metrics);
+        }
+    }
+    
+    private SystemLog buildSystemLog(String level, String type, String module, String operation,
+                                     Long userId, String username, String ipAddress, String userAgent,
+                                     String requestMethod, String requestUrl, String requestParams,
+                                     Integer responseCode, Long responseTime, String errorCode,
+                                     String errorMessage, String stackTrace) {
+        SystemLog systemLog = new SystemLog();
+        systemLog.setLogLevel(level);
+        systemLog.setLogType(type);
+        systemLog.setModule(module);
+        systemLog.setOperation(operation);
+        systemLog.setUserId(userId);
+        systemLog.setUsername(username);
+        systemLog.setIpAddress(ipAddress);
+        systemLog.setUserAgent(userAgent);
+        systemLog.setRequestMethod(requestMethod);
+        systemLog.setRequestUrl(requestUrl);
+        systemLog.setRequestParams(requestParams);
+        systemLog.setResponseCode(responseCode);
+        systemLog.setResponseTime(responseTime);
+        systemLog.setErrorCode(errorCode);
+        systemLog.setErrorMessage(errorMessage);
+        systemLog.setStackTrace(stackTrace);
+        systemLog.setCreatedAt(LocalDateTime.now());
+        return systemLog;
+    }
+    
+    /**
+     * 序列化附加数据后交给写缓冲，并写入文件日志
+     */
+    private void writeSystemLog(SystemLog systemLog, Map<String, Object> extraData) {
+        try {
+            systemLog.setExtraData(convertToJson(extraData));
+            logBatchWriter.add(systemLog);
+            
+            // 同时写入文件日志
+            logger.info("系统日志记录成功: {} - {} - {}", systemLog.getModule(), systemLog.getOperation(),
+                       systemLog.getErrorMessage());
+            
+        } catch (Exception e) {
+            logger.error("记录系统日志失败", e);
+        }
+    }
+    
+    private void writePerformanceLog(String module, String methodName, Long executionTime,
+                                     Long memoryUsage, Double cpuUsage, Map<String, Object> metrics) {
         try {
             // 记录到性能日志文件
             performanceLogger.info("性能监控: {} - {} - {}ms - {}MB - {}%", 
@@ -178,42 +288,14 @@ public class LogServiceImpl implements LogService {
             performanceLog.setAdditionalMetrics(convertToJson(metrics));
             performanceLog.setCreatedAt(LocalDateTime.now());
             
-            // 保存到数据库
-            performanceLogMapper.insert(performanceLog);
-            
-            // 如果执行时间超过阈值，同时记录到系统日志
-            if (executionTime > 1000) { // 超过1秒
-                logSystem("WARN", "PERFORMANCE", module, methodName, null, null, null, null,
-                         null, null, null, null, executionTime, null, null, null, metrics);
-            }
+            // 交给写缓冲批量保存到数据库
+            logBatchWriter.add(performanceLog);
             
         } catch (Exception e) {
             logger.error("记录性能日志失败", e);
         }
     }
     
-    @Override
-    @Async
-    public void logSystemAsync(String level, String type, String module, String operation,
-                              Long userId, String username, String ipAddress, String userAgent,
-                              String requestMethod, String requestUrl, String requestParams,
-                              Integer responseCode, Long responseTime, String errorCode,
-                              String errorMessage, String stackTrace, Map<String, Object> extraData) {
-        logSystem(level, type, module, operation, userId, username, ipAddress, userAgent,
-                 requestMethod, requestUrl, requestParams, responseCode, responseTime,
-                 errorCode, errorMessage, stackTrace, extraData);
-    }
-    
-    @Override
-    @Async
-    public void logAccessAsync(Long userId, String username, String ipAddress, String userAgent,
-                              String requestMethod, String requestUrl, String requestParams,
-                              Integer responseCode, Long responseTime, Long requestSize,
-                              Long responseSize, String referer, String sessionId) {
-        logAccess(userId, username, ipAddress, userAgent, requestMethod, requestUrl, requestParams,
-                 responseCode, responseTime, requestSize, responseSize, referer, sessionId);
-    }
-    
     /**
      * 将Map转换为JSON字符串
      */
@@ -0,0 +1,216 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.PerformanceLog;
+import cn.lazylhxzzy.resume_commit.util.LatencyHistogram;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 方法耗时统计
+ * 按层（CONTROLLER/SERVICE/MAPPER）和方法维护内存直方图，定期把每个方法的汇总结果写入performance_logs
+ * 同时以app.method.duration计时器和app.method.errors计数器发布到Micrometer，供/actuator/prometheus抓取
+ */
+@Component
+public class PerformanceMetrics {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceMetrics.class);
+    
+    private static final String OVERFLOW_METHOD = "OTHER";
+    
+    @Autowired
+    private LogBatchWriter logBatchWriter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${performance.metrics.max-methods:1000}")
+    private int maxMethods;
+    
+    @Value("${performance.metrics.flush-interval-ms:60000}")
+    private long flushIntervalMs;
+    
+    /**
+     * 目标类 -> 方法 -> 统计，两级查找避免每次调用拼接字符串键
+     */
+    private final Map<Class<?>, Map<Method, MethodMetrics>> metricsByClass = new ConcurrentHashMap<>();
+    
+    private final Map<String, MethodMetrics> overflowByLayer = new ConcurrentHashMap<>();
+    
+    private final AtomicInteger methodCount = new AtomicInteger();
+    
+    /**
+     * 获取方法对应的统计对象，超过方法数上限后并入该层的OTHER
+     */
+    public MethodMetrics get(String layer, Class<?> targetClass, Method method) {
+        Map<Method, MethodMetrics> methods = metricsByClass.computeIfAbsent(targetClass, c -> new ConcurrentHashMap<>());
+        MethodMetrics metrics = methods.get(method);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (methodCount.get() >= maxMethods) {
+            return overflowByLayer.computeIfAbsent(layer, l -> new MethodMetrics(l, l, OVERFLOW_METHOD, meterRegistry));
+        }
+        return methods.computeIfAbsent(method, m -> {
+            methodCount.incrementAndGet();
+            return new MethodMetrics(layer, resolveModule(targetClass), m.getName(), meterRegistry);
+        });
+    }
+    
+    /**
+     * 当前周期内各方法的统计，按p99倒序
+     */
+    public List<Map<String, Object>> currentSnapshots() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (MethodMetrics metrics : allMetrics()) {
+            LatencyHistogram.Snapshot snapshot = metrics.histogram.snapshot();
+            if (snapshot.getCount() > 0) {
+                result.add(toMap(metrics, snapshot));
+            }
+        }
+        result.sort(Comparator.comparingDouble((Map<String, Object> m) -> (Double) m.get("p99_ms")).reversed());
+        return result;
+    }
+    
+    /**
+     * 每个周期把有调用的方法汇总成一行写入performance_logs
+     * execution_time取p99（毫秒），完整分位数写在additional_metrics中
+     */
+    @Scheduled(fixedRateString = "${performance.metrics.flush-interval-ms:60000}",
+               initialDelayString = "${performance.metrics.flush-interval-ms:60000}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        int threadCount = Thread.activeCount();
+        int rows = 0;
+        for (MethodMetrics metrics : allMetrics()) {
+            LatencyHistogram.Snapshot snapshot = metrics.histogram.snapshotAndReset();
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+            try {
+                Map<String, Object> values = toMap(metrics, snapshot);
+                values.put("aggregated", true);
+                values.put("interval_seconds", flushIntervalMs / 1000);
+                
+                PerformanceLog performanceLog = new PerformanceLog();
+                performanceLog.setModule(metrics.module);
+                performanceLog.setMethodName(metrics.methodName);
+                performanceLog.setExecutionTime((long) Math.ceil(snapshot.percentile(0.99) / 1000.0));
+                performanceLog.setThreadCount(threadCount);
+                performanceLog.setAdditionalMetrics(objectMapper.writeValueAsString(values));
+                performanceLog.setCreatedAt(now);
+                logBatchWriter.add(performanceLog);
+                rows++;
+            } catch (Exception e) {
+                logger.error("汇总性能数据失败: {}.{}", metrics.module, metrics.methodName, e);
+            }
+        }
+        if (rows > 0) {
+            logger.debug("写入{}条性能汇总数据", rows);
+        }
+    }
+    
+    private List<MethodMetrics> allMetrics() {
+        List<MethodMetrics> all = new ArrayList<>();
+        for (Map<Method, MethodMetrics> methods : metricsByClass.values()) {
+            all.addAll(methods.values());
+        }
+        all.addAll(overflowByLayer.values());
+        return all;
+    }
+    
+    private Map<String, Object> toMap(MethodMetrics metrics, LatencyHistogram.Snapshot snapshot) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("layer", metrics.layer);
+        values.put("module", metrics.module);
+        values.put("method", metrics.methodName);
+        values.put("count", snapshot.getCount());
+        values.put("error_count", snapshot.getErrorCount());
+        values.put("mean_ms", round(snapshot.getMeanMicros()));
+        values.put("p50_ms", round(snapshot.percentile(0.50)));
+        values.put("p95_ms", round(snapshot.percentile(0.95)));
+        values.put("p99_ms", round(snapshot.percentile(0.99)));
+        values.put("max_ms", round(snapshot.getMaxMicros()));
+        return values;
+    }
+    
+    private double round(double micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+    
+    /**
+     * 模块名：Mapper是JDK代理，取其实现的Mapper接口名
+     */
+    private String resolveModule(Class<?> targetClass) {
+        String className = targetClass.getSimpleName();
+        if (Proxy.isProxyClass(targetClass) && targetClass.getInterfaces().length > 0) {
+            className = targetClass.getInterfaces()[0].getSimpleName();
+        }
+        return className.replace("Controller", "").replace("ServiceImpl", "").replace("Mapper", "");
+    }
+    
+    /**
+     * 单个方法的统计
+     */
+    public static class MethodMetrics {
+        
+        private final String layer;
+        private final String module;
+        private final String methodName;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Timer timer;
+        private final Counter errorCounter;
+        
+        MethodMetrics(String layer, String module, String methodName, MeterRegistry registry) {
+            this.layer = layer;
+            this.module = module;
+            this.methodName = methodName;
+            this.timer = Timer.builder("app.method.duration")
+                    .description("方法执行耗时")
+                    .tags("layer", layer, "module", module, "method", methodName)
+                    .register(registry);
+            this.errorCounter = Counter.builder("app.method.errors")
+                    .description("方法抛出异常的次数")
+                    .tags("layer", layer, "module", module, "method", methodName)
+                    .register(registry);
+        }
+        
+        public void record(long micros, boolean error) {
+            histogram.record(micros, error);
+            timer.record(micros, TimeUnit.MICROSECONDS);
+            if (error) {
+                errorCounter.increment();
+            }
+        }
+        
+        public String getModule() {
+            return module;
+        }
+        
+        public String getMethodName() {
+            return methodName;
+        }
+    }
+}
@@ -2,7 +2,9 @@ package cn.lazylhxzzy.resume_commit.service.impl;
 
 import cn.lazylhxzzy.resume_commit.annotation.BusinessLog;
 import cn.lazylhxzzy.resume_commit.dto.InterviewRecordDTO;
+import cn.lazylhxzzy.resume_commit.dto.JobProgress;
 import cn.lazylhxzzy.resume_commit.dto.ResumeRecordDTO;
+import cn.lazylhxzzy.resume_commit.dto.ResumeRecordQuery;
 import cn.lazylhxzzy.resume_commit.entity.InterviewRecord;
 import cn.lazylhxzzy.resume_commit.entity.ResumeRecord;
 import cn.lazylhxzzy.resume_commit.mapper.InterviewRecordMapper;
@@ -13,15 +15,19 @@ import cn.lazylhxzzy.resume_commit.util.ExcelImportUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.baomidou.mybatisplus.extension.toolkit.Db;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 
 /**
  * 投递记录服务实现类
@@ -29,12 +35,45 @@ import java.io.InputStream;
 @Service
 public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, ResumeRecord> implements ResumeRecordService {
     
+    /**
+     * 批量查询面试记录时每次IN查询的最大ID数量
+     */
+    private static final int INTERVIEW_QUERY_BATCH_SIZE = 1000;
+    
+    /**
+     * 游标分页默认和最大每页大小
+     */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    /**
+     * 导出时每批读取的记录数
+     */
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    
+    /**
+     * 导入时每批插入的记录数，以及IN查询的最大参数数量
+     */
+    private static final int IMPORT_BATCH_SIZE = 500;
+    
+    /**
+     * 导入结果中返回的行级错误明细上限
+     */
+    private static final int MAX_IMPORT_ERRORS = 100;
+    
+    // 与resume_records表的ENUM列保持一致
+    private static final Set<String> CURRENT_STATUS_VALUES = Set.of("已投递", "已测评", "已笔试", "已面试");
+    private static final Set<String> FINAL_RESULT_VALUES = Set.of("简历挂", "测评挂", "笔试挂", "面试挂", "OC", "PENDING");
+    
     @Autowired
     private ResumeRecordMapper resumeRecordMapper;
     
     @Autowired
     private InterviewRecordMapper interviewRecordMapper;
     
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
     @Override
     public List<ResumeRecordDTO> getUserRecords(Long userId) {
         QueryWrapper<ResumeRecord> queryWrapper = new QueryWrapper<>();
@@ -50,10 +89,8 @@ public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, Res
         }
         
         
-        // 转换为DTO
-        return records.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // 转换为DTO（面试记录批量加载）
+        return convertToDTOs(records);
     }
     
     @Override
@@ -70,10 +107,111 @@ public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, Res
         }
         
         
-        // 转换为DTO
-        return records.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        // 转换为DTO（面试记录批量加载）
+        return convertToDTOs(records);
+    }
+    
+    @Override
+    public Map<String, Object> getRecordPage(ResumeRecordQuery query) {
+        int size = query.getSize() == null || query.getSize() <= 0
+                ? DEFAULT_PAGE_SIZE : Math.min(query.getSize(), MAX_PAGE_SIZE);
+        
+        QueryWrapper<ResumeRecord> queryWrapper = new QueryWrapper<>();
+        if (query.getUserId() != null) {
+            queryWrapper.eq("user_id", query.getUserId());
+        }
+        if (query.getCompanyName() != null && !query.getCompanyName().isBlank()) {
+            queryWrapper.likeRight("company_name", query.getCompanyName().trim());
+        }
+        if (query.getCurrentStatus() != null && !query.getCurrentStatus().isBlank()) {
+            queryWrapper.eq("current_status", query.getCurrentStatus());
+        }
+        if (query.getFinalResult() != null && !query.getFinalResult().isBlank()) {
+            queryWrapper.eq("final_result", query.getFinalResult());
+        }
+        if (query.getApplyStart() != null) {
+            queryWrapper.ge("apply_time", query.getApplyStart());
+        }
+        if (query.getApplyEnd() != null) {
+            queryWrapper.le("apply_time", query.getApplyEnd());
+        }
+        
+        // 游标条件：(updated_at, id) < (cursorUpdatedAt, cursorId)，updated_at为NOT NULL列，比较不会漏掉记录
+        if (query.getCursorUpdatedAt() != null && query.getCursorId() != null) {
+            LocalDateTime cursorUpdatedAt = query.getCursorUpdatedAt();
+            Long cursorId = query.getCursorId();
+            queryWrapper.and(w -> w.lt("updated_at", cursorUpdatedAt)
+                    .or(o -> o.eq("updated_at", cursorUpdatedAt).lt("id", cursorId)));
+        }
+        
+        // 多取一条用于判断是否还有下一页
+        queryWrapper.orderByDesc("updated_at", "id")
+                   .last("LIMIT " + (size + 1));
+        
+        List<ResumeRecord> records = resumeRecordMapper.selectList(queryWrapper);
+        boolean hasMore = records.size() > size;
+        if (hasMore) {
+            records = records.subList(0, size);
+        }
+        
+        for (ResumeRecord record : records) {
+            if (record.getCompanyGroupId() == null) {
+                record.setCompanyGroupId(generateGroupId(record.getUserId(), record.getCompanyName()));
+            }
+        }
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("records", convertToDTOs(records));
+        result.put("size", size);
+        result.put("hasMore", hasMore);
+        if (hasMore) {
+            ResumeRecord last = records.get(records.size() - 1);
+            result.put("nextCursor", last.getUpdatedAt() + "," + last.getId());
+        }
+        return result;
+    }
+    
+    @Override
+    public List<ResumeRecordDTO> getUserRecordGroups(Long userId) {
+        QueryWrapper<ResumeRecord> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", userId);
+        return buildCompanyGroups(queryWrapper);
+    }
+    
+    @Override
+    public List<ResumeRecordDTO> getAllRecordGroups() {
+        return buildCompanyGroups(new QueryWrapper<>());
+    }
+    
+    /**
+     * 按公司分组构建DTO：一次按分组排序的记录查询 + 一次批量面试记录查询
+     */
+    private List<ResumeRecordDTO> buildCompanyGroups(QueryWrapper<ResumeRecord> queryWrapper) {
+        queryWrapper.orderByAsc("user_id", "company_group_id")
+                   .orderByDesc("is_primary")
+                   .orderByAsc("id");
+        List<ResumeRecord> records = resumeRecordMapper.selectList(queryWrapper);
+        if (records.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // 没有company_group_id的历史记录按用户+公司名称归组
+        Map<String, List<ResumeRecord>> groups = new LinkedHashMap<>();
+        for (ResumeRecord record : records) {
+            String groupKey = record.getCompanyGroupId() != null
+                    ? record.getCompanyGroupId()
+                    : record.getUserId() + "_" + record.getCompanyName();
+            groups.computeIfAbsent(groupKey, k -> new ArrayList<>()).add(record);
+        }
+        
+        Map<Long, List<InterviewRecordDTO>> interviewMap = loadInterviewsByRecordIds(
+                records.stream().map(ResumeRecord::getId).collect(Collectors.toList()));
+        
+        List<ResumeRecordDTO> result = new ArrayList<>(groups.size());
+        for (List<ResumeRecord> companyRecords : groups.values()) {
+            result.add(createCompanyGroupDTO(companyRecords, interviewMap));
+        }
+        return result;
     }
     
     @Override
@@ -296,26 +434,52 @@ public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, Res
     }
     
     @Override
-    public byte[] exportUserRecords(Long userId) {
+    public void exportUserRecords(Long userId, OutputStream outputStream, JobProgress progress) {
         try {
-            List<ResumeRecordDTO> records = getUserRecords(userId);
-            return ExcelUtil.exportResumeRecords(records);
+            exportRecords(userId, outputStream, progress);
         } catch (Exception e) {
             throw new RuntimeException("导出用户数据失败", e);
         }
     }
     
     @Override
-    public byte[] exportAllRecords() {
+    public void exportAllRecords(OutputStream outputStream, JobProgress progress) {
         try {
-            List<ResumeRecordDTO> records = getAllRecords();
-            return ExcelUtil.exportResumeRecords(records);
+            exportRecords(null, outputStream, progress);
         } catch (Exception e) {
             throw new RuntimeException("导出所有数据失败", e);
         }
     }
     
-    
+    /**
+     * 按主键分批读取记录并流式写入Excel，内存占用与总记录数无关
+     * userId为null时导出所有用户的记录
+     */
+    private void exportRecords(Long userId, OutputStream outputStream, JobProgress progress) throws IOException {
+        try (ExcelUtil.StreamingExportWriter writer = new ExcelUtil.StreamingExportWriter()) {
+            Long lastId = 0L;
+            while (true) {
+                QueryWrapper<ResumeRecord> queryWrapper = new QueryWrapper<>();
+                queryWrapper.eq(userId != null, "user_id", userId)
+                           .gt("id", lastId)
+                           .orderByAsc("id")
+                           .last("LIMIT " + EXPORT_BATCH_SIZE);
+                List<ResumeRecord> records = resumeRecordMapper.selectList(queryWrapper);
+                if (records.isEmpty()) {
+                    break;
+                }
+                
+                writer.writeRecords(convertToDTOs(records));
+                progress.getExported().addAndGet(records.size());
+                lastId = records.get(records.size() - 1).getId();
+                
+                if (records.size() < EXPORT_BATCH_SIZE) {
+                    break;
+                }
+            }
+            writer.finish(outputStream);
+        }
+    }
     
     /**
      * 计算泡池时间
@@ -399,29 +563,66 @@ public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, Res
         
         List<ResumeRecord> records = resumeRecordMapper.selectList(queryWrapper);
         
-        // 转换为DTO
-        return records.stream()
-                .map(this::convertToDTO)
+        // 转换为DTO（面试记录批量加载）
+        return convertToDTOs(records);
+    }
+    
+    /**
+     * 批量将ResumeRecord转换为ResumeRecordDTO
+     * 面试记录按resume_record_id分块批量查询，避免每条记录单独查询一次
+     */
+    private List<ResumeRecordDTO> convertToDTOs(List<ResumeRecord> records) {
+        if (records.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> recordIds = records.stream()
+                .map(ResumeRecord::getId)
                 .collect(Collectors.toList());
+        Map<Long, List<InterviewRecordDTO>> interviewMap = loadInterviewsByRecordIds(recordIds);
+        
+        List<ResumeRecordDTO> result = new ArrayList<>(records.size());
+        for (ResumeRecord record : records) {
+            List<InterviewRecordDTO> interviewDTOs = interviewMap.getOrDefault(record.getId(), new ArrayList<>());
+            result.add(convertToDTO(record, interviewDTOs));
+        }
+        return result;
     }
     
     /**
-     * 将ResumeRecord转换为ResumeRecordDTO
+     * 批量加载面试记录，按投递记录ID分组（每组内按面试时间升序）
      */
-    private ResumeRecordDTO convertToDTO(ResumeRecord record) {
+    private Map<Long, List<InterviewRecordDTO>> loadInterviewsByRecordIds(Collection<Long> recordIds) {
+        Map<Long, List<InterviewRecordDTO>> interviewMap = new HashMap<>();
+        if (recordIds == null || recordIds.isEmpty()) {
+            return interviewMap;
+        }
+        
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(recordIds));
+        for (int from = 0; from < ids.size(); from += INTERVIEW_QUERY_BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + INTERVIEW_QUERY_BATCH_SIZE, ids.size()));
+            
+            QueryWrapper<InterviewRecord> interviewWrapper = new QueryWrapper<>();
+            interviewWrapper.in("resume_record_id", chunk)
+                           .orderByAsc("interview_time");
+            List<InterviewRecord> interviews = interviewRecordMapper.selectList(interviewWrapper);
+            
+            for (InterviewRecord interview : interviews) {
+                InterviewRecordDTO interviewDTO = new InterviewRecordDTO();
+                BeanUtils.copyProperties(interview, interviewDTO);
+                interviewMap.computeIfAbsent(interview.getResumeRecordId(), k -> new ArrayList<>())
+                           .add(interviewDTO);
+            }
+        }
+        return interviewMap;
+    }
+    
+    /**
+     * 将ResumeRecord转换为ResumeRecordDTO（面试记录已预先加载）
+     */
+    private ResumeRecordDTO convertToDTO(ResumeRecord record, List<InterviewRecordDTO> interviewDTOs) {
         ResumeRecordDTO recordDTO = new ResumeRecordDTO();
         BeanUtils.copyProperties(record, recordDTO);
-        
-        // 获取面试记录
-        QueryWrapper<InterviewRecord> interviewWrapper = new QueryWrapper<>();
-        interviewWrapper.eq("resume_record_id", record.getId())
-                       .orderByAsc("interview_time");
-        List<InterviewRecord> interviews = interviewRecordMapper.selectList(interviewWrapper);
-        List<InterviewRecordDTO> interviewDTOs = interviews.stream().map(interview -> {
-            InterviewRecordDTO interviewDTO = new InterviewRecordDTO();
-            BeanUtils.copyProperties(interview, interviewDTO);
-            return interviewDTO;
-        }).collect(Collectors.toList());
         recordDTO.setInterviews(interviewDTOs);
         
         // 计算泡池时间
@@ -431,9 +632,10 @@ public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, Res
     }
     
     /**
-     * 创建公司分组DTO
+     * 创建公司分组DTO（面试记录已按投递记录ID预先加载）
      */
-    private ResumeRecordDTO createCompanyGroupDTO(List<ResumeRecord> companyRecords, Long userId) {
+    private ResumeRecordDTO createCompanyGroupDTO(List<ResumeRecord> companyRecords,
+                                                  Map<Long, List<InterviewRecordDTO>> interviewMap) {
         if (companyRecords.isEmpty()) {
             return null;
         }
@@ -451,7 +653,7 @@ public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, Res
         // 确保companyGroupId不为null，如果为null则生成一个
         String companyGroupId = baseRecord.getCompanyGroupId();
         if (companyGroupId == null) {
-            companyGroupId = generateGroupId(userId, baseRecord.getCompanyName());
+            companyGroupId = generateGroupId(baseRecord.getUserId(), baseRecord.getCompanyName());
         }
         companyDto.setCompanyGroupId(companyGroupId);
         
@@ -462,16 +664,7 @@ public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, Res
         // 获取所有岗位的面试记录，合并到公司级别
         List<InterviewRecordDTO> allInterviews = new ArrayList<>();
         for (ResumeRecord record : companyRecords) {
-            QueryWrapper<InterviewRecord> interviewWrapper = new QueryWrapper<>();
-            interviewWrapper.eq("resume_record_id", record.getId())
-                           .orderByAsc("interview_time");
-            List<InterviewRecord> interviews = interviewRecordMapper.selectList(interviewWrapper);
-            List<InterviewRecordDTO> interviewDTOs = interviews.stream().map(interview -> {
-                InterviewRecordDTO interviewDTO = new InterviewRecordDTO();
-                BeanUtils.copyProperties(interview, interviewDTO);
-                return interviewDTO;
-            }).collect(Collectors.toList());
-            allInterviews.addAll(interviewDTOs);
+            allInterviews.addAll(interviewMap.getOrDefault(record.getId(), Collections.emptyList()));
         }
         // 按时间排序所有面试记录
         allInterviews.sort((a, b) -> {
@@ -503,15 +696,7 @@ public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, Res
             positionInfo.setWrittenExamTime(record.getWrittenExamTime());
             
             // 获取该岗位的面试记录
-            QueryWrapper<InterviewRecord> interviewWrapper = new QueryWrapper<>();
-            interviewWrapper.eq("resume_record_id", record.getId())
-                           .orderByAsc("interview_time");
-            List<InterviewRecord> interviews = interviewRecordMapper.selectList(interviewWrapper);
-            List<InterviewRecordDTO> interviewDTOs = interviews.stream().map(interview -> {
-                InterviewRecordDTO interviewDTO = new InterviewRecordDTO();
-                BeanUtils.copyProperties(interview, interviewDTO);
-                return interviewDTO;
-            }).collect(Collectors.toList());
+            List<InterviewRecordDTO> interviewDTOs = interviewMap.getOrDefault(record.getId(), new ArrayList<>());
             positionInfo.setInterviews(interviewDTOs);
             
             // 计算泡池时间
@@ -545,7 +730,6 @@ public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, Res
             companyDto.setExpectedSalaryType(currentPosition.getExpectedSalaryType());
             companyDto.setExpectedSalaryValue(currentPosition.getExpectedSalaryValue());
             companyDto.setRemarks(currentPosition.getRemarks());
-            companyDto.setInterviews(currentPosition.getInterviews());
             companyDto.setPoolDays(currentPosition.getPoolDays());
         }
         
@@ -562,125 +746,270 @@ public class ResumeRecordServiceImpl extends ServiceImpl<ResumeRecordMapper, Res
     }
     
     @Override
-    @Transactional
-    public Map<String, Object> importUserRecords(InputStream inputStream, String fileName, String mode, Long userId) {
+    public Map<String, Object> importUserRecords(InputStream inputStream, String fileName, String mode, Long userId,
+                                                 JobProgress progress) {
+        return importRecords(inputStream, fileName, mode, userId, false, progress);
+    }
+    
+    @Override
+    public Map<String, Object> importAllRecords(InputStream inputStream, String fileName, String mode,
+                                                JobProgress progress) {
+        return importRecords(inputStream, fileName, mode, null, true, progress);
+    }
+    
+    /**
+     * 批量导入流水线：
+     * 1. 解析全部行并校验
+     * 2. 用少量集合查询解析已存在的(公司, 岗位)和公司分组ID
+     * 3. 在同一事务中执行替换模式的删除，并分批JDBC批量插入投递记录和面试记录
+     * 任一批失败时整体回滚（包括删除），不会留下部分导入的数据；
+     * 事务中只更新written，提交后才计入inserted
+     *
+     * @param userId 导入目标用户，global为true时取已有记录的用户
+     * @param global 是否为ROOT全局导入（替换和跳过判断不限用户）
+     * @param progress 进度计数，供后台任务轮询
+     */
+    private Map<String, Object> importRecords(InputStream inputStream, String fileName, String mode,
+                                              Long userId, boolean global, JobProgress progress) {
         Map<String, Object> result = new HashMap<>();
+        List<Map<String, Object>> errors = new ArrayList<>();
+        int[] errorCount = {0};
+        boolean replace = "replace".equals(mode);
         
         try {
-            List<ResumeRecordDTO> importRecords = ExcelImportUtil.parseExcelToRecords(inputStream, fileName);
+            // 1. 解析全部行
+            List<ResumeRecordDTO> importRecords = new ArrayList<>();
+            List<Integer> rowNumbers = new ArrayList<>();
+            ExcelImportUtil.parseExcel(inputStream, fileName, new ExcelImportUtil.RowListener() {
+                @Override
+                public void onRecord(int rowNumber, ResumeRecordDTO record) {
+                    importRecords.add(record);
+                    rowNumbers.add(rowNumber);
+                    progress.getParsed().incrementAndGet();
+                }
+                
+                @Override
+                public void onError(int rowNumber, String message) {
+                    addImportError(errors, errorCount, rowNumber, message);
+                    progress.getParsed().incrementAndGet();
+                    progress.getFailed().incrementAndGet();
+                }
+            });
             
-            if ("replace".equals(mode)) {
-                // 替换模式：删除用户所有现有记录
-                QueryWrapper<ResumeRecord> deleteWrapper = new QueryWrapper<>();
-                deleteWrapper.eq("user_id", userId);
-                resumeRecordMapper.delete(deleteWrapper);
+            if (global) {
+                // 为ROOT用户导入，这里简化处理，假设所有记录都属于第一个用户
+                QueryWrapper<ResumeRecord> userQuery = new QueryWrapper<>();
+                userQuery.select("user_id").last("LIMIT 1");
+                ResumeRecord firstRecord = resumeRecordMapper.selectOne(userQuery);
+                userId = firstRecord != null ? firstRecord.getUserId() : 1L;
             }
             
+            // 2. 集合查询已存在的公司和岗位（替换模式下现有记录会被删除，无需查询）
+            Map<String, String> companyGroupIds = new HashMap<>();
+            Set<String> existingPairs = new HashSet<>();
+            if (!replace) {
+                Set<String> companyNames = importRecords.stream()
+                        .map(ResumeRecordDTO::getCompanyName)
+                        .collect(Collectors.toCollection(LinkedHashSet::new));
+                loadExistingCompanies(companyNames, userId, global, companyGroupIds, existingPairs);
+            }
+            
+            // 3. 组装待插入的投递记录
+            LocalDateTime now = LocalDateTime.now();
+            List<ResumeRecord> newRecords = new ArrayList<>();
+            List<List<InterviewRecordDTO>> newInterviews = new ArrayList<>();
             int processedCount = 0;
-            int successCount = 0;
             int skippedCount = 0;
             
-            for (ResumeRecordDTO recordDTO : importRecords) {
+            for (int i = 0; i < importRecords.size(); i++) {
+                ResumeRecordDTO recordDTO = importRecords.get(i);
                 processedCount++;
                 
-                if ("skip".equals(mode)) {
-                    // 跳过模式：检查是否已存在相同公司和岗位的记录
-                    QueryWrapper<ResumeRecord> existingQuery = new QueryWrapper<>();
-                    existingQuery.eq("user_id", userId)
-                                .eq("company_name", recordDTO.getCompanyName())
-                                .eq("position", recordDTO.getPosition());
-                    
-                    ResumeRecord existingRecord = resumeRecordMapper.selectOne(existingQuery);
-                    if (existingRecord != null) {
-                        skippedCount++;
-                        continue;
-                    }
+                String validationError = validateImportRecord(recordDTO);
+                if (validationError != null) {
+                    addImportError(errors, errorCount, rowNumbers.get(i), validationError);
+                    progress.getFailed().incrementAndGet();
+                    continue;
                 }
                 
-                try {
-                    addRecord(recordDTO, userId);
-                    successCount++;
-                } catch (Exception e) {
-                    System.err.println("导入记录失败: " + e.getMessage());
-                    // 继续处理下一条记录
+                String pairKey = recordDTO.getCompanyName() + "\u0000" + recordDTO.getPosition();
+                if ("skip".equals(mode) && existingPairs.contains(pairKey)) {
+                    // 跳过模式：已存在相同公司和岗位的记录
+                    skippedCount++;
+                    progress.getSkipped().incrementAndGet();
+                    continue;
                 }
+                existingPairs.add(pairKey);
+                
+                // 同一公司使用相同的group_id（文件内新公司也只生成一次）
+                Long ownerId = userId;
+                String companyGroupId = companyGroupIds.computeIfAbsent(recordDTO.getCompanyName(),
+                        name -> generateGroupId(ownerId, name));
+                
+                ResumeRecord record = new ResumeRecord();
+                BeanUtils.copyProperties(recordDTO, record);
+                record.setId(null);
+                record.setUserId(userId);
+                record.setCompanyGroupId(companyGroupId);
+                record.setIsPrimary(false); // 新岗位不是主要岗位
+                record.setCreatedAt(now);
+                record.setUpdatedAt(now);
+                newRecords.add(record);
+                newInterviews.add(recordDTO.getInterviews());
             }
             
+            // 4. 删除和全部批次在同一事务中执行，每批插入投递记录，回填ID后插入对应的面试记录
+            Long ownerId = userId;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (replace) {
+                        // 替换模式：删除现有记录
+                        QueryWrapper<ResumeRecord> deleteWrapper = new QueryWrapper<>();
+                        deleteWrapper.eq(!global, "user_id", ownerId);
+                        resumeRecordMapper.delete(deleteWrapper);
+                    }
+                    for (int from = 0; from < newRecords.size(); from += IMPORT_BATCH_SIZE) {
+                        int to = Math.min(from + IMPORT_BATCH_SIZE, newRecords.size());
+                        insertImportBatch(newRecords, newInterviews, from, to, now);
+                        progress.getWritten().addAndGet(to - from);
+                    }
+                });
+            } catch (RuntimeException e) {
+                progress.getWritten().set(0);
+                throw e;
+            }
+            // 事务已提交，写入的记录对其他查询可见
+            progress.getInserted().set(progress.getWritten().get());
+            
             result.put("success", true);
             result.put("processedCount", processedCount);
-            result.put("successCount", successCount);
+            result.put("successCount", newRecords.size());
             result.put("skippedCount", skippedCount);
+            result.put("failedCount", errorCount[0]);
+            result.put("errors", errors);
             result.put("message", "导入完成");
             
         } catch (Exception e) {
+            // 事务已整体回滚，没有任何记录被导入
             result.put("success", false);
+            result.put("successCount", 0);
+            result.put("failedCount", errorCount[0]);
+            result.put("errors", errors);
             result.put("message", "导入失败: " + e.getMessage());
         }
         
         return result;
     }
     
-    @Override
-    @Transactional
-    public Map<String, Object> importAllRecords(InputStream inputStream, String fileName, String mode) {
-        Map<String, Object> result = new HashMap<>();
-        
-        try {
-            List<ResumeRecordDTO> importRecords = ExcelImportUtil.parseExcelToRecords(inputStream, fileName);
-            
-            if ("replace".equals(mode)) {
-                // 替换模式：删除所有现有记录
-                QueryWrapper<ResumeRecord> deleteWrapper = new QueryWrapper<>();
-                resumeRecordMapper.delete(deleteWrapper);
+    /**
+     * 插入一批投递记录，回填ID后插入对应的面试记录，需在事务中调用
+     */
+    private void insertImportBatch(List<ResumeRecord> newRecords, List<List<InterviewRecordDTO>> newInterviews,
+                                   int from, int to, LocalDateTime now) {
+        saveBatch(newRecords.subList(from, to), IMPORT_BATCH_SIZE);
+        
+        List<InterviewRecord> interviews = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            List<InterviewRecordDTO> interviewDTOs = newInterviews.get(i);
+            if (interviewDTOs == null) {
+                continue;
+            }
+            for (InterviewRecordDTO interviewDTO : interviewDTOs) {
+                // interview_time为必填列，没有时间的面试记录无法保存
+                if (interviewDTO.getInterviewTime() == null) {
+                    continue;
+                }
+                InterviewRecord interview = new InterviewRecord();
+                interview.setResumeRecordId(newRecords.get(i).getId());
+                interview.setInterviewType(interviewDTO.getInterviewType());
+                interview.setInterviewTime(interviewDTO.getInterviewTime());
+                interview.setCreatedAt(now);
+                interviews.add(interview);
             }
+        }
+        if (!interviews.isEmpty()) {
+            Db.saveBatch(interviews, IMPORT_BATCH_SIZE);
+        }
+    }
+    
+    /**
+     * 查询导入文件涉及的公司在库中的分组ID和已有(公司, 岗位)组合
+     * 公司名称按IN分块查询，查询次数与导入行数无关
+     */
+    private void loadExistingCompanies(Set<String> companyNames, Long userId, boolean global,
+                                       Map<String, String> companyGroupIds, Set<String> existingPairs) {
+        List<String> names = new ArrayList<>(companyNames);
+        Set<String> companiesWithoutGroup = new LinkedHashSet<>();
+        
+        for (int from = 0; from < names.size(); from += IMPORT_BATCH_SIZE) {
+            List<String> chunk = names.subList(from, Math.min(from + IMPORT_BATCH_SIZE, names.size()));
             
-            int processedCount = 0;
-            int successCount = 0;
-            int skippedCount = 0;
+            QueryWrapper<ResumeRecord> queryWrapper = new QueryWrapper<>();
+            queryWrapper.select("user_id", "company_name", "position", "company_group_id")
+                       .eq(!global, "user_id", userId)
+                       .in("company_name", chunk);
             
-            for (ResumeRecordDTO recordDTO : importRecords) {
-                processedCount++;
-                
-                if ("skip".equals(mode)) {
-                    // 跳过模式：检查是否已存在相同公司和岗位的记录
-                    QueryWrapper<ResumeRecord> existingQuery = new QueryWrapper<>();
-                    existingQuery.eq("company_name", recordDTO.getCompanyName())
-                                .eq("position", recordDTO.getPosition());
-                    
-                    ResumeRecord existingRecord = resumeRecordMapper.selectOne(existingQuery);
-                    if (existingRecord != null) {
-                        skippedCount++;
-                        continue;
-                    }
+            for (ResumeRecord existing : resumeRecordMapper.selectList(queryWrapper)) {
+                existingPairs.add(existing.getCompanyName() + "\u0000" + existing.getPosition());
+                if (!userId.equals(existing.getUserId())) {
+                    continue;
                 }
-                
-                try {
-                    // 为ROOT用户导入，需要获取用户ID
-                    // 这里简化处理，假设所有记录都属于第一个用户
-                    QueryWrapper<ResumeRecord> userQuery = new QueryWrapper<>();
-                    userQuery.last("LIMIT 1");
-                    ResumeRecord firstRecord = resumeRecordMapper.selectOne(userQuery);
-                    Long userId = firstRecord != null ? firstRecord.getUserId() : 1L;
-                    
-                    addRecord(recordDTO, userId);
-                    successCount++;
-                } catch (Exception e) {
-                    System.err.println("导入记录失败: " + e.getMessage());
-                    // 继续处理下一条记录
+                if (existing.getCompanyGroupId() != null) {
+                    companyGroupIds.putIfAbsent(existing.getCompanyName(), existing.getCompanyGroupId());
+                } else {
+                    companiesWithoutGroup.add(existing.getCompanyName());
                 }
             }
-            
-            result.put("success", true);
-            result.put("processedCount", processedCount);
-            result.put("successCount", successCount);
-            result.put("skippedCount", skippedCount);
-            result.put("message", "导入完成");
-            
-        } catch (Exception e) {
-            result.put("success", false);
-            result.put("message", "导入失败: " + e.getMessage());
         }
         
-        return result;
+        // 现有记录没有group_id时生成一个并回写（历史数据）
+        for (String companyName : companiesWithoutGroup) {
+            if (companyGroupIds.containsKey(companyName)) {
+                continue;
+            }
+            String companyGroupId = generateGroupId(userId, companyName);
+            UpdateWrapper<ResumeRecord> updateWrapper = new UpdateWrapper<>();
+            updateWrapper.eq("user_id", userId)
+                        .eq("company_name", companyName)
+                        .set("company_group_id", companyGroupId);
+            resumeRecordMapper.update(null, updateWrapper);
+            companyGroupIds.put(companyName, companyGroupId);
+        }
+    }
+    
+    /**
+     * 校验导入记录，返回错误信息，校验通过返回null
+     */
+    private String validateImportRecord(ResumeRecordDTO recordDTO) {
+        if (recordDTO.getApplyTime() == null) {
+            return "投递时间不能为空或格式错误";
+        }
+        if (recordDTO.getCurrentStatus() != null && !CURRENT_STATUS_VALUES.contains(recordDTO.getCurrentStatus())) {
+            return "无效的当前状态: " + recordDTO.getCurrentStatus();
+        }
+        if (recordDTO.getFinalResult() != null) {
+            String finalResult = recordDTO.getFinalResult().trim();
+            if (finalResult.isEmpty()) {
+                recordDTO.setFinalResult(null);
+            } else if (!FINAL_RESULT_VALUES.contains(finalResult)) {
+                return "无效的最终结果: " + finalResult;
+            } else {
+                recordDTO.setFinalResult(finalResult);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 记录行级导入错误（只保留前MAX_IMPORT_ERRORS条明细）
+     */
+    private void addImportError(List<Map<String, Object>> errors, int[] errorCount, int rowNumber, String message) {
+        errorCount[0]++;
+        if (errors.size() < MAX_IMPORT_ERRORS) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("row", rowNumber);
+            error.put("message", message);
+            errors.add(error);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogAlert;
+import cn.lazylhxzzy.resume_commit.service.AlertNotifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 短信告警
+ */
+@Component
+public class SmsAlertNotifier implements AlertNotifier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SmsAlertNotifier.class);
+    
+    @Override
+    public String getType() {
+        return "SMS";
+    }
+    
+    @Override
+    public void send(String target, List<LogAlert> alerts) {
+        // TODO: 实现短信发送逻辑
+        for (LogAlert alert : alerts) {
+            logger.info("发送短信告警: {} - {} - {}", target, alert.getAlertName(), alert.getMessage());
+        }
+    }
+}
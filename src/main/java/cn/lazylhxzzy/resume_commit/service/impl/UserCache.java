@@ -0,0 +1,93 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.User;
+import cn.lazylhxzzy.resume_commit.mapper.UserMapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内用户缓存
+ * 认证时按ID取用户的角色，命中时不访问数据库
+ * 应用内没有修改角色的入口，角色在数据库中直接修改后最长ttl-seconds后生效
+ * 缓存对象不含密码
+ */
+@Component
+public class UserCache {
+    
+    @Autowired
+    private UserMapper userMapper;
+    
+    @Value("${user.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+    
+    @Value("${user.cache.max-size:10000}")
+    private int maxSize;
+    
+    private final Map<Long, CachedUser> usersById = new ConcurrentHashMap<>();
+    
+    private final Map<String, Long> idsByUsername = new ConcurrentHashMap<>();
+    
+    /**
+     * 按ID获取用户，不存在时返回null
+     */
+    public User getById(Long userId) {
+        CachedUser cached = usersById.get(userId);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            return cached.user;
+        }
+        return put(userMapper.selectById(userId));
+    }
+    
+    /**
+     * 按用户名获取用户，用于没有userId声明的旧token
+     */
+    public User getByUsername(String username) {
+        Long userId = idsByUsername.get(username);
+        if (userId != null) {
+            User user = getById(userId);
+            if (user != null && username.equals(user.getUsername())) {
+                return user;
+            }
+        }
+        return put(userMapper.selectOne(new QueryWrapper<User>().eq("username", username)));
+    }
+    
+    public void invalidateAll() {
+        usersById.clear();
+        idsByUsername.clear();
+    }
+    
+    private User put(User user) {
+        if (user == null) {
+            return null;
+        }
+        if (usersById.size() >= maxSize) {
+            // 超过上限时整体清空，用户表规模小，重新加载代价可以接受
+            invalidateAll();
+        }
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setUsername(user.getUsername());
+        copy.setEmail(user.getEmail());
+        copy.setRole(user.getRole());
+        copy.setCreatedAt(user.getCreatedAt());
+        usersById.put(copy.getId(), new CachedUser(copy, System.currentTimeMillis() + ttlSeconds * 1000));
+        idsByUsername.put(copy.getUsername(), copy.getId());
+        return copy;
+    }
+    
+    private static class CachedUser {
+        private final User user;
+        private final long expiresAt;
+        
+        CachedUser(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogAlert;
+import cn.lazylhxzzy.resume_commit.service.AlertNotifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Webhook告警
+ * 向notification_target指向的地址POST一个JSON，合并的多条告警放在alerts数组中，非2xx视为失败
+ */
+@Component
+public class WebhookAlertNotifier implements AlertNotifier {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${log.alert.webhook.timeout-ms:5000}")
+    private long timeoutMs;
+    
+    private HttpClient httpClient;
+    
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutMs))
+                .build();
+    }
+    
+    @Override
+    public String getType() {
+        return "WEBHOOK";
+    }
+    
+    @Override
+    public void send(String target, List<LogAlert> alerts) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json;charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(buildPayload(alerts), StandardCharsets.UTF_8))
+                .build();
+        
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new RuntimeException("Webhook返回状态码: " + response.statusCode());
+        }
+    }
+    
+    private String buildPayload(List<LogAlert> alerts) throws Exception {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (LogAlert alert : alerts) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", alert.getId());
+            item.put("alertName", alert.getAlertName());
+            item.put("alertType", alert.getAlertType());
+            item.put("severity", alert.getSeverity());
+            item.put("message", alert.getMessage());
+            item.put("details", alert.getDetails());
+            item.put("triggeredAt", alert.getTriggeredAt() != null ? alert.getTriggeredAt().toString() : null);
+            items.add(item);
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("count", items.size());
+        payload.put("alerts", items);
+        return objectMapper.writeValueAsString(payload);
+    }
+}
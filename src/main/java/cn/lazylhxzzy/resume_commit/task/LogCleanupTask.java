@@ -1,14 +1,6 @@
 package cn.lazylhxzzy.resume_commit.task;
 
-import cn.lazylhxzzy.resume_commit.entity.AccessLog;
-import cn.lazylhxzzy.resume_commit.entity.LogAlert;
-import cn.lazylhxzzy.resume_commit.entity.SecurityLog;
-import cn.lazylhxzzy.resume_commit.entity.SystemLog;
-import cn.lazylhxzzy.resume_commit.mapper.AccessLogMapper;
-import cn.lazylhxzzy.resume_commit.mapper.LogAlertMapper;
-import cn.lazylhxzzy.resume_commit.mapper.SecurityLogMapper;
-import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import cn.lazylhxzzy.resume_commit.service.impl.LogRetentionEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,9 +9,12 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * 日志清理定时任务
+ * 实际删除由LogRetentionEngine在后台执行，分区模式下整块删除过期分区，其余按主键分批删除
  */
 @Component
 public class LogCleanupTask {
@@ -27,16 +22,7 @@ public class LogCleanupTask {
     private static final Logger logger = LoggerFactory.getLogger(LogCleanupTask.class);
     
     @Autowired
-    private SystemLogMapper systemLogMapper;
-    
-    @Autowired
-    private AccessLogMapper accessLogMapper;
-    
-    @Autowired
-    private SecurityLogMapper securityLogMapper;
-    
-    @Autowired
-    private LogAlertMapper alertMapper;
+    private LogRetentionEngine logRetentionEngine;
     
     @Value("${log.cleanup.system.days:30}")
     private int systemLogRetentionDays;
@@ -47,6 +33,9 @@ public class LogCleanupTask {
     @Value("${log.cleanup.security.days:90}")
     private int securityLogRetentionDays;
     
+    @Value("${log.cleanup.performance.days:30}")
+    private int performanceLogRetentionDays;
+    
     @Value("${log.cleanup.alert.days:60}")
     private int alertRetentionDays;
     
@@ -63,109 +52,22 @@ public class LogCleanupTask {
             return;
         }
         
-        logger.info("开始执行日志清理任务");
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, LocalDateTime> cutoffs = new LinkedHashMap<>();
+        cutoffs.put(LogRetentionEngine.TABLE_SYSTEM_LOGS, now.minusDays(systemLogRetentionDays));
+        cutoffs.put(LogRetentionEngine.TABLE_ACCESS_LOGS, now.minusDays(accessLogRetentionDays));
+        cutoffs.put(LogRetentionEngine.TABLE_SECURITY_LOGS, now.minusDays(securityLogRetentionDays));
+        cutoffs.put(LogRetentionEngine.TABLE_PERFORMANCE_LOGS, now.minusDays(performanceLogRetentionDays));
+        cutoffs.put(LogRetentionEngine.TABLE_LOG_ALERTS, now.minusDays(alertRetentionDays));
         
         try {
-            // 清理系统日志
-            cleanupSystemLogs();
-            
-            // 清理访问日志
-            cleanupAccessLogs();
-            
-            // 清理安全日志
-            cleanupSecurityLogs();
-            
-            // 清理告警记录
-            cleanupAlertLogs();
-            
-            logger.info("日志清理任务执行完成");
-            
-        } catch (Exception e) {
-            logger.error("日志清理任务执行失败", e);
-        }
-    }
-    
-    /**
-     * 清理系统日志
-     */
-    private void cleanupSystemLogs() {
-        try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusDays(systemLogRetentionDays);
-            
-            QueryWrapper<SystemLog> queryWrapper = new QueryWrapper<>();
-            queryWrapper.lt("created_at", cutoffTime);
-            
-            int deletedCount = systemLogMapper.delete(queryWrapper);
-            
-            if (deletedCount > 0) {
-                logger.info("清理系统日志完成，删除 {} 条记录", deletedCount);
-            }
-            
-        } catch (Exception e) {
-            logger.error("清理系统日志失败", e);
-        }
-    }
-    
-    /**
-     * 清理访问日志
-     */
-    private void cleanupAccessLogs() {
-        try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusDays(accessLogRetentionDays);
-            
-            QueryWrapper<AccessLog> queryWrapper = new QueryWrapper<>();
-            queryWrapper.lt("created_at", cutoffTime);
-            
-            int deletedCount = accessLogMapper.delete(queryWrapper);
-            
-            if (deletedCount > 0) {
-                logger.info("清理访问日志完成，删除 {} 条记录", deletedCount);
-            }
-            
-        } catch (Exception e) {
-            logger.error("清理访问日志失败", e);
-        }
-    }
-    
-    /**
-     * 清理安全日志
-     */
-    private void cleanupSecurityLogs() {
-        try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusDays(securityLogRetentionDays);
-            
-            QueryWrapper<SecurityLog> queryWrapper = new QueryWrapper<>();
-            queryWrapper.lt("created_at", cutoffTime);
-            
-            int deletedCount = securityLogMapper.delete(queryWrapper);
-            
-            if (deletedCount > 0) {
-                logger.info("清理安全日志完成，删除 {} 条记录", deletedCount);
+            if (logRetentionEngine.start("SCHEDULED", cutoffs)) {
+                logger.info("开始执行日志清理任务");
+            } else {
+                logger.warn("已有日志清理在执行，本次定时清理跳过");
             }
-            
         } catch (Exception e) {
-            logger.error("清理安全日志失败", e);
-        }
-    }
-    
-    /**
-     * 清理告警记录
-     */
-    private void cleanupAlertLogs() {
-        try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusDays(alertRetentionDays);
-            
-            QueryWrapper<LogAlert> queryWrapper = new QueryWrapper<>();
-            queryWrapper.lt("created_at", cutoffTime);
-            
-            int deletedCount = alertMapper.delete(queryWrapper);
-            
-            if (deletedCount > 0) {
-                logger.info("清理告警记录完成，删除 {} 条记录", deletedCount);
-            }
-            
-        } catch (Exception e) {
-            logger.error("清理告警记录失败", e);
+            logger.error("日志清理任务启动失败", e);
         }
     }
     
@@ -176,38 +78,15 @@ public class LogCleanupTask {
         logger.info("开始手动清理 {} 天前的日志", days);
         
         LocalDateTime cutoffTime = LocalDateTime.now().minusDays(days);
-        int totalDeleted = 0;
+        Map<String, LocalDateTime> cutoffs = new LinkedHashMap<>();
+        cutoffs.put(LogRetentionEngine.TABLE_SYSTEM_LOGS, cutoffTime);
+        cutoffs.put(LogRetentionEngine.TABLE_ACCESS_LOGS, cutoffTime);
+        cutoffs.put(LogRetentionEngine.TABLE_SECURITY_LOGS, cutoffTime);
+        cutoffs.put(LogRetentionEngine.TABLE_PERFORMANCE_LOGS, cutoffTime);
+        cutoffs.put(LogRetentionEngine.TABLE_LOG_ALERTS, cutoffTime);
         
-        try {
-            // 清理系统日志
-            QueryWrapper<SystemLog> systemQuery = new QueryWrapper<>();
-            systemQuery.lt("created_at", cutoffTime);
-            int systemDeleted = systemLogMapper.delete(systemQuery);
-            totalDeleted += systemDeleted;
-            
-            // 清理访问日志
-            QueryWrapper<AccessLog> accessQuery = new QueryWrapper<>();
-            accessQuery.lt("created_at", cutoffTime);
-            int accessDeleted = accessLogMapper.delete(accessQuery);
-            totalDeleted += accessDeleted;
-            
-            // 清理安全日志
-            QueryWrapper<SecurityLog> securityQuery = new QueryWrapper<>();
-            securityQuery.lt("created_at", cutoffTime);
-            int securityDeleted = securityLogMapper.delete(securityQuery);
-            totalDeleted += securityDeleted;
-            
-            // 清理告警记录
-            QueryWrapper<LogAlert> alertQuery = new QueryWrapper<>();
-            alertQuery.lt("created_at", cutoffTime);
-            int alertDeleted = alertMapper.delete(alertQuery);
-            totalDeleted += alertDeleted;
-            
-            logger.info("手动清理完成，总共删除 {} 条记录", totalDeleted);
-            
-        } catch (Exception e) {
-            logger.error("手动清理失败", e);
-            throw e;
+        if (!logRetentionEngine.start("MANUAL", cutoffs)) {
+            throw new RuntimeException("已有日志清理在执行，请稍后再试");
         }
     }
 }
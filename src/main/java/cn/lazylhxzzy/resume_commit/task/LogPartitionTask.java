@@ -0,0 +1,29 @@
+package cn.lazylhxzzy.resume_commit.task;
+
+import cn.lazylhxzzy.resume_commit.service.impl.LogPartitionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 日志分区维护定时任务
+ * 启动时和每天凌晨1点半预创建未来的分区，早于凌晨2点的日志清理
+ */
+@Component
+public class LogPartitionTask {
+    
+    @Autowired
+    private LogPartitionManager logPartitionManager;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        logPartitionManager.ensureFuturePartitions();
+    }
+    
+    @Scheduled(cron = "${log.partition.cron:0 30 1 * * ?}")
+    public void createFuturePartitions() {
+        logPartitionManager.ensureFuturePartitions();
+    }
+}
@@ -0,0 +1,46 @@
+package cn.lazylhxzzy.resume_commit.task;
+
+import cn.lazylhxzzy.resume_commit.service.impl.LogRollupManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * 日志统计汇总定时任务
+ * 调度线程只负责提交，汇总在rollupExecutor中执行，回填历史数据时不阻塞其他定时任务
+ */
+@Component
+public class LogRollupTask {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogRollupTask.class);
+    
+    @Autowired
+    private LogRollupManager logRollupManager;
+    
+    @Autowired
+    @Qualifier("rollupExecutor")
+    private ThreadPoolTaskExecutor rollupExecutor;
+    
+    /**
+     * 每分钟把已落库的日志汇总到分钟表和小时表
+     */
+    @Scheduled(fixedDelayString = "${log.rollup.interval-ms:60000}", initialDelayString = "${log.rollup.initial-delay-ms:30000}")
+    public void rollUp() {
+        try {
+            rollupExecutor.execute(() -> {
+                try {
+                    logRollupManager.rollUp();
+                } catch (Exception e) {
+                    logger.error("日志统计汇总失败", e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            logger.debug("上一轮日志统计汇总尚未完成，跳过本轮");
+        }
+    }
+}
@@ -2,113 +2,273 @@ package cn.lazylhxzzy.resume_commit.util;
 
 import cn.lazylhxzzy.resume_commit.dto.ResumeRecordDTO;
 import cn.lazylhxzzy.resume_commit.dto.InterviewRecordDTO;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Excel导入工具类
  */
 public class ExcelImportUtil {
     
+    private static final Logger logger = LoggerFactory.getLogger(ExcelImportUtil.class);
+    
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
+    /**
+     * 导入模板的列数
+     */
+    private static final int COLUMN_COUNT = 12;
+    
     /**
      * 解析Excel文件为投递记录列表
      */
     public static List<ResumeRecordDTO> parseExcelToRecords(InputStream inputStream, String fileName) throws IOException {
-        Workbook workbook = null;
+        List<ResumeRecordDTO> records = new ArrayList<>();
+        parseExcel(inputStream, fileName, record -> records.add(record));
+        return records;
+    }
+    
+    /**
+     * 逐行解析Excel文件，每解析出一条投递记录就交给consumer处理
+     */
+    public static void parseExcel(InputStream inputStream, String fileName, Consumer<ResumeRecordDTO> consumer) throws IOException {
+        parseExcel(inputStream, fileName, (rowNumber, record) -> consumer.accept(record));
+    }
+    
+    /**
+     * 逐行解析Excel文件，解析结果和行级错误都交给listener处理
+     * .xlsx使用SAX事件模型流式读取，内存占用与文件大小无关；.xls使用HSSF读取
+     */
+    public static void parseExcel(InputStream inputStream, String fileName, RowListener listener) throws IOException {
+        // 根据文件扩展名选择解析方式
+        if (fileName.toLowerCase().endsWith(".xlsx")) {
+            parseXlsx(inputStream, listener);
+        } else if (fileName.toLowerCase().endsWith(".xls")) {
+            parseXls(inputStream, listener);
+        } else {
+            throw new IllegalArgumentException("不支持的文件格式，请使用.xlsx或.xls文件");
+        }
+    }
+    
+    /**
+     * 使用XSSFReader + SAX解析.xlsx文件的第一个工作表
+     */
+    private static void parseXlsx(InputStream inputStream, RowListener listener) throws IOException {
+        // 先落盘为临时文件，避免OPCPackage将整个压缩包读入内存
+        File tempFile = Files.createTempFile("resume_import_", ".xlsx").toFile();
         try {
-            // 根据文件扩展名选择工作簿类型
-            if (fileName.toLowerCase().endsWith(".xlsx")) {
-                workbook = new XSSFWorkbook(inputStream);
-            } else if (fileName.toLowerCase().endsWith(".xls")) {
-                workbook = new HSSFWorkbook(inputStream);
-            } else {
-                throw new IllegalArgumentException("不支持的文件格式，请使用.xlsx或.xls文件");
-            }
+            Files.copy(inputStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
             
+            try (OPCPackage pkg = OPCPackage.open(tempFile, PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg);
+                StylesTable styles = reader.getStylesTable();
+                
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    return;
+                }
+                
+                try (InputStream sheetStream = sheets.next()) {
+                    XMLReader xmlReader = XMLHelper.newXMLReader();
+                    xmlReader.setContentHandler(new XSSFSheetXMLHandler(
+                            styles, null, sharedStrings, new RowHandler(listener), new ImportDataFormatter(), false));
+                    xmlReader.parse(new InputSource(sheetStream));
+                }
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("解析Excel文件失败: " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+    
+    /**
+     * 解析.xls文件（HSSF格式行数有限，直接读取工作簿）
+     */
+    private static void parseXls(InputStream inputStream, RowListener listener) throws IOException {
+        try (Workbook workbook = new HSSFWorkbook(inputStream)) {
             Sheet sheet = workbook.getSheetAt(0);
-            List<ResumeRecordDTO> records = new ArrayList<>();
             
             // 跳过标题行，从第二行开始读取
             for (int i = 1; i <= sheet.getLastRowNum(); i++) {
                 Row row = sheet.getRow(i);
                 if (row == null) continue;
                 
-                try {
-                    ResumeRecordDTO record = parseRowToRecord(row);
-                    if (record != null) {
-                        records.add(record);
-                    }
-                } catch (Exception e) {
-                    System.err.println("解析第" + (i + 1) + "行数据时出错: " + e.getMessage());
-                    // 继续处理下一行
+                String[] values = new String[COLUMN_COUNT];
+                for (int col = 0; col < COLUMN_COUNT; col++) {
+                    values[col] = getCellValueAsString(row.getCell(col));
                 }
+                emitRow(i, values, listener);
             }
-            
-            return records;
-        } finally {
-            if (workbook != null) {
-                workbook.close();
+        }
+    }
+    
+    /**
+     * 解析单行并交给listener，单行出错不影响后续行
+     */
+    private static void emitRow(int rowIndex, String[] values, RowListener listener) {
+        // 行号按Excel显示习惯从1开始
+        int rowNumber = rowIndex + 1;
+        ResumeRecordDTO record;
+        try {
+            record = parseRowToRecord(values);
+        } catch (Exception e) {
+            listener.onError(rowNumber, e.getMessage());
+            // 继续处理下一行
+            return;
+        }
+        if (record != null) {
+            listener.onRecord(rowNumber, record);
+        }
+    }
+    
+    /**
+     * 行级解析回调
+     */
+    public interface RowListener {
+        
+        /**
+         * 解析出一条投递记录
+         */
+        void onRecord(int rowNumber, ResumeRecordDTO record);
+        
+        /**
+         * 某一行解析失败
+         */
+        default void onError(int rowNumber, String message) {
+            logger.warn("解析第{}行数据时出错: {}", rowNumber, message);
+        }
+    }
+    
+    /**
+     * SAX行处理器：收集一行的单元格文本，行结束时转换为投递记录
+     */
+    private static class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+        
+        private final RowListener listener;
+        private String[] values;
+        private int currentCol;
+        
+        RowHandler(RowListener listener) {
+            this.listener = listener;
+        }
+        
+        @Override
+        public void startRow(int rowNum) {
+            values = new String[COLUMN_COUNT];
+            currentCol = -1;
+        }
+        
+        @Override
+        public void endRow(int rowNum) {
+            // 跳过标题行
+            if (rowNum == 0) {
+                return;
+            }
+            emitRow(rowNum, values, listener);
+        }
+        
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = cellReference != null ? new CellReference(cellReference).getCol() : currentCol + 1;
+            currentCol = col;
+            if (col < COLUMN_COUNT) {
+                values[col] = formattedValue;
+            }
+        }
+    }
+    
+    /**
+     * 日期单元格统一格式化为yyyy-MM-dd HH:mm:ss，数字单元格按整数输出，与导出格式保持一致
+     */
+    private static class ImportDataFormatter extends DataFormatter {
+        
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).format(DATE_TIME_FORMATTER);
+            }
+            if (value == Math.floor(value) && !Double.isInfinite(value)) {
+                return String.valueOf((long) value);
             }
+            return super.formatRawCellContents(value, formatIndex, formatString);
         }
     }
     
     /**
      * 解析单行数据为投递记录
      */
-    private static ResumeRecordDTO parseRowToRecord(Row row) {
+    private static ResumeRecordDTO parseRowToRecord(String[] values) {
         ResumeRecordDTO record = new ResumeRecordDTO();
         
         // 公司名称（必填）
-        String companyName = getCellValueAsString(row.getCell(0));
+        String companyName = values[0];
         if (companyName == null || companyName.trim().isEmpty()) {
             return null; // 跳过空行
         }
         record.setCompanyName(companyName.trim());
         
         // 岗位（必填）
-        String position = getCellValueAsString(row.getCell(1));
+        String position = values[1];
         if (position == null || position.trim().isEmpty()) {
             return null; // 跳过空行
         }
         record.setPosition(position.trim());
         
         // 地点
-        record.setBaseLocation(getCellValueAsString(row.getCell(2)));
+        record.setBaseLocation(values[2]);
         
         // 投递时间（必填）
-        String applyTimeStr = getCellValueAsString(row.getCell(3));
+        String applyTimeStr = values[3];
         if (applyTimeStr != null && !applyTimeStr.trim().isEmpty()) {
             record.setApplyTime(parseDateTime(applyTimeStr.trim()));
         }
         
         // 当前状态
-        String currentStatus = getCellValueAsString(row.getCell(4));
+        String currentStatus = values[4];
         if (currentStatus != null && !currentStatus.trim().isEmpty()) {
             record.setCurrentStatus(currentStatus.trim());
         }
         
         // 当前状态日期
-        String currentStatusDateStr = getCellValueAsString(row.getCell(5));
+        String currentStatusDateStr = values[5];
         if (currentStatusDateStr != null && !currentStatusDateStr.trim().isEmpty()) {
             record.setCurrentStatusDate(parseDateTime(currentStatusDateStr.trim()));
         }
         
         // 最终结果
-        record.setFinalResult(getCellValueAsString(row.getCell(6)));
+        record.setFinalResult(values[6]);
         
         // 泡池时间（从Excel读取，但会在后端重新计算）
-        String poolDaysStr = getCellValueAsString(row.getCell(7));
+        String poolDaysStr = values[7];
         if (poolDaysStr != null && poolDaysStr.contains("天")) {
             try {
                 int poolDays = Integer.parseInt(poolDaysStr.replace("天", "").trim());
@@ -119,23 +279,23 @@ public class ExcelImportUtil {
         }
         
         // 预期薪资
-        String salaryInfo = getCellValueAsString(row.getCell(8));
+        String salaryInfo = values[8];
         if (salaryInfo != null && !salaryInfo.trim().isEmpty()) {
             parseSalaryInfo(record, salaryInfo.trim());
         }
         
         // 流程进度（从Excel读取，但会在后端重新解析）
-        String timelineStr = getCellValueAsString(row.getCell(9));
+        String timelineStr = values[9];
         if (timelineStr != null && !timelineStr.trim().isEmpty()) {
             // 解析流程进度，提取面试信息
             parseTimelineInfo(record, timelineStr.trim());
         }
         
         // 备注
-        record.setRemarks(getCellValueAsString(row.getCell(10)));
+        record.setRemarks(values[10]);
         
         // 公司链接
-        record.setCompanyUrl(getCellValueAsString(row.getCell(11)));
+        record.setCompanyUrl(values[11]);
         
         return record;
     }
@@ -151,7 +311,7 @@ public class ExcelImportUtil {
                 return cell.getStringCellValue();
             case NUMERIC:
                 if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
+                    return cell.getLocalDateTimeCellValue().format(DATE_TIME_FORMATTER);
                 } else {
                     return String.valueOf((long) cell.getNumericCellValue());
                 }
@@ -205,7 +365,7 @@ public class ExcelImportUtil {
                 month = Integer.parseInt(dateComponents[0]);
                 day = Integer.parseInt(dateComponents[1]);
             } else {
-                System.err.println("无法解析日期格式: " + dateTimeStr);
+                logger.debug("无法解析日期格式: {}", dateTimeStr);
                 return null;
             }
             
@@ -237,33 +397,33 @@ public class ExcelImportUtil {
             
             // 验证日期有效性
             if (month < 1 || month > 12) {
-                System.err.println("月份无效: " + month);
+                logger.debug("月份无效: {}", month);
                 return null;
             }
             if (day < 1 || day > 31) {
-                System.err.println("日期无效: " + day);
+                logger.debug("日期无效: {}", day);
                 return null;
             }
             if (hour < 0 || hour > 23) {
-                System.err.println("小时无效: " + hour);
+                logger.debug("小时无效: {}", hour);
                 return null;
             }
             if (minute < 0 || minute > 59) {
-                System.err.println("分钟无效: " + minute);
+                logger.debug("分钟无效: {}", minute);
                 return null;
             }
             if (second < 0 || second > 59) {
-                System.err.println("秒钟无效: " + second);
+                logger.debug("秒钟无效: {}", second);
                 return null;
             }
             
             return LocalDateTime.of(year, month, day, hour, minute, second);
             
         } catch (NumberFormatException e) {
-            System.err.println("日期时间格式错误: " + dateTimeStr + " - " + e.getMessage());
+            logger.debug("日期时间格式错误: {} - {}", dateTimeStr, e.getMessage());
             return null;
         } catch (Exception e) {
-            System.err.println("解析日期时间时发生未知错误: " + dateTimeStr + " - " + e.getMessage());
+            logger.warn("解析日期时间时发生未知错误: {}", dateTimeStr, e);
             return null;
         }
     }
@@ -3,10 +3,12 @@ package cn.lazylhxzzy.resume_commit.util;
 import cn.lazylhxzzy.resume_commit.dto.ResumeRecordDTO;
 import cn.lazylhxzzy.resume_commit.dto.InterviewRecordDTO;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -17,60 +19,104 @@ public class ExcelUtil {
     
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
+    /**
+     * 流式写入时内存中保留的行数，超出部分刷到临时文件
+     */
+    private static final int ROW_ACCESS_WINDOW_SIZE = 100;
+    
+    // 标题行 - 按照当前列表显示内容
+    private static final String[] HEADERS = {
+        "公司名称", "岗位", "地点", "投递时间", "当前状态", "当前状态日期", 
+        "最终结果", "泡池时间", "预期薪资", "流程进度", "备注", "公司链接"
+    };
+    
+    // 固定列宽（字符数），代替逐行autoSizeColumn
+    private static final int[] COLUMN_WIDTHS = {
+        20, 20, 12, 20, 10, 20, 
+        10, 10, 12, 40, 40, 40
+    };
+    
     /**
      * 导出投递记录到Excel
      */
     public static byte[] exportResumeRecords(List<ResumeRecordDTO> records) throws IOException {
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("投递记录");
-        
-        // 创建标题行 - 按照当前列表显示内容
-        Row headerRow = sheet.createRow(0);
-        String[] headers = {
-            "公司名称", "岗位", "地点", "投递时间", "当前状态", "当前状态日期", 
-            "最终结果", "泡池时间", "预期薪资", "流程进度", "备注", "公司链接"
-        };
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (StreamingExportWriter writer = new StreamingExportWriter()) {
+            writer.writeRecords(records);
+            writer.finish(outputStream);
+        }
+        return outputStream.toByteArray();
+    }
+    
+    /**
+     * 流式Excel导出器
+     * 基于SXSSFWorkbook，内存中只保留固定窗口的行，可分批写入任意数量的记录
+     */
+    public static class StreamingExportWriter implements Closeable {
         
-        CellStyle headerStyle = workbook.createCellStyle();
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerStyle.setFont(headerFont);
-        headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        private final SXSSFWorkbook workbook;
+        private final Sheet sheet;
+        private int rowNum = 1;
         
-        for (int i = 0; i < headers.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(headers[i]);
-            cell.setCellStyle(headerStyle);
+        public StreamingExportWriter() {
+            workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
+            workbook.setCompressTempFiles(true);
+            sheet = workbook.createSheet("投递记录");
+            
+            // 创建标题行
+            Row headerRow = sheet.createRow(0);
+            
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            
+            for (int i = 0; i < HEADERS.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(HEADERS[i]);
+                cell.setCellStyle(headerStyle);
+                // 中文字符按两个字符宽度计算
+                sheet.setColumnWidth(i, COLUMN_WIDTHS[i] * 2 * 256);
+            }
         }
         
-        // 填充数据
-        int rowNum = 1;
-        for (ResumeRecordDTO record : records) {
-            // 处理多岗位记录 - 每个岗位一行
-            if (record.getPositions() != null && !record.getPositions().isEmpty()) {
-                for (ResumeRecordDTO.PositionInfo position : record.getPositions()) {
+        /**
+         * 写入一批记录
+         */
+        public void writeRecords(List<ResumeRecordDTO> records) {
+            for (ResumeRecordDTO record : records) {
+                // 处理多岗位记录 - 每个岗位一行
+                if (record.getPositions() != null && !record.getPositions().isEmpty()) {
+                    for (ResumeRecordDTO.PositionInfo position : record.getPositions()) {
+                        Row row = sheet.createRow(rowNum++);
+                        fillRowData(workbook, row, record, position);
+                    }
+                } else {
+                    // 单岗位记录
                     Row row = sheet.createRow(rowNum++);
-                    fillRowData(workbook, row, record, position);
+                    fillRowData(workbook, row, record, null);
                 }
-            } else {
-                // 单岗位记录
-                Row row = sheet.createRow(rowNum++);
-                fillRowData(workbook, row, record, null);
             }
         }
         
-        // 自动调整列宽
-        for (int i = 0; i < headers.length; i++) {
-            sheet.autoSizeColumn(i);
+        /**
+         * 将工作簿写出到输出流
+         */
+        public void finish(OutputStream outputStream) throws IOException {
+            workbook.write(outputStream);
+            outputStream.flush();
         }
         
-        // 转换为字节数组
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
-        
-        return outputStream.toByteArray();
+        /**
+         * 释放工作簿及临时文件
+         */
+        @Override
+        public void close() throws IOException {
+            workbook.dispose();
+            workbook.close();
+        }
     }
     
     /**
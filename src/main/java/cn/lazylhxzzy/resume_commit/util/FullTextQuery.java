@@ -0,0 +1,76 @@
+package cn.lazylhxzzy.resume_commit.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全文检索表达式构造
+ * 把用户输入的关键词转换为MySQL布尔模式（IN BOOLEAN MODE）的检索表达式，输入中的布尔运算符会被去掉
+ */
+public final class FullTextQuery {
+    
+    /**
+     * 短语检索：关键词按顺序相邻出现
+     */
+    public static final String MODE_PHRASE = "PHRASE";
+    
+    /**
+     * 全部词项都要出现
+     */
+    public static final String MODE_ALL = "ALL";
+    
+    /**
+     * 任一词项出现即可，按命中程度排序
+     */
+    public static final String MODE_ANY = "ANY";
+    
+    private static final String OPERATORS = "+-<>()~*\"@";
+    
+    private FullTextQuery() {
+    }
+    
+    public static String build(String keyword, String mode) {
+        List<String> terms = new ArrayList<>();
+        if (keyword != null) {
+            for (String token : keyword.trim().split("\\s+")) {
+                String term = stripOperators(token);
+                if (!term.isEmpty()) {
+                    terms.add(term);
+                }
+            }
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("搜索关键词不能为空");
+        }
+        
+        String normalizedMode = mode != null ? mode.trim().toUpperCase() : MODE_ALL;
+        switch (normalizedMode) {
+            case MODE_PHRASE:
+                return "\"" + String.join(" ", terms) + "\"";
+            case MODE_ANY:
+                return String.join(" ", terms);
+            case MODE_ALL:
+                StringBuilder builder = new StringBuilder();
+                for (String term : terms) {
+                    if (builder.length() > 0) {
+                        builder.append(' ');
+                    }
+                    builder.append('+').append(term);
+                }
+                return builder.toString();
+            default:
+                throw new IllegalArgumentException("不支持的搜索模式: " + mode);
+        }
+    }
+    
+    private static String stripOperators(String token) {
+        StringBuilder builder = new StringBuilder(token.length());
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (OPERATORS.indexOf(c) < 0) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -1,15 +1,23 @@
 package cn.lazylhxzzy.resume_commit.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -24,20 +32,97 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
     
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+    
+    @Value("${jwt.cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+    
+    private SecretKey signingKey;
+    
+    private JwtParser parser;
+    
+    /**
+     * 已验证的claims缓存，按token的SHA-256摘要索引，按访问顺序淘汰最久未使用的条目
+     */
+    private Map<String, CachedClaims> claimsCache;
+    
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        claimsCache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+                return size() > cacheMaxSize;
+            }
+        });
+    }
+    
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
+    }
+    
+    /**
+     * 解析并验证token，返回claims
+     * 验证通过的结果会缓存，缓存有效期不超过token本身的过期时间，期间重复请求不再做签名校验
+     * 缓存中保存独立的副本，每次返回新的副本，调用方修改返回值不会影响其他请求
+     *
+     * @throws io.jsonwebtoken.JwtException token无效或已过期
+     */
+    public Claims parse(String token) {
+        String cacheKey = digest(token);
+        long now = System.currentTimeMillis();
+        
+        CachedClaims cached = claimsCache.get(cacheKey);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                return Jwts.claims(cached.claims);
+            }
+            claimsCache.remove(cacheKey);
+        }
+        
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        long expiresAt = now + cacheTtlSeconds * 1000;
+        if (claims.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+        }
+        claimsCache.put(cacheKey, new CachedClaims(Jwts.claims(claims), expiresAt));
+        return claims;
     }
     
     /**
      * 生成JWT token
      */
     public String generateToken(String username, String role) {
+        return generateToken(null, username, role);
+    }
+    
+    /**
+     * 生成包含用户ID的JWT token，认证时可直接按ID定位用户
+     */
+    public String generateToken(Long userId, String username, String role) {
         Map<String, Object> claims = new HashMap<>();
+        if (userId != null) {
+            claims.put("userId", userId);
+        }
         claims.put("username", username);
         claims.put("role", role);
         return createToken(claims, username);
     }
     
+    /**
+     * 从token中获取用户ID，旧token没有该声明时返回null
+     */
+    public Long getUserIdFromToken(String token) {
+        return getClaimFromToken(token, claims -> {
+            Object userId = claims.get("userId");
+            return userId instanceof Number ? ((Number) userId).longValue() : null;
+        });
+    }
+    
     /**
      * 创建token
      */
@@ -84,11 +169,7 @@ public class JwtUtil {
      * 从token中获取所有信息
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parse(token);
     }
     
     /**
@@ -117,4 +198,30 @@ public class JwtUtil {
             return false;
         }
     }
+    
+    /**
+     * 计算token的SHA-256摘要，作为缓存键，避免在内存中以明文token为键
+     */
+    private String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+    
+    /**
+     * 缓存的claims及其失效时间（毫秒时间戳）
+     */
+    private static class CachedClaims {
+        private final Claims claims;
+        private final long expiresAt;
+        
+        CachedClaims(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -0,0 +1,138 @@
+package cn.lazylhxzzy.resume_commit.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁耗时直方图（HDR风格的对数-线性分桶）
+ * 每个2的幂区间再细分为8个子桶，分位数相对误差不超过12.5%，记录只做几次原子自增
+ * 单位为微秒
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+    
+    /**
+     * 记录一次调用耗时
+     */
+    public void record(long micros, boolean error) {
+        if (micros < 0) {
+            micros = 0;
+        }
+        counts.incrementAndGet(indexOf(micros));
+        totalMicros.addAndGet(micros);
+        if (error) {
+            errorCount.incrementAndGet();
+        }
+        long currentMax = maxMicros.get();
+        while (micros > currentMax && !maxMicros.compareAndSet(currentMax, micros)) {
+            currentMax = maxMicros.get();
+        }
+    }
+    
+    /**
+     * 获取当前累计数据的快照，不清零
+     */
+    public Snapshot snapshot() {
+        long[] values = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            values[i] = counts.get(i);
+        }
+        return new Snapshot(values, errorCount.get(), totalMicros.get(), maxMicros.get());
+    }
+    
+    /**
+     * 获取快照并清零，用于按周期汇总
+     * 每次记录最终只会计入某一个周期，桶计数与总数不会重复统计
+     */
+    public Snapshot snapshotAndReset() {
+        long[] values = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            values[i] = counts.getAndSet(i, 0);
+        }
+        return new Snapshot(values, errorCount.getAndSet(0), totalMicros.getAndSet(0), maxMicros.getAndSet(0));
+    }
+    
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+    
+    /**
+     * 直方图快照
+     */
+    public static class Snapshot {
+        
+        private final long[] counts;
+        private final long count;
+        private final long errorCount;
+        private final long totalMicros;
+        private final long maxMicros;
+        
+        Snapshot(long[] counts, long errorCount, long totalMicros, long maxMicros) {
+            this.counts = counts;
+            long sum = 0;
+            for (long c : counts) {
+                sum += c;
+            }
+            this.count = sum;
+            this.errorCount = errorCount;
+            this.totalMicros = totalMicros;
+            this.maxMicros = maxMicros;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public long getErrorCount() {
+            return errorCount;
+        }
+        
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+        
+        public double getMeanMicros() {
+            return count == 0 ? 0 : (double) totalMicros / count;
+        }
+        
+        /**
+         * 计算分位数（0-1），返回所在桶的上界，不超过记录到的最大值
+         */
+        public long percentile(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+}
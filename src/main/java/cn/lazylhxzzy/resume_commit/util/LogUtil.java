@@ -1,19 +1,16 @@
 package cn.lazylhxzzy.resume_commit.util;
 
-import cn.lazylhxzzy.resume_commit.entity.User;
-import cn.lazylhxzzy.resume_commit.mapper.UserMapper;
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
 import cn.lazylhxzzy.resume_commit.service.LogService;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
-import jakarta.servlet.http.HttpServletRequest;
 import java.util.Map;
 
 /**
  * 日志工具类
+ * 用户和请求信息取自UserContextHolder，不再为每条日志解析token和查询用户
  */
 @Component
 public class LogUtil {
@@ -21,59 +18,74 @@ public class LogUtil {
     @Autowired
     private LogService logService;
     
-    @Autowired
-    private JwtUtil jwtUtil;
-    
-    @Autowired
-    private UserMapper userMapper;
+    /**
+     * 是否通过logExecutor异步记录日志，关闭后在调用线程同步记录
+     */
+    @Value("${log.async.enabled:true}")
+    private boolean asyncEnabled;
     
     /**
      * 记录INFO级别系统日志
      */
     public void info(String module, String operation, String message) {
-        logService.logSystem("INFO", "SYSTEM", module, operation, 
-                           getCurrentUserId(), getCurrentUsername(), getCurrentIp(), getUserAgent(),
-                           null, null, null, null, null, null, message, null, null);
+        system("INFO", module, operation, message);
     }
     
     /**
      * 记录WARN级别系统日志
      */
     public void warn(String module, String operation, String message) {
-        logService.logSystem("WARN", "SYSTEM", module, operation,
-                           getCurrentUserId(), getCurrentUsername(), getCurrentIp(), getUserAgent(),
-                           null, null, null, null, null, null, message, null, null);
+        system("WARN", module, operation, message);
     }
     
     /**
      * 记录ERROR级别系统日志
      */
     public void error(String module, String operation, String errorCode, String errorMessage, String stackTrace) {
-        logService.logError(module, operation, getCurrentUserId(), getCurrentUsername(),
-                          getCurrentIp(), errorCode, errorMessage, stackTrace, null);
+        if (asyncEnabled) {
+            logService.logErrorAsync(module, operation, getCurrentUserId(), getCurrentUsername(),
+                                   getCurrentIp(), errorCode, errorMessage, stackTrace, null);
+        } else {
+            logService.logError(module, operation, getCurrentUserId(), getCurrentUsername(),
+                              getCurrentIp(), errorCode, errorMessage, stackTrace, null);
+        }
     }
     
     /**
      * 记录业务日志
      */
     public void business(String operation, String message, Map<String, Object> businessData) {
-        logService.logBusiness(operation, getCurrentUserId(), getCurrentUsername(),
-                             getCurrentIp(), businessData);
+        if (asyncEnabled) {
+            logService.logBusinessAsync(operation, getCurrentUserId(), getCurrentUsername(),
+                                      getCurrentIp(), businessData);
+        } else {
+            logService.logBusiness(operation, getCurrentUserId(), getCurrentUsername(),
+                                 getCurrentIp(), businessData);
+        }
     }
     
     /**
      * 记录安全日志
      */
     public void security(String logType, String eventDescription, String riskLevel) {
-        logService.logSecurity(logType, getCurrentUserId(), getCurrentUsername(),
-                             getCurrentIp(), getUserAgent(), eventDescription, riskLevel, null);
+        if (asyncEnabled) {
+            logService.logSecurityAsync(logType, getCurrentUserId(), getCurrentUsername(),
+                                      getCurrentIp(), getUserAgent(), eventDescription, riskLevel, null);
+        } else {
+            logService.logSecurity(logType, getCurrentUserId(), getCurrentUsername(),
+                                 getCurrentIp(), getUserAgent(), eventDescription, riskLevel, null);
+        }
     }
     
     /**
      * 记录性能日志
      */
     public void performance(String module, String methodName, Long executionTime, Map<String, Object> metrics) {
-        logService.logPerformance(module, methodName, executionTime, null, null, metrics);
+        if (asyncEnabled) {
+            logService.logPerformanceAsync(module, methodName, executionTime, null, null, metrics);
+        } else {
+            logService.logPerformance(module, methodName, executionTime, null, null, metrics);
+        }
     }
     
     /**
@@ -83,114 +95,61 @@ public class LogUtil {
                          String requestMethod, String requestUrl, String requestParams,
                          Integer responseCode, Long responseTime, Long requestSize,
                          Long responseSize, String referer, String sessionId) {
-        logService.logAccess(userId, username, ipAddress, userAgent, requestMethod, requestUrl,
-                           requestParams, responseCode, responseTime, requestSize, responseSize,
-                           referer, sessionId);
-    }
-    
-    /**
-     * 获取当前用户ID
-     */
-    private Long getCurrentUserId() {
-        try {
-            String username = getCurrentUsername();
-            if (username != null) {
-                User user = userMapper.selectOne(new QueryWrapper<User>().eq("username", username));
-                return user != null ? user.getId() : null;
-            }
-        } catch (Exception e) {
-            // 忽略异常，返回null
+        if (asyncEnabled) {
+            logService.logAccessAsync(userId, username, ipAddress, userAgent, requestMethod, requestUrl,
+                                    requestParams, responseCode, responseTime, requestSize, responseSize,
+                                    referer, sessionId);
+        } else {
+            logService.logAccess(userId, username, ipAddress, userAgent, requestMethod, requestUrl,
+                               requestParams, responseCode, responseTime, requestSize, responseSize,
+                               referer, sessionId);
         }
-        return null;
     }
     
     /**
-     * 获取当前用户名
+     * 记录SYSTEM类型日志，请求相关信息在调用线程取出后再交给异步线程
      */
-    private String getCurrentUsername() {
-        try {
-            HttpServletRequest request = getCurrentRequest();
-            if (request != null) {
-                String token = getTokenFromRequest(request);
-                if (token != null) {
-                    return jwtUtil.getUsernameFromToken(token);
-                }
-            }
-        } catch (Exception e) {
-            // 忽略异常，返回null
+    private void system(String level, String module, String operation, String message) {
+        if (asyncEnabled) {
+            logService.logSystemAsync(level, "SYSTEM", module, operation,
+                                    getCurrentUserId(), getCurrentUsername(), getCurrentIp(), getUserAgent(),
+                                    null, null, null, null, null, null, message, null, null);
+        } else {
+            logService.logSystem(level, "SYSTEM", module, operation,
+                               getCurrentUserId(), getCurrentUsername(), getCurrentIp(), getUserAgent(),
+                               null, null, null, null, null, null, message, null, null);
         }
-        return null;
     }
     
     /**
-     * 获取当前请求对象
+     * 获取当前用户ID
      */
-    private HttpServletRequest getCurrentRequest() {
-        try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            return attributes != null ? attributes.getRequest() : null;
-        } catch (Exception e) {
-            return null;
-        }
+    private Long getCurrentUserId() {
+        UserContext context = UserContextHolder.get();
+        return context != null ? context.getUserId() : null;
     }
     
     /**
-     * 从请求中获取JWT Token
+     * 获取当前用户名
      */
-    private String getTokenFromRequest(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            return authHeader.substring(7);
-        }
-        return null;
+    private String getCurrentUsername() {
+        UserContext context = UserContextHolder.get();
+        return context != null ? context.getUsername() : null;
     }
     
     /**
      * 获取当前IP地址
      */
     private String getCurrentIp() {
-        try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                return getClientIpAddress(request);
-            }
-        } catch (Exception e) {
-            // 忽略异常
-        }
-        return "unknown";
+        UserContext context = UserContextHolder.get();
+        return context != null && context.getIpAddress() != null ? context.getIpAddress() : "unknown";
     }
     
     /**
      * 获取用户代理
      */
     private String getUserAgent() {
-        try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                return request.getHeader("User-Agent");
-            }
-        } catch (Exception e) {
-            // 忽略异常
-        }
-        return "unknown";
-    }
-    
-    /**
-     * 获取客户端真实IP地址
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
+        UserContext context = UserContextHolder.get();
+        return context != null && context.getUserAgent() != null ? context.getUserAgent() : "unknown";
     }
 }
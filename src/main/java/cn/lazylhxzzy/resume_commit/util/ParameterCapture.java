@@ -0,0 +1,492 @@
+package cn.lazylhxzzy.resume_commit.util;
+
+import cn.lazylhxzzy.resume_commit.annotation.Sensitive;
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 请求参数日志捕获
+ * 按类型输出参数摘要：集合、数组和上传文件只记录类型、数量和前几项，DTO按字段逐个输出，
+ * 标注@Sensitive或参数名、字段名含password/secret/token的参数和字段替换为***，
+ * 内容含这些关键字的字符串参数同样替换。输出按UTF-8字节数封顶，
+ * 写满后立即停止遍历，捕获开销与上限成正比而与参数大小无关。每个线程复用同一个缓冲区
+ */
+@Component
+public class ParameterCapture {
+    
+    static final String REDACTED = "***";
+    
+    static final String TRUNCATED = "...(truncated)";
+    
+    private static final String[] SENSITIVE_NAMES = {"password", "secret", "token"};
+    
+    /**
+     * 缓冲区超过该容量时不再复用，避免个别大请求把线程缓冲区长期撑大
+     */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    
+    /**
+     * 输出上限（UTF-8字节）
+     */
+    @Value("${log.params.max-bytes:2048}")
+    private int maxBytes;
+    
+    /**
+     * 集合、数组、Map最多输出的元素个数
+     */
+    @Value("${log.params.max-items:5}")
+    private int maxItems;
+    
+    /**
+     * 对象嵌套的最大展开层数，超过后只输出类型名
+     */
+    @Value("${log.params.max-depth:3}")
+    private int maxDepth;
+    
+    private final ThreadLocal<Output> buffers = ThreadLocal.withInitial(Output::new);
+    
+    private final List<Registration<?>> summarizers = new CopyOnWriteArrayList<>();
+    
+    private final Map<Class<?>, Summarizer<Object>> summarizerCache = new ConcurrentHashMap<>();
+    
+    private final Map<Class<?>, FieldInfo[]> fieldCache = new ConcurrentHashMap<>();
+    
+    private final Map<Method, boolean[]> sensitiveParamCache = new ConcurrentHashMap<>();
+    
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+    
+    /**
+     * 类型摘要器，按类型把参数写成有限长度的摘要
+     */
+    @FunctionalInterface
+    public interface Summarizer<T> {
+        void summarize(T value, Output out, int depth);
+    }
+    
+    public ParameterCapture() {
+        register(MultipartFile.class, (file, out, depth) -> {
+            out.raw("{\"file\":").string(file.getOriginalFilename())
+               .raw(",\"size\":").number(file.getSize())
+               .raw(",\"contentType\":").string(file.getContentType()).raw("}");
+        });
+        register(byte[].class, (bytes, out, depth) -> out.raw("{\"bytes\":").number(bytes.length).raw("}"));
+        register(char[].class, (chars, out, depth) -> out.raw("{\"chars\":").number(chars.length).raw("}"));
+        for (Class<?> opaque : new Class<?>[]{ServletRequest.class, ServletResponse.class, UserContext.class,
+                                              Errors.class, InputStream.class, OutputStream.class,
+                                              Reader.class, Writer.class}) {
+            register(opaque, (value, out, depth) -> out.string("<" + value.getClass().getSimpleName() + ">"));
+        }
+    }
+    
+    /**
+     * 注册类型摘要器，后注册的优先匹配
+     */
+    public <T> void register(Class<T> type, Summarizer<? super T> summarizer) {
+        summarizers.add(0, new Registration<>(type, summarizer));
+        summarizerCache.clear();
+    }
+    
+    /**
+     * 捕获方法参数，method用于读取参数上的@Sensitive和参数名，可以为null
+     */
+    public String capture(Method method, Object[] args) {
+        if (args == null || args.length == 0) {
+            return "[]";
+        }
+        boolean[] sensitive = method != null ? sensitiveParameters(method) : null;
+        Output out = buffers.get().reset(maxBytes);
+        try {
+            out.raw("[");
+            for (int i = 0; i < args.length && !out.isFull(); i++) {
+                if (i > 0) {
+                    out.raw(",");
+                }
+                if (args[i] != null && (sensitive != null && i < sensitive.length && sensitive[i]
+                        || args[i] instanceof CharSequence text && isSensitiveName(text.toString()))) {
+                    out.string(REDACTED);
+                } else {
+                    write(args[i], out, 0);
+                }
+            }
+            out.raw("]");
+            return out.finish();
+        } catch (RuntimeException e) {
+            return "参数序列化失败: " + e.getMessage();
+        } finally {
+            out.release();
+        }
+    }
+    
+    private void write(Object value, Output out, int depth) {
+        if (out.isFull()) {
+            return;
+        }
+        if (value == null) {
+            out.raw("null");
+            return;
+        }
+        Class<?> type = value.getClass();
+        Summarizer<Object> summarizer = summarizerCache.computeIfAbsent(type, this::resolveSummarizer);
+        summarizer.summarize(value, out, depth);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Summarizer<Object> resolveSummarizer(Class<?> type) {
+        for (Registration<?> registration : summarizers) {
+            if (registration.type.isAssignableFrom(type)) {
+                return (Summarizer<Object>) registration.summarizer;
+            }
+        }
+        if (CharSequence.class.isAssignableFrom(type)) {
+            return (value, out, depth) -> out.string((CharSequence) value);
+        }
+        if (Number.class.isAssignableFrom(type) || type == Boolean.class) {
+            return (value, out, depth) -> out.raw(value.toString());
+        }
+        if (type == Character.class || type.isEnum() || type == UUID.class
+            || TemporalAccessor.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)) {
+            return (value, out, depth) -> out.string(value.toString());
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return (value, out, depth) -> writeCollection((Collection<?>) value, out, depth);
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return (value, out, depth) -> writeMap((Map<?, ?>) value, out, depth);
+        }
+        if (type.isArray()) {
+            return (value, out, depth) -> writeArray(value, out, depth);
+        }
+        String name = type.getName();
+        if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jakarta.")
+            || name.startsWith("org.springframework.")) {
+            // 框架和JDK类型不做反射展开，也不调用可能很昂贵的toString
+            String label = "<" + type.getSimpleName() + ">";
+            return (value, out, depth) -> out.string(label);
+        }
+        return this::writeObject;
+    }
+    
+    private void writeCollection(Collection<?> collection, Output out, int depth) {
+        out.raw("{\"type\":").string(collection.getClass().getSimpleName())
+           .raw(",\"size\":").number(collection.size());
+        if (depth < maxDepth && !collection.isEmpty()) {
+            out.raw(",\"items\":[");
+            Iterator<?> iterator = collection.iterator();
+            for (int i = 0; i < maxItems && iterator.hasNext() && !out.isFull(); i++) {
+                if (i > 0) {
+                    out.raw(",");
+                }
+                write(iterator.next(), out, depth + 1);
+            }
+            out.raw("]");
+        }
+        out.raw("}");
+    }
+    
+    private void writeArray(Object array, Output out, int depth) {
+        int length = Array.getLength(array);
+        out.raw("{\"type\":").string(array.getClass().getComponentType().getSimpleName() + "[]")
+           .raw(",\"size\":").number(length);
+        if (depth < maxDepth && length > 0 && !array.getClass().getComponentType().isPrimitive()) {
+            out.raw(",\"items\":[");
+            Object[] items = (Object[]) array;
+            for (int i = 0; i < Math.min(maxItems, length) && !out.isFull(); i++) {
+                if (i > 0) {
+                    out.raw(",");
+                }
+                write(items[i], out, depth + 1);
+            }
+            out.raw("]");
+        }
+        out.raw("}");
+    }
+    
+    private void writeMap(Map<?, ?> map, Output out, int depth) {
+        if (depth >= maxDepth) {
+            out.raw("{\"size\":").number(map.size()).raw("}");
+            return;
+        }
+        out.raw("{");
+        int i = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (i >= maxItems || out.isFull()) {
+                out.raw(",\"...\":").number(map.size() - i);
+                break;
+            }
+            if (i > 0) {
+                out.raw(",");
+            }
+            String key = String.valueOf(entry.getKey());
+            out.string(key).raw(":");
+            if (isSensitiveName(key)) {
+                out.string(REDACTED);
+            } else {
+                write(entry.getValue(), out, depth + 1);
+            }
+            i++;
+        }
+        out.raw("}");
+    }
+    
+    private void writeObject(Object value, Output out, int depth) {
+        FieldInfo[] fields = fieldCache.computeIfAbsent(value.getClass(), this::inspectFields);
+        if (depth >= maxDepth || fields == null) {
+            out.string("<" + value.getClass().getSimpleName() + ">");
+            return;
+        }
+        out.raw("{");
+        boolean first = true;
+        for (FieldInfo field : fields) {
+            if (out.isFull()) {
+                break;
+            }
+            Object fieldValue;
+            try {
+                fieldValue = field.field.get(value);
+            } catch (IllegalAccessException e) {
+                continue;
+            }
+            if (fieldValue == null) {
+                continue;
+            }
+            if (!first) {
+                out.raw(",");
+            }
+            first = false;
+            out.string(field.name).raw(":");
+            if (field.sensitive) {
+                out.string(REDACTED);
+            } else {
+                write(fieldValue, out, depth + 1);
+            }
+        }
+        out.raw("}");
+    }
+    
+    /**
+     * 解析类的实例字段和脱敏标记，结果按类缓存，无法访问的类返回null
+     */
+    private FieldInfo[] inspectFields(Class<?> type) {
+        List<FieldInfo> fields = new ArrayList<>();
+        try {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                        continue;
+                    }
+                    field.setAccessible(true);
+                    boolean sensitive = field.isAnnotationPresent(Sensitive.class) || isSensitiveName(field.getName());
+                    fields.add(new FieldInfo(field, sensitive));
+                }
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return fields.toArray(new FieldInfo[0]);
+    }
+    
+    /**
+     * 标注@Sensitive或参数名敏感的参数，参数名取自编译时保留的-parameters信息
+     */
+    private boolean[] sensitiveParameters(Method method) {
+        return sensitiveParamCache.computeIfAbsent(method, m -> {
+            Annotation[][] annotations = m.getParameterAnnotations();
+            String[] names = parameterNameDiscoverer.getParameterNames(m);
+            boolean[] sensitive = new boolean[annotations.length];
+            for (int i = 0; i < annotations.length; i++) {
+                if (names != null && i < names.length && isSensitiveName(names[i])) {
+                    sensitive[i] = true;
+                }
+                for (Annotation annotation : annotations[i]) {
+                    if (annotation.annotationType() == Sensitive.class) {
+                        sensitive[i] = true;
+                    }
+                }
+            }
+            return sensitive;
+        });
+    }
+    
+    static boolean isSensitiveName(String name) {
+        for (String sensitive : SENSITIVE_NAMES) {
+            for (int i = 0; i + sensitive.length() <= name.length(); i++) {
+                if (name.regionMatches(true, i, sensitive, 0, sensitive.length())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 有字节上限的JSON输出缓冲区
+     */
+    public static final class Output {
+        
+        private final StringBuilder buffer = new StringBuilder(256);
+        
+        private int limit;
+        
+        private int bytes;
+        
+        private boolean full;
+        
+        Output reset(int limit) {
+            buffer.setLength(0);
+            this.limit = limit;
+            this.bytes = 0;
+            this.full = false;
+            return this;
+        }
+        
+        public boolean isFull() {
+            return full;
+        }
+        
+        /**
+         * 原样写入ASCII片段（括号、分隔符、数字等）
+         */
+        public Output raw(String text) {
+            if (full) {
+                return this;
+            }
+            if (bytes + text.length() > limit) {
+                full = true;
+                return this;
+            }
+            buffer.append(text);
+            bytes += text.length();
+            return this;
+        }
+        
+        public Output number(long value) {
+            return raw(Long.toString(value));
+        }
+        
+        /**
+         * 写入带引号和转义的字符串，超出上限的部分直接截断，不会读取剩余字符
+         */
+        public Output string(CharSequence text) {
+            if (text == null) {
+                return raw("null");
+            }
+            if (full || bytes + 2 > limit) {
+                full = true;
+                return this;
+            }
+            buffer.append('"');
+            bytes++;
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                int size;
+                String escape = null;
+                if (c == '"' || c == '\\') {
+                    size = 2;
+                } else if (c < 0x20) {
+                    escape = String.format("\\u%04x", (int) c);
+                    size = escape.length();
+                } else if (c < 0x80) {
+                    size = 1;
+                } else if (c < 0x800) {
+                    size = 2;
+                } else if (Character.isHighSurrogate(c)) {
+                    // 代理对整体占4字节，计在高位上
+                    size = 4;
+                } else if (Character.isLowSurrogate(c)) {
+                    size = 0;
+                } else {
+                    size = 3;
+                }
+                // 预留结束引号
+                if (bytes + size + 1 > limit) {
+                    full = true;
+                    break;
+                }
+                if (escape != null) {
+                    buffer.append(escape);
+                } else if (size == 2 && c < 0x80) {
+                    buffer.append('\\').append(c);
+                } else {
+                    buffer.append(c);
+                    if (Character.isHighSurrogate(c) && i + 1 < length) {
+                        buffer.append(text.charAt(++i));
+                    }
+                }
+                bytes += size;
+            }
+            buffer.append('"');
+            bytes++;
+            return this;
+        }
+        
+        String finish() {
+            if (full) {
+                buffer.append(TRUNCATED);
+            }
+            return buffer.toString();
+        }
+        
+        void release() {
+            if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                buffer.setLength(0);
+                buffer.trimToSize();
+            }
+        }
+    }
+    
+    private static final class Registration<T> {
+        
+        private final Class<T> type;
+        
+        private final Summarizer<? super T> summarizer;
+        
+        private Registration(Class<T> type, Summarizer<? super T> summarizer) {
+            this.type = type;
+            this.summarizer = summarizer;
+        }
+    }
+    
+    private static final class FieldInfo {
+        
+        private final Field field;
+        
+        private final String name;
+        
+        private final boolean sensitive;
+        
+        private FieldInfo(Field field, boolean sensitive) {
+            this.field = field;
+            this.name = field.getName();
+            this.sensitive = sensitive;
+        }
+    }
+}
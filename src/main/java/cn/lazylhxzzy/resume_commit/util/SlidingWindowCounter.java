@@ -0,0 +1,74 @@
+package cn.lazylhxzzy.resume_commit.util;
+
+import java.util.Arrays;
+
+/**
+ * 滑动窗口计数器
+ * 按秒分桶的环形数组，窗口向前滑动时减去过期桶的计数，维护窗口内总数，单次累加和查询均摊为常数时间
+ */
+public class SlidingWindowCounter {
+    
+    private final int windowSeconds;
+    private final long[] buckets;
+    
+    /**
+     * 最近一次滑动到的秒数
+     */
+    private long headSecond;
+    
+    private long total;
+    
+    public SlidingWindowCounter(int windowSeconds) {
+        if (windowSeconds <= 0) {
+            throw new IllegalArgumentException("窗口长度必须大于0");
+        }
+        this.windowSeconds = windowSeconds;
+        this.buckets = new long[windowSeconds];
+    }
+    
+    public int getWindowSeconds() {
+        return windowSeconds;
+    }
+    
+    /**
+     * 在指定秒累加计数，返回当前窗口内的总数
+     * 早于窗口起点的计数直接忽略
+     */
+    public synchronized long add(long epochSecond, long count) {
+        advance(epochSecond);
+        if (epochSecond > headSecond - windowSeconds) {
+            buckets[index(epochSecond)] += count;
+            total += count;
+        }
+        return total;
+    }
+    
+    /**
+     * 截至指定秒的窗口内总数
+     */
+    public synchronized long total(long epochSecond) {
+        advance(epochSecond);
+        return total;
+    }
+    
+    private void advance(long epochSecond) {
+        if (epochSecond <= headSecond) {
+            return;
+        }
+        if (epochSecond - headSecond >= windowSeconds) {
+            Arrays.fill(buckets, 0);
+            total = 0;
+        } else {
+            for (long second = headSecond + 1; second <= epochSecond; second++) {
+                int i = index(second);
+                total -= buckets[i];
+                buckets[i] = 0;
+            }
+        }
+        headSecond = epochSecond;
+    }
+    
+    private int index(long epochSecond) {
+        return (int) (epochSecond % windowSeconds);
+    }
+}
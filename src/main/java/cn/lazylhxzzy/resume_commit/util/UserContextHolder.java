@@ -0,0 +1,30 @@
+package cn.lazylhxzzy.resume_commit.util;
+
+import cn.lazylhxzzy.resume_commit.dto.UserContext;
+
+/**
+ * 用户上下文持有者
+ * 请求线程上由过滤器设置和清除，线程池任务通过UserContextTaskDecorator继承提交线程的上下文
+ */
+public final class UserContextHolder {
+
+    private static final ThreadLocal<UserContext> CONTEXT = new ThreadLocal<>();
+
+    private UserContextHolder() {
+    }
+
+    public static void set(UserContext context) {
+        CONTEXT.set(context);
+    }
+
+    /**
+     * 获取当前上下文，不在请求或任务中时返回null
+     */
+    public static UserContext get() {
+        return CONTEXT.get();
+    }
+
+    public static void clear() {
+        CONTEXT.remove();
+    }
+}
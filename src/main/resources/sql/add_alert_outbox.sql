@@ -0,0 +1,10 @@
+-- 为已有数据库的告警记录表添加发送队列字段
+USE resume_commit;
+
+-- PENDING状态的告警即待发送队列，失败后按next_attempt_at退避重试
+-- 发送前认领为SENDING，此时next_attempt_at为认领租约的到期时间
+ALTER TABLE log_alerts
+    ADD COLUMN attempts INT NOT NULL DEFAULT 0 COMMENT '已尝试发送次数' AFTER error_message,
+    ADD COLUMN next_attempt_at DATETIME COMMENT '下次发送时间' AFTER attempts;
+
+CREATE INDEX idx_alerts_status_next_attempt ON log_alerts(status, next_attempt_at);
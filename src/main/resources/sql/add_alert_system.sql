@@ -25,12 +25,14 @@ CREATE TABLE log_alerts (
     severity VARCHAR(20) NOT NULL COMMENT '严重程度：LOW, MEDIUM, HIGH, CRITICAL',
     message TEXT NOT NULL COMMENT '告警消息',
     details TEXT COMMENT '详细信息',
-    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT '状态：PENDING, SENT, FAILED',
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT '状态：PENDING, SENDING, SENT, FAILED',
     notification_type VARCHAR(20) COMMENT '通知类型',
     notification_target VARCHAR(500) COMMENT '通知目标',
     triggered_at DATETIME NOT NULL COMMENT '触发时间',
     sent_at DATETIME COMMENT '发送时间',
     error_message TEXT COMMENT '错误信息',
+    attempts INT NOT NULL DEFAULT 0 COMMENT '已尝试发送次数',
+    next_attempt_at DATETIME COMMENT '下次发送时间',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
@@ -38,6 +40,7 @@ CREATE TABLE log_alerts (
 CREATE INDEX idx_alert_configs_type ON log_alert_configs(alert_type);
 CREATE INDEX idx_alert_configs_enabled ON log_alert_configs(enabled);
 CREATE INDEX idx_alerts_status ON log_alerts(status);
+CREATE INDEX idx_alerts_status_next_attempt ON log_alerts(status, next_attempt_at);
 CREATE INDEX idx_alerts_severity ON log_alerts(severity);
 CREATE INDEX idx_alerts_triggered_at ON log_alerts(triggered_at);
 
@@ -0,0 +1,8 @@
+-- 系统日志全文索引
+USE resume_commit;
+
+-- /logs/search 在 error_message 和 operation 上做全文检索，按相关度排序
+-- 使用ngram分词以支持中文，词项长度不能小于 ngram_token_size（默认2）
+-- 注意：分区表不支持全文索引，开启system_logs分区（add_log_partitions.sql）前需删除该索引，之后搜索不可用
+ALTER TABLE system_logs
+    ADD FULLTEXT INDEX ft_error_operation (error_message, operation) WITH PARSER ngram;
@@ -0,0 +1,62 @@
+-- 日志表按时间分区（配合 log.partition.enabled=true 使用）
+USE resume_commit;
+
+-- 说明：
+-- 1. 按 UNIX_TIMESTAMP(created_at) 做RANGE分区，分区键必须包含在主键中，主键改为 (id, created_at)
+-- 2. 转换时会重建整张表，数据量大时请在低峰期执行
+-- 3. 已有数据全部放入 p_history，其上界为执行当天的次日零点（由 @history_bound 在执行时计算）；
+--    p_future 为兜底分区，应用启动后由LogPartitionTask读取已有分区的实际上界，从中拆出之后按天/按月的分区
+-- 4. p_history 全部过期前其中的过期记录由清理任务按主键分批删除，各分区（含p_history）到期后整块删除
+-- 5. 分区表不支持外键和FULLTEXT索引，如已执行add_log_fulltext.sql，需先删除system_logs上的全文索引：
+--    ALTER TABLE system_logs DROP INDEX ft_error_operation;
+
+-- 分区上界必须是常量表达式，这里先算出次日零点的时间戳，再拼接为DDL执行
+SET @history_bound = UNIX_TIMESTAMP(CURDATE() + INTERVAL 1 DAY);
+SET @partition_clause = CONCAT(
+    ' PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (',
+    ' PARTITION p_history VALUES LESS THAN (', @history_bound, '),',
+    ' PARTITION p_future VALUES LESS THAN MAXVALUE)');
+
+-- 系统日志表
+ALTER TABLE system_logs
+    MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+SET @ddl = CONCAT('ALTER TABLE system_logs', @partition_clause);
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 访问日志表
+ALTER TABLE access_logs
+    MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+SET @ddl = CONCAT('ALTER TABLE access_logs', @partition_clause);
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 安全日志表
+ALTER TABLE security_logs
+    MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+SET @ddl = CONCAT('ALTER TABLE security_logs', @partition_clause);
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 性能监控日志表
+ALTER TABLE performance_logs
+    MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+SET @ddl = CONCAT('ALTER TABLE performance_logs', @partition_clause);
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
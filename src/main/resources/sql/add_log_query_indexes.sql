@@ -0,0 +1,29 @@
+-- 为已有数据库添加日志查询索引
+USE resume_commit;
+
+-- 日志查询按(created_at, id)倒序游标分页，等值筛选条件均有对应复合索引，
+-- 按索引顺序读取即可满足排序，取够一页即停止，不再需要文件排序
+-- 模块、用户名、IP等模糊条件无法使用索引，沿(created_at, id)索引倒序扫描时过滤
+
+-- 系统日志（错误日志查询即 log_level = 'ERROR'）
+ALTER TABLE system_logs
+    DROP INDEX idx_created_at,
+    ADD INDEX idx_created_at (created_at, id),
+    ADD INDEX idx_level_created (log_level, created_at, id);
+
+-- 访问日志
+ALTER TABLE access_logs
+    DROP INDEX idx_created_at,
+    DROP INDEX idx_response_code,
+    ADD INDEX idx_created_at (created_at, id),
+    ADD INDEX idx_response_code_created (response_code, created_at, id),
+    ADD INDEX idx_method_created (request_method, created_at, id);
+
+-- 安全日志
+ALTER TABLE security_logs
+    DROP INDEX idx_created_at,
+    DROP INDEX idx_log_type,
+    DROP INDEX idx_risk_level,
+    ADD INDEX idx_created_at (created_at, id),
+    ADD INDEX idx_log_type_created (log_type, created_at, id),
+    ADD INDEX idx_risk_level_created (risk_level, created_at, id);
@@ -0,0 +1,26 @@
+-- 日志统计汇总表
+USE resume_commit;
+
+-- 每行是一个时间桶内 来源 x 维度取值 的日志条数
+-- source: SYSTEM, ACCESS, SECURITY
+-- dimension: TOTAL, LEVEL, TYPE, MODULE, RESPONSE_CODE, RISK_LEVEL（TOTAL的dim_value为空字符串）
+
+-- 分钟汇总，默认保留7天（log.rollup.minute-retention-days）
+CREATE TABLE log_rollup_minute (
+    bucket_start DATETIME NOT NULL COMMENT '时间桶起点（整分钟）',
+    source VARCHAR(20) NOT NULL COMMENT '日志来源',
+    dimension VARCHAR(20) NOT NULL COMMENT '统计维度',
+    dim_value VARCHAR(200) NOT NULL DEFAULT '' COMMENT '维度取值',
+    log_count BIGINT NOT NULL DEFAULT 0 COMMENT '日志条数',
+    PRIMARY KEY (bucket_start, source, dimension, dim_value)
+) COMMENT '日志分钟汇总表';
+
+-- 小时汇总，由分钟汇总计算得到
+CREATE TABLE log_rollup_hour (
+    bucket_start DATETIME NOT NULL COMMENT '时间桶起点（整点）',
+    source VARCHAR(20) NOT NULL COMMENT '日志来源',
+    dimension VARCHAR(20) NOT NULL COMMENT '统计维度',
+    dim_value VARCHAR(200) NOT NULL DEFAULT '' COMMENT '维度取值',
+    log_count BIGINT NOT NULL DEFAULT 0 COMMENT '日志条数',
+    PRIMARY KEY (bucket_start, source, dimension, dim_value)
+) COMMENT '日志小时汇总表';
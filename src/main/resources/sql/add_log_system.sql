@@ -23,7 +23,8 @@ CREATE TABLE system_logs (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     INDEX idx_level_type (log_level, log_type),
     INDEX idx_user_id (user_id),
-    INDEX idx_created_at (created_at),
+    INDEX idx_created_at (created_at, id),
+    INDEX idx_level_created (log_level, created_at, id),
     INDEX idx_module (module),
     INDEX idx_operation (operation)
 ) COMMENT '系统日志表';
@@ -47,8 +48,9 @@ CREATE TABLE access_logs (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     INDEX idx_user_id (user_id),
     INDEX idx_ip_address (ip_address),
-    INDEX idx_created_at (created_at),
-    INDEX idx_response_code (response_code),
+    INDEX idx_created_at (created_at, id),
+    INDEX idx_response_code_created (response_code, created_at, id),
+    INDEX idx_method_created (request_method, created_at, id),
     INDEX idx_request_url (request_url(100))
 ) COMMENT '访问日志表';
 
@@ -64,11 +66,11 @@ CREATE TABLE security_logs (
     risk_level VARCHAR(20) DEFAULT 'LOW' COMMENT '风险级别：LOW, MEDIUM, HIGH, CRITICAL',
     additional_data JSON COMMENT '额外数据',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    INDEX idx_log_type (log_type),
+    INDEX idx_log_type_created (log_type, created_at, id),
     INDEX idx_user_id (user_id),
     INDEX idx_ip_address (ip_address),
-    INDEX idx_created_at (created_at),
-    INDEX idx_risk_level (risk_level)
+    INDEX idx_created_at (created_at, id),
+    INDEX idx_risk_level_created (risk_level, created_at, id)
 ) COMMENT '安全日志表';
 
 -- 性能监控日志表
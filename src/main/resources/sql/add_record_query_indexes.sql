@@ -0,0 +1,16 @@
+-- 为已有数据库添加投递记录查询索引
+USE resume_commit;
+
+-- 游标分页的排序键不允许为空，NULL会让(updated_at, id)游标比较跳过这些记录
+UPDATE resume_records SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+ALTER TABLE resume_records
+    MODIFY updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP;
+
+-- 游标分页按(updated_at, id)倒序，各筛选条件均有对应复合索引
+CREATE INDEX idx_records_updated ON resume_records(updated_at, id);
+CREATE INDEX idx_records_user_updated ON resume_records(user_id, updated_at, id);
+CREATE INDEX idx_records_user_group ON resume_records(user_id, company_group_id);
+CREATE INDEX idx_records_company_updated ON resume_records(company_name, updated_at, id);
+CREATE INDEX idx_records_status_updated ON resume_records(current_status, updated_at, id);
+CREATE INDEX idx_records_result_updated ON resume_records(final_result, updated_at, id);
+CREATE INDEX idx_records_apply_time ON resume_records(apply_time, id);
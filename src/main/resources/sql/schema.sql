@@ -46,7 +46,7 @@ CREATE TABLE resume_records (
     company_group_id VARCHAR(50) NULL, -- 公司分组ID，相同公司的记录使用相同ID
     is_primary BOOLEAN DEFAULT FALSE, -- 是否为主要岗位（用于前端显示）
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, -- 游标分页的排序键，不允许为空
     FOREIGN KEY (user_id) REFERENCES users(id)
 );
 
@@ -60,6 +60,15 @@ CREATE TABLE interview_records (
     FOREIGN KEY (resume_record_id) REFERENCES resume_records(id) ON DELETE CASCADE
 );
 
+-- 投递记录查询索引（游标分页按(updated_at, id)倒序，各筛选条件均有对应复合索引）
+CREATE INDEX idx_records_updated ON resume_records(updated_at, id);
+CREATE INDEX idx_records_user_updated ON resume_records(user_id, updated_at, id);
+CREATE INDEX idx_records_user_group ON resume_records(user_id, company_group_id);
+CREATE INDEX idx_records_company_updated ON resume_records(company_name, updated_at, id);
+CREATE INDEX idx_records_status_updated ON resume_records(current_status, updated_at, id);
+CREATE INDEX idx_records_result_updated ON resume_records(final_result, updated_at, id);
+CREATE INDEX idx_records_apply_time ON resume_records(apply_time, id);
+
 -- 插入默认ROOT用户 (密码: admin123)
 INSERT INTO users (username, password, email, role) VALUES 
 ('admin', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iAt6Z5EHsM8lE9lBOsl7iKTVEFDi', 'admin@lazylhxzzy.cn', 'ROOT');
@@ -0,0 +1,108 @@
+package cn.lazylhxzzy.resume_commit.controller;
+
+import cn.lazylhxzzy.resume_commit.entity.SystemLog;
+import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 日志游标分页测试
+ */
+@ExtendWith(MockitoExtension.class)
+class LogControllerTest {
+
+    private static final LocalDateTime SAME_TIME = LocalDateTime.of(2026, 10, 17, 10, 0, 0);
+
+    @Mock
+    private SystemLogMapper systemLogMapper;
+
+    @InjectMocks
+    private LogController logController;
+
+    @Test
+    void fullPageReturnsCursorOfLastRecord() {
+        // 多取的一条说明还有下一页，游标取本页最后一条
+        when(systemLogMapper.selectList(any())).thenReturn(buildLogs(9, 8, 7));
+
+        Map<String, Object> response = querySystemLogs(null);
+
+        assertEquals(2, ((List<?>) response.get("records")).size());
+        assertEquals(true, response.get("hasMore"));
+        assertEquals(SAME_TIME + ",8", response.get("nextCursor"));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(systemLogMapper.selectList(any())).thenReturn(buildLogs(2, 1));
+
+        Map<String, Object> response = querySystemLogs(SAME_TIME + ",3");
+
+        assertEquals(2, ((List<?>) response.get("records")).size());
+        assertEquals(false, response.get("hasMore"));
+        assertNull(response.get("nextCursor"));
+    }
+
+    @Test
+    void cursorBreaksCreatedAtTiesById() {
+        when(systemLogMapper.selectList(any())).thenReturn(new ArrayList<>());
+
+        querySystemLogs(SAME_TIME + ",8");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<QueryWrapper<SystemLog>> captor = ArgumentCaptor.forClass(QueryWrapper.class);
+        verify(systemLogMapper).selectList(captor.capture());
+        QueryWrapper<SystemLog> queryWrapper = captor.getValue();
+        String sql = queryWrapper.getSqlSegment();
+        assertTrue(sql.contains("created_at <"), sql);
+        assertTrue(sql.contains("created_at =") && sql.contains("id <"), sql);
+        assertTrue(sql.contains("ORDER BY created_at DESC,id DESC"), sql);
+        assertTrue(queryWrapper.getParamNameValuePairs().values().containsAll(List.of(SAME_TIME, 8L)));
+        // 多取一条判断是否还有下一页
+        assertTrue(sql.endsWith("LIMIT 3"), sql);
+    }
+
+    @Test
+    void malformedCursorIsRejectedAsBadRequest() {
+        for (String cursor : List.of("abc", "2026-10-17 10:00,8", SAME_TIME + ",x", SAME_TIME.toString())) {
+            ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> querySystemLogs(cursor));
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        }
+        verify(systemLogMapper, never()).selectList(any());
+    }
+
+    private Map<String, Object> querySystemLogs(String before) {
+        return logController.getSystemLogs(null, 2, before, false, null, null, null, null);
+    }
+
+    private List<SystemLog> buildLogs(long... ids) {
+        List<SystemLog> logs = new ArrayList<>();
+        for (long id : ids) {
+            SystemLog log = new SystemLog();
+            log.setId(id);
+            log.setCreatedAt(SAME_TIME);
+            logs.add(log);
+        }
+        return logs;
+    }
+}
@@ -0,0 +1,122 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.AccessLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 访问日志缓冲文件测试
+ */
+class AccessLogSpoolTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsRoundTripThroughRotatedSegments() throws Exception {
+        AccessLogSpool spool = createSpool(4096, 1024 * 1024);
+        List<AccessLog> written = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            AccessLog log = buildLog(i);
+            written.add(log);
+            assertTrue(spool.append(log));
+        }
+        spool.close();
+
+        List<Path> segments = spool.listClosedSegments();
+        assertTrue(segments.size() > 1, "写满后应轮转到新分段");
+        assertEquals(segments.size(), spool.getPendingSegments());
+
+        List<AccessLog> read = new ArrayList<>();
+        for (Path segment : segments) {
+            read.addAll(AccessLogSpool.readSegment(segment));
+        }
+        assertEquals(written, read);
+        assertNull(read.get(0).getUserId());
+        assertEquals("张三1", read.get(1).getUsername());
+    }
+
+    @Test
+    void recordsAreDroppedWhenDiskQuotaIsUsedUp() throws Exception {
+        AccessLogSpool spool = createSpool(4096, 4096 * 2);
+        int appended = 0;
+        for (int i = 0; i < 200; i++) {
+            if (spool.append(buildLog(i))) {
+                appended++;
+            }
+        }
+        assertTrue(appended > 0);
+        assertEquals(200 - appended, spool.getDroppedCount());
+        spool.finishRetiredSegments();
+
+        // 导入一个分段后可以继续写入
+        Path first = spool.listClosedSegments().get(0);
+        spool.onSegmentLoaded(first, AccessLogSpool.readSegment(first).size());
+        assertTrue(spool.append(buildLog(0)));
+        assertFalse(spool.listClosedSegments().contains(first));
+        spool.close();
+    }
+
+    @Test
+    void corruptSegmentIsQuarantined() throws Exception {
+        AccessLogSpool spool = createSpool(4096, 1024 * 1024);
+        spool.append(buildLog(1));
+        spool.close();
+        Path segment = spool.listClosedSegments().get(0);
+        // 把第一个字符串字段的长度改成超出记录范围，解码时抛出运行时异常
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f, 0x7f, 0x7f, 0x7f}), 8 + 4 + 8 + 4 + 9);
+        }
+
+        AccessLogSpoolLoader loader = new AccessLogSpoolLoader();
+        ReflectionTestUtils.setField(loader, "accessLogSpool", spool);
+        loader.loadSegment(segment);
+
+        assertTrue(spool.listClosedSegments().isEmpty());
+        assertTrue(Files.exists(segment.resolveSibling(segment.getFileName() + AccessLogSpool.BAD_SUFFIX)));
+    }
+
+    private AccessLogSpool createSpool(int segmentBytes, long maxDiskBytes) {
+        AccessLogSpool spool = new AccessLogSpool();
+        ReflectionTestUtils.setField(spool, "enabled", true);
+        ReflectionTestUtils.setField(spool, "dir", dir.toString());
+        ReflectionTestUtils.setField(spool, "segmentBytes", segmentBytes);
+        ReflectionTestUtils.setField(spool, "maxDiskBytes", maxDiskBytes);
+        ReflectionTestUtils.setField(spool, "rotateIntervalMs", 2000L);
+        spool.init();
+        return spool;
+    }
+
+    private AccessLog buildLog(int i) {
+        AccessLog log = new AccessLog();
+        log.setUserId(i == 0 ? null : (long) i);
+        log.setUsername("张三" + i);
+        log.setIpAddress("10.0.0." + i);
+        log.setUserAgent("Mozilla/5.0");
+        log.setRequestMethod("GET");
+        log.setRequestUrl("/records/page");
+        log.setRequestParams(i % 2 == 0 ? null : "size=20");
+        log.setResponseCode(200);
+        log.setResponseTime(12L + i);
+        log.setRequestSize(0L);
+        log.setResponseSize(1024L);
+        log.setSessionId("session-" + i);
+        log.setCreatedAt(LocalDateTime.of(2026, 10, 17, 12, 0, 0, 123456789));
+        return log;
+    }
+}
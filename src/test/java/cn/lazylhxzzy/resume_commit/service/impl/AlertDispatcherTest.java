@@ -0,0 +1,164 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogAlert;
+import cn.lazylhxzzy.resume_commit.mapper.LogAlertMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 告警发送测试，Webhook发到本地HTTP服务
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertDispatcherTest {
+
+    @Mock
+    private LogAlertMapper alertMapper;
+
+    private HttpServer server;
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private volatile int responseStatus = 200;
+
+    private ThreadPoolTaskExecutor executor;
+    private AlertDispatcher dispatcher;
+    private String webhookUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hook", exchange -> {
+            received.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(responseStatus, -1);
+            exchange.close();
+        });
+        server.start();
+        webhookUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/hook";
+
+        WebhookAlertNotifier webhook = new WebhookAlertNotifier();
+        ReflectionTestUtils.setField(webhook, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(webhook, "timeoutMs", 2000L);
+        webhook.init();
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.initialize();
+
+        dispatcher = new AlertDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "alertMapper", alertMapper);
+        ReflectionTestUtils.setField(dispatcher, "alertStatisticsTable", new AlertStatisticsTable());
+        ReflectionTestUtils.setField(dispatcher, "notifierList", List.of(webhook));
+        ReflectionTestUtils.setField(dispatcher, "alertExecutor", executor);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 100);
+        ReflectionTestUtils.setField(dispatcher, "maxCoalesce", 20);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitialMs", 1000L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMs", 60000L);
+        ReflectionTestUtils.setField(dispatcher, "targetIntervalMs", 0L);
+        ReflectionTestUtils.setField(dispatcher, "rescanIntervalMs", 60000L);
+        ReflectionTestUtils.setField(dispatcher, "claimTimeoutMs", 300000L);
+        dispatcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    @Test
+    void pendingAlertsToSameTargetAreCoalesced() throws Exception {
+        when(alertMapper.selectList(any())).thenReturn(List.of(
+                buildAlert(1L, 0), buildAlert(2L, 0), buildAlert(3L, 0)));
+        when(alertMapper.update(isNull(), any())).thenReturn(3);
+
+        dispatcher.dispatch();
+        awaitDeliveries();
+
+        assertEquals(1, received.size());
+        assertTrue(received.get(0).contains("\"count\":3"));
+        // 认领一次，标记已发送一次
+        verify(alertMapper, times(2)).update(isNull(), any());
+        verify(alertMapper, never()).updateById(any(LogAlert.class));
+    }
+
+    @Test
+    void failedDeliveryIsRescheduledWithBackoff() throws Exception {
+        responseStatus = 500;
+        when(alertMapper.selectList(any())).thenReturn(List.of(buildAlert(1L, 0), buildAlert(2L, 2)));
+        when(alertMapper.update(isNull(), any())).thenReturn(2);
+
+        dispatcher.dispatch();
+        awaitDeliveries();
+
+        ArgumentCaptor<LogAlert> captor = ArgumentCaptor.forClass(LogAlert.class);
+        verify(alertMapper, times(2)).updateById(captor.capture());
+        LogAlert retried = captor.getAllValues().get(0);
+        assertEquals("PENDING", retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertNotNull(retried.getNextAttemptAt());
+        LogAlert exhausted = captor.getAllValues().get(1);
+        assertEquals("FAILED", exhausted.getStatus());
+        assertEquals(3, exhausted.getAttempts());
+        // 只有认领，没有标记已发送
+        verify(alertMapper, times(1)).update(isNull(), any());
+    }
+
+    @Test
+    void alertsAlreadyHandledAreNotResent() throws Exception {
+        // 扫描结果已过期：记录已被上一次发送置为SENT，认领不到
+        when(alertMapper.selectList(any())).thenReturn(List.of(buildAlert(1L, 0), buildAlert(2L, 0)));
+        when(alertMapper.update(isNull(), any())).thenReturn(0);
+
+        dispatcher.dispatch();
+        awaitDeliveries();
+
+        assertTrue(received.isEmpty());
+        verify(alertMapper, times(1)).update(isNull(), any());
+        verify(alertMapper, never()).updateById(any(LogAlert.class));
+    }
+
+    private void awaitDeliveries() throws InterruptedException {
+        executor.getThreadPoolExecutor().shutdown();
+        assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private LogAlert buildAlert(Long id, int attempts) {
+        LogAlert alert = new LogAlert();
+        alert.setId(id);
+        alert.setAlertName("错误日志告警");
+        alert.setAlertType("ERROR_COUNT");
+        alert.setSeverity("HIGH");
+        alert.setMessage("错误日志数量超过阈值");
+        alert.setStatus("PENDING");
+        alert.setNotificationType("WEBHOOK");
+        alert.setNotificationTarget(webhookUrl);
+        alert.setAttempts(attempts);
+        alert.setTriggeredAt(LocalDateTime.now());
+        return alert;
+    }
+}
@@ -0,0 +1,75 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.mapper.LogAlertMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * 告警统计计数表在汇总期间的增量合并测试
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertStatisticsTableTest {
+
+    @Mock
+    private LogAlertMapper alertMapper;
+
+    private AlertStatisticsTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new AlertStatisticsTable();
+        ReflectionTestUtils.setField(table, "alertMapper", alertMapper);
+        ReflectionTestUtils.setField(table, "maxStalenessSeconds", 60L);
+    }
+
+    @Test
+    void alertsCreatedDuringReloadAreNotCountedTwice() {
+        when(alertMapper.selectMaps(any())).thenAnswer(invocation -> {
+            // 查询执行期间又有两条告警入库：10号已被查询统计，11号在查询之后提交
+            table.onCreated(10L, "PENDING", "HIGH");
+            table.onCreated(11L, "PENDING", "HIGH");
+            return List.of(row("PENDING", "HIGH", 3, 10), row("SENT", "LOW", 2, 7));
+        });
+
+        Map<String, Object> statistics = table.snapshot();
+
+        assertEquals(6L, statistics.get("totalAlerts"));
+        assertEquals(4L, statistics.get("pendingAlerts"));
+        assertEquals(2L, statistics.get("sentAlerts"));
+    }
+
+    @Test
+    void changesAfterReloadUpdateCountsWithoutQuery() {
+        when(alertMapper.selectMaps(any())).thenReturn(List.of(row("SENDING", "CRITICAL", 1, 5)));
+        table.snapshot();
+
+        table.onStatusChanged("PENDING", "SENT", "CRITICAL");
+        table.onCreated(6L, "PENDING", "CRITICAL");
+        Map<String, Object> statistics = table.snapshot();
+
+        assertEquals(2L, statistics.get("totalAlerts"));
+        assertEquals(1L, statistics.get("pendingAlerts"));
+        assertEquals(1L, statistics.get("sentAlerts"));
+    }
+
+    private Map<String, Object> row(String status, String severity, long count, long maxId) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("status", status);
+        row.put("severity", severity);
+        row.put("cnt", count);
+        row.put("max_id", maxId);
+        return row;
+    }
+}
@@ -0,0 +1,196 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.dto.JobInfo;
+import cn.lazylhxzzy.resume_commit.dto.JobProgress;
+import cn.lazylhxzzy.resume_commit.service.ResumeRecordService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * 后台导入导出任务的提交、拒绝、进度和过期清理测试
+ */
+@ExtendWith(MockitoExtension.class)
+class JobServiceImplTest {
+
+    @Mock
+    private ResumeRecordService resumeRecordService;
+
+    @TempDir
+    Path storageDir;
+
+    private ThreadPoolTaskExecutor executor;
+    private JobServiceImpl jobService;
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 单线程、无队列，第二个任务会被拒绝
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+
+        jobService = new JobServiceImpl();
+        ReflectionTestUtils.setField(jobService, "jobExecutor", executor);
+        ReflectionTestUtils.setField(jobService, "resumeRecordService", resumeRecordService);
+        ReflectionTestUtils.setField(jobService, "storageDir", storageDir.toString());
+        ReflectionTestUtils.setField(jobService, "resultTtlMinutes", 30L);
+        jobService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void importJobReportsProgressWhileRunning() throws Exception {
+        stubBlockingImport();
+
+        JobInfo job = jobService.submitImport(buildUpload(), "skip", 1L, false);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        JobInfo polled = jobService.getJob(job.getId(), 1L, false);
+        assertEquals(JobInfo.STATUS_RUNNING, polled.getStatus());
+        assertEquals(500, polled.getProgress().getWritten().get());
+        assertEquals(0, polled.getProgress().getInserted().get());
+        assertThrows(RuntimeException.class, () -> jobService.getJob(job.getId(), 2L, false));
+
+        release.countDown();
+        awaitJobs();
+
+        assertEquals(JobInfo.STATUS_SUCCEEDED, job.getStatus());
+        assertEquals("导入完成", job.getMessage());
+        assertNotNull(job.getExpiresAt());
+        assertEquals(500, job.getProgress().getInserted().get());
+        // 上传文件在任务结束后删除
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void submissionIsRejectedWhenExecutorIsFull() throws Exception {
+        stubBlockingImport();
+
+        jobService.submitImport(buildUpload(), "skip", 1L, false);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(TaskRejectedException.class, () -> jobService.submitImport(buildUpload(), "skip", 1L, false));
+        // 被拒绝任务的上传文件已清理，只剩运行中任务的文件
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    void expiredJobsAreRemovedWithTheirFiles() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write("xlsx".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(resumeRecordService).exportUserRecords(eq(1L), any(), any());
+
+        JobInfo job = jobService.submitExport(1L, false);
+        awaitJobs();
+
+        assertTrue(job.isDownloadable());
+        Path exportFile = job.getFilePath();
+        assertTrue(Files.exists(exportFile));
+
+        // 未过期的任务保留
+        jobService.cleanupExpiredJobs();
+        assertEquals(job, jobService.getJob(job.getId(), 1L, false));
+
+        job.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        jobService.cleanupExpiredJobs();
+
+        assertThrows(RuntimeException.class, () -> jobService.getJob(job.getId(), 1L, false));
+        assertFalse(Files.exists(exportFile));
+    }
+
+    @Test
+    void expiredJobIsKeptWhileDownloading() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write("xlsx".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(resumeRecordService).exportUserRecords(eq(1L), any(), any());
+
+        JobInfo job = jobService.submitExport(1L, false);
+        awaitJobs();
+        Path exportFile = job.getFilePath();
+        job.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+
+        try (InputStream download = jobService.openDownload(job)) {
+            jobService.cleanupExpiredJobs();
+            assertTrue(Files.exists(exportFile));
+            assertEquals("xlsx", new String(download.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // 下载结束后下一轮清理删除
+        jobService.cleanupExpiredJobs();
+        assertFalse(Files.exists(exportFile));
+    }
+
+    private void stubBlockingImport() {
+        when(resumeRecordService.importUserRecords(any(), eq("records.xlsx"), eq("skip"), eq(1L), any()))
+                .thenAnswer(invocation -> {
+                    JobProgress progress = invocation.getArgument(4);
+                    progress.getParsed().addAndGet(500);
+                    progress.getWritten().addAndGet(500);
+                    started.countDown();
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                    progress.getInserted().set(500);
+                    return Map.of("success", true, "message", "导入完成");
+                });
+    }
+
+    private MockMultipartFile buildUpload() {
+        return new MockMultipartFile("file", "records.xlsx", "application/vnd.ms-excel",
+                "data".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void awaitJobs() throws InterruptedException {
+        executor.getThreadPoolExecutor().shutdown();
+        assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private long countFiles() throws Exception {
+        try (Stream<Path> files = Files.list(storageDir)) {
+            return files.count();
+        }
+    }
+}
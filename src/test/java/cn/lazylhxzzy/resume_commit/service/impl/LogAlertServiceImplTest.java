@@ -0,0 +1,76 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogAlertConfig;
+import cn.lazylhxzzy.resume_commit.entity.SystemLog;
+import cn.lazylhxzzy.resume_commit.mapper.LogAlertConfigMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 告警规则触发测试
+ */
+@ExtendWith(MockitoExtension.class)
+class LogAlertServiceImplTest {
+
+    @Mock
+    private LogAlertConfigMapper alertConfigMapper;
+
+    @Mock
+    private ThreadPoolTaskExecutor alertExecutor;
+
+    private LogAlertServiceImpl alertService;
+
+    @BeforeEach
+    void setUp() {
+        alertService = new LogAlertServiceImpl();
+        ReflectionTestUtils.setField(alertService, "alertConfigMapper", alertConfigMapper);
+        ReflectionTestUtils.setField(alertService, "alertExecutor", alertExecutor);
+        ReflectionTestUtils.setField(alertService, "meterRegistry", new SimpleMeterRegistry());
+        alertService.initMetrics();
+
+        LogAlertConfig config = new LogAlertConfig();
+        config.setId(1L);
+        config.setAlertName("错误过多");
+        config.setAlertType("ERROR_COUNT");
+        config.setThreshold(1);
+        when(alertConfigMapper.selectList(any())).thenReturn(List.of(config));
+        ReflectionTestUtils.invokeMethod(alertService, "reloadRules");
+        ReflectionTestUtils.setField(alertService, "countFrom", LocalDateTime.now().minusMinutes(1));
+    }
+
+    @Test
+    void rejectedAlertFiresAgainOnNextLog() {
+        doThrow(new TaskRejectedException("full")).doNothing().when(alertExecutor).execute(any());
+
+        alertService.onSystemLog(buildErrorLog());
+        alertService.onSystemLog(buildErrorLog());
+        // 已交给线程池后进入触发间隔，不再重复提交
+        alertService.onSystemLog(buildErrorLog());
+
+        verify(alertExecutor, times(2)).execute(any());
+    }
+
+    private SystemLog buildErrorLog() {
+        SystemLog log = new SystemLog();
+        log.setLogLevel("ERROR");
+        log.setModule("test");
+        log.setCreatedAt(LocalDateTime.now());
+        return log;
+    }
+}
@@ -0,0 +1,228 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.SystemLog;
+import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 日志写缓冲的溢出策略、溢出文件回灌和关闭流程测试
+ * 第一条日志让写入线程卡在数据库写入上，后续日志只能留在队列中
+ */
+@ExtendWith(MockitoExtension.class)
+class LogBatchWriterTest {
+
+    @Mock
+    private SystemLogMapper systemLogMapper;
+
+    @Mock
+    private LogRollupManager logRollupManager;
+
+    @TempDir
+    Path spillDir;
+
+    private LogBatchWriter writer;
+
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger inserted = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        writer = new LogBatchWriter();
+        ReflectionTestUtils.setField(writer, "systemLogMapper", systemLogMapper);
+        ReflectionTestUtils.setField(writer, "logRollupManager", logRollupManager);
+        ReflectionTestUtils.setField(writer, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(writer, "capacity", 1);
+        ReflectionTestUtils.setField(writer, "batchSize", 1);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(writer, "blockTimeoutMs", 10L);
+        ReflectionTestUtils.setField(writer, "spillDir", spillDir.toString());
+        ReflectionTestUtils.setField(writer, "shutdownTimeoutMs", 5000L);
+
+        when(systemLogMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            // 模拟卡住的数据库写入，关闭时的中断也不能让它提前返回
+            long deadline = System.currentTimeMillis() + 5000;
+            while (release.getCount() > 0 && System.currentTimeMillis() < deadline) {
+                try {
+                    release.await(10, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // 继续等待
+                }
+            }
+            List<?> logs = invocation.getArgument(0);
+            inserted.addAndGet(logs.size());
+            return logs.size();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    @Test
+    void dropPolicyDiscardsWhenQueueIsFull() throws Exception {
+        start("DROP");
+
+        writer.add(buildLog(3));
+
+        assertEquals(1, writer.getDroppedCount());
+        assertEquals(2, writer.getEnqueuedCount());
+        release.countDown();
+        writer.shutdown();
+        assertEquals(2, inserted.get());
+        assertFalse(Files.exists(spillDir.resolve("log-spill.jsonl")));
+    }
+
+    @Test
+    void blockPolicyDropsAfterTimeout() throws Exception {
+        start("BLOCK");
+
+        long startTime = System.currentTimeMillis();
+        writer.add(buildLog(3));
+
+        assertTrue(System.currentTimeMillis() - startTime >= 10);
+        assertEquals(1, writer.getDroppedCount());
+        release.countDown();
+        writer.shutdown();
+    }
+
+    @Test
+    void spillPolicyWritesOverflowToFileAndReplaysIt() throws Exception {
+        start("SPILL");
+
+        writer.add(buildLog(3));
+
+        assertEquals(1, writer.getSpilledCount());
+        assertEquals(0, writer.getDroppedCount());
+        List<String> lines = Files.readAllLines(spillDir.resolve("log-spill.jsonl"), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"type\":\"SystemLog\""));
+
+        // 写入恢复后，队列清空时回灌溢出文件
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (inserted.get() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, inserted.get());
+        writer.shutdown();
+        assertFalse(Files.exists(spillDir.resolve("log-spill.jsonl")));
+    }
+
+    @Test
+    void flushWaitsUntilQueuedLogsAreWritten() throws Exception {
+        start("DROP");
+
+        // 写入线程卡住时，flush超时返回
+        assertFalse(writer.flush(50));
+
+        release.countDown();
+        assertTrue(writer.flush(5000));
+        assertEquals(2, inserted.get());
+        writer.shutdown();
+    }
+
+    @Test
+    void shutdownSpillsRemainingLogsWhenFlusherIsStuck() throws Exception {
+        ReflectionTestUtils.setField(writer, "shutdownTimeoutMs", 100L);
+        start("DROP");
+
+        writer.shutdown();
+
+        // 关闭线程没有并发写库，队列中剩余的一条写入溢出文件
+        verify(systemLogMapper, times(1)).insertBatch(anyList());
+        List<String> lines = Files.readAllLines(spillDir.resolve("log-spill.jsonl"), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"id\":2"));
+    }
+
+    @Test
+    void addAfterShutdownSpillsInsteadOfWriting() throws Exception {
+        start("DROP");
+        release.countDown();
+        writer.shutdown();
+
+        writer.add(buildLog(3));
+
+        // 关闭后调用方线程不再写库
+        verify(systemLogMapper, times(2)).insertBatch(anyList());
+        List<String> lines = Files.readAllLines(spillDir.resolve("log-spill.jsonl"), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"id\":3"));
+    }
+
+    @Test
+    void replayResumesAfterRecordedOffset() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        List<String> lines = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            lines.add("{\"type\":\"SystemLog\",\"data\":" + objectMapper.writeValueAsString(buildLog(id)) + "}");
+        }
+        // 上次回放写完前两行后崩溃
+        Files.write(spillDir.resolve("log-spill.replaying"), lines, StandardCharsets.UTF_8);
+        Files.writeString(spillDir.resolve("log-spill.replaying.offset"), "2");
+        release.countDown();
+        ReflectionTestUtils.setField(writer, "overflowPolicy", "DROP");
+        writer.start();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.exists(spillDir.resolve("log-spill.replaying")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        writer.shutdown();
+
+        ArgumentCaptor<List<SystemLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(systemLogMapper, times(1)).insertBatch(captor.capture());
+        assertEquals(3L, captor.getValue().get(0).getId());
+        assertFalse(Files.exists(spillDir.resolve("log-spill.replaying.offset")));
+    }
+
+    /**
+     * 启动写入线程，等第一条日志卡在写入中，再放入第二条占满队列
+     */
+    private void start(String overflowPolicy) throws InterruptedException {
+        ReflectionTestUtils.setField(writer, "overflowPolicy", overflowPolicy);
+        writer.start();
+        writer.add(buildLog(1));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        writer.add(buildLog(2));
+    }
+
+    private SystemLog buildLog(long id) {
+        SystemLog log = new SystemLog();
+        log.setId(id);
+        log.setLogLevel("INFO");
+        log.setModule("test");
+        log.setCreatedAt(LocalDateTime.now());
+        return log;
+    }
+}
@@ -0,0 +1,90 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogConfig;
+import cn.lazylhxzzy.resume_commit.mapper.LogConfigMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * 日志采集策略测试
+ */
+@ExtendWith(MockitoExtension.class)
+class LogCapturePolicyTest {
+
+    @Mock
+    private LogConfigMapper logConfigMapper;
+
+    private LogCapturePolicy capturePolicy;
+
+    @BeforeEach
+    void setUp() {
+        capturePolicy = new LogCapturePolicy();
+        ReflectionTestUtils.setField(capturePolicy, "logConfigMapper", logConfigMapper);
+        ReflectionTestUtils.setField(capturePolicy, "defaultSuccessRate", 1.0);
+        ReflectionTestUtils.setField(capturePolicy, "defaultSlowThresholdMs", 1000L);
+        ReflectionTestUtils.setField(capturePolicy, "defaultSystemLevel", "INFO");
+        ReflectionTestUtils.setField(capturePolicy, "defaultMonitorLayers", "CONTROLLER,SERVICE,MAPPER");
+        ReflectionTestUtils.setField(capturePolicy, "systemEnabled", true);
+        ReflectionTestUtils.setField(capturePolicy, "accessEnabled", true);
+        ReflectionTestUtils.setField(capturePolicy, "businessEnabled", true);
+        ReflectionTestUtils.setField(capturePolicy, "performanceEnabled", true);
+        capturePolicy.init();
+    }
+
+    @Test
+    void defaultsCaptureEverything() {
+        LogCapturePolicy.Policy policy = capturePolicy.current();
+        assertTrue(policy.sampleSuccess("/records/page", 5));
+        assertTrue(policy.isEnabled(LogCapturePolicy.CATEGORY_ACCESS));
+        assertTrue(policy.isLevelEnabled("INFO"));
+        assertFalse(policy.isLevelEnabled("DEBUG"));
+        assertTrue(policy.isMonitored("MAPPER"));
+    }
+
+    @Test
+    void overridesFromLogConfigsReplaceDefaults() {
+        when(logConfigMapper.selectList(any())).thenReturn(List.of(
+                config("log.capture.success-rate", "0"),
+                config("log.capture.endpoint./records/{id}", "1"),
+                config("log.capture.endpoint./logs/**", "0.5"),
+                config("log.capture.endpoint./logs/search", "1"),
+                config("log.capture.access.enabled", "false"),
+                config("log.capture.system-level", "warn"),
+                config("log.capture.monitor-layers", "CONTROLLER"),
+                config("log.capture.slow-threshold-ms", "abc")));
+
+        LogCapturePolicy.Policy policy = capturePolicy.reload();
+
+        assertFalse(policy.sampleSuccess("/auth/login", 5));
+        assertTrue(policy.sampleSuccess("/auth/login", 1000), "慢调用始终记录");
+        assertTrue(policy.sampleSuccess("/records/{id}", 5));
+        assertEquals(1.0, policy.rateFor("/logs/search"));
+        assertEquals(0.5, policy.rateFor("/logs/system"));
+        assertFalse(policy.isEnabled(LogCapturePolicy.CATEGORY_ACCESS));
+        assertTrue(policy.isEnabled(LogCapturePolicy.CATEGORY_SYSTEM));
+        assertFalse(policy.isLevelEnabled("INFO"));
+        assertTrue(policy.isLevelEnabled("ERROR"));
+        assertFalse(policy.isMonitored("MAPPER"));
+        assertEquals(1000L, policy.describe().get("slowThresholdMs"), "无效配置保留默认值");
+    }
+
+    private LogConfig config(String key, String value) {
+        LogConfig config = new LogConfig();
+        config.setConfigKey(key);
+        config.setConfigValue(value);
+        config.setIsActive(true);
+        return config;
+    }
+}
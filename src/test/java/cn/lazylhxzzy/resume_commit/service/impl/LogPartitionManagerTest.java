@@ -0,0 +1,115 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.dto.LogPartitionInfo;
+import cn.lazylhxzzy.resume_commit.mapper.LogPartitionMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 日志分区管理测试
+ */
+@ExtendWith(MockitoExtension.class)
+class LogPartitionManagerTest {
+
+    private static final DateTimeFormatter DAY_NAME = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Mock
+    private LogPartitionMapper logPartitionMapper;
+
+    private LogPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new LogPartitionManager();
+        ReflectionTestUtils.setField(manager, "logPartitionMapper", logPartitionMapper);
+        ReflectionTestUtils.setField(manager, "enabled", true);
+        ReflectionTestUtils.setField(manager, "granularity", "DAY");
+        ReflectionTestUtils.setField(manager, "precreate", 2);
+    }
+
+    @Test
+    void futurePartitionsStartAfterHistoryBound() {
+        // 迁移脚本刚执行完：只有p_history（上界为次日零点）和p_future
+        LocalDate today = LocalDate.now();
+        when(logPartitionMapper.listPartitions(anyString())).thenReturn(List.of(
+                partition("p_history", today.plusDays(1).atStartOfDay()),
+                partition("p_future", null)));
+
+        manager.ensureFuturePartitions();
+
+        ArgumentCaptor<String> definitions = ArgumentCaptor.forClass(String.class);
+        verify(logPartitionMapper, times(4)).reorganizePartition(anyString(), eq("p_future"), definitions.capture());
+        String ddl = definitions.getValue();
+        // 第一个新分区的上界必须严格大于p_history的上界
+        assertTrue(ddl.startsWith("PARTITION p" + today.plusDays(1).format(DAY_NAME) + " VALUES LESS THAN (UNIX_TIMESTAMP('"
+                + today.plusDays(2) + " 00:00:00'))"), ddl);
+        assertTrue(ddl.contains("PARTITION p" + today.plusDays(2).format(DAY_NAME) + " VALUES LESS THAN (UNIX_TIMESTAMP('"
+                + today.plusDays(3) + " 00:00:00'))"), ddl);
+        assertTrue(ddl.endsWith("PARTITION p_future VALUES LESS THAN MAXVALUE"));
+    }
+
+    @Test
+    void noPartitionsAreCreatedWhenAlreadyCovered() {
+        LocalDate today = LocalDate.now();
+        when(logPartitionMapper.listPartitions(anyString())).thenReturn(List.of(
+                partition("p_history", today.atStartOfDay()),
+                partition("p" + today.format(DAY_NAME), today.plusDays(1).atStartOfDay()),
+                partition("p" + today.plusDays(1).format(DAY_NAME), today.plusDays(2).atStartOfDay()),
+                partition("p" + today.plusDays(2).format(DAY_NAME), today.plusDays(3).atStartOfDay()),
+                partition("p_future", null)));
+
+        manager.ensureFuturePartitions();
+
+        verify(logPartitionMapper, never()).reorganizePartition(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void partitionsAreDroppedByActualUpperBound() {
+        when(logPartitionMapper.listPartitions("system_logs")).thenReturn(List.of(
+                partition("p_history", LocalDateTime.of(2026, 8, 20, 0, 0)),
+                partition("p202608", LocalDateTime.of(2026, 9, 1, 0, 0)),
+                partition("p20260901", LocalDateTime.of(2026, 9, 2, 0, 0)),
+                partition("p20260902", LocalDateTime.of(2026, 9, 3, 0, 0)),
+                partition("p_future", null)));
+
+        int dropped = manager.dropPartitionsBefore("system_logs", LocalDateTime.of(2026, 9, 2, 12, 0));
+
+        assertEquals(3, dropped);
+        verify(logPartitionMapper).dropPartitions("system_logs", "p_history,p202608,p20260901");
+    }
+
+    @Test
+    void unpartitionedTableIsSkipped() {
+        when(logPartitionMapper.listPartitions("access_logs")).thenReturn(List.of());
+
+        assertEquals(0, manager.dropPartitionsBefore("access_logs", LocalDateTime.now()));
+        verify(logPartitionMapper, never()).dropPartitions(anyString(), any());
+    }
+
+    private LogPartitionInfo partition(String name, LocalDateTime upperBound) {
+        LogPartitionInfo info = new LogPartitionInfo();
+        info.setPartitionName(name);
+        info.setUpperBound(upperBound);
+        return info;
+    }
+}
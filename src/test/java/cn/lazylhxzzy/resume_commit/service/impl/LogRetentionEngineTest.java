@@ -0,0 +1,102 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.SystemLog;
+import cn.lazylhxzzy.resume_commit.mapper.LogConfigMapper;
+import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 日志分批清理的批次划分和锁续约测试
+ */
+@ExtendWith(MockitoExtension.class)
+class LogRetentionEngineTest {
+
+    @Mock
+    private SystemLogMapper systemLogMapper;
+
+    @Mock
+    private LogConfigMapper logConfigMapper;
+
+    @Mock
+    private LogPartitionManager logPartitionManager;
+
+    private LogRetentionEngine engine;
+
+    private final LocalDateTime cutoff = LocalDateTime.of(2026, 9, 1, 0, 0);
+
+    @BeforeEach
+    void setUp() {
+        engine = new LogRetentionEngine();
+        ReflectionTestUtils.setField(engine, "systemLogMapper", systemLogMapper);
+        ReflectionTestUtils.setField(engine, "logConfigMapper", logConfigMapper);
+        ReflectionTestUtils.setField(engine, "logPartitionManager", logPartitionManager);
+        ReflectionTestUtils.setField(engine, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(engine, "batchSize", 2);
+        engine.init();
+    }
+
+    @Test
+    void chunksEndAtTheBatchSizeExpiredRow() {
+        when(logConfigMapper.update(any(), any())).thenReturn(1);
+        // 上界、第一批的第2条过期记录、剩余不足一批
+        when(systemLogMapper.selectObjs(any())).thenReturn(List.of(900L), List.of(40L), List.of());
+        when(systemLogMapper.delete(any())).thenReturn(2, 1);
+
+        LogRetentionEngine.TableProgress progress = clean();
+
+        ArgumentCaptor<QueryWrapper<SystemLog>> queries = ArgumentCaptor.forClass(QueryWrapper.class);
+        verify(systemLogMapper, times(3)).selectObjs(queries.capture());
+        // 上界沿(created_at, id)索引只取一行，不做MAX扫描
+        assertTrue(queries.getAllValues().get(0).getSqlSegment().endsWith("ORDER BY created_at DESC,id DESC LIMIT 1"));
+        assertTrue(queries.getAllValues().get(1).getSqlSegment().endsWith("ORDER BY id ASC LIMIT 1 OFFSET 1"));
+        assertEquals(Set.of(0L, 900L), queries.getAllValues().get(1).getParamNameValuePairs().values().stream()
+                .filter(Long.class::isInstance).collect(Collectors.toSet()));
+        verify(systemLogMapper, times(2)).delete(any());
+        assertEquals(3, progress.getDeleted());
+        assertEquals(901L, progress.getNextId());
+        assertTrue(progress.isDone());
+    }
+
+    @Test
+    void cleanupStopsWhenLeaseIsLostAfterDroppingPartitions() {
+        when(logConfigMapper.update(any(), any())).thenReturn(1, 0);
+
+        assertThrows(IllegalStateException.class, this::clean);
+
+        verify(logPartitionManager).dropPartitionsBefore(eq(LogRetentionEngine.TABLE_SYSTEM_LOGS), eq(cutoff));
+        verify(systemLogMapper, never()).selectObjs(any());
+    }
+
+    private LogRetentionEngine.TableProgress clean() {
+        LogRetentionEngine.TableProgress progress = new LogRetentionEngine.TableProgress();
+        progress.setTable(LogRetentionEngine.TABLE_SYSTEM_LOGS);
+        progress.setCutoff(cutoff);
+        LogRetentionEngine.RetentionRun run = new LogRetentionEngine.RetentionRun();
+        run.getTables().add(progress);
+        ReflectionTestUtils.invokeMethod(engine, "cleanTable", run, progress);
+        return progress;
+    }
+}
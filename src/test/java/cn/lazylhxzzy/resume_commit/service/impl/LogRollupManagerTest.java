@@ -0,0 +1,145 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.LogConfig;
+import cn.lazylhxzzy.resume_commit.mapper.AccessLogMapper;
+import cn.lazylhxzzy.resume_commit.mapper.LogRollupMapper;
+import cn.lazylhxzzy.resume_commit.mapper.SecurityLogMapper;
+import cn.lazylhxzzy.resume_commit.mapper.SystemLogMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 日志统计汇总查询测试
+ */
+@ExtendWith(MockitoExtension.class)
+class LogRollupManagerTest {
+
+    @Mock
+    private SystemLogMapper systemLogMapper;
+
+    @Mock
+    private AccessLogMapper accessLogMapper;
+
+    @Mock
+    private SecurityLogMapper securityLogMapper;
+
+    @Mock
+    private LogRollupMapper logRollupMapper;
+
+    private LogRollupManager manager;
+
+    /**
+     * 分钟汇总保留期内的日期
+     */
+    private final LocalDate day = LocalDate.now().minusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        manager = new LogRollupManager();
+        ReflectionTestUtils.setField(manager, "systemLogMapper", systemLogMapper);
+        ReflectionTestUtils.setField(manager, "accessLogMapper", accessLogMapper);
+        ReflectionTestUtils.setField(manager, "securityLogMapper", securityLogMapper);
+        ReflectionTestUtils.setField(manager, "logRollupMapper", logRollupMapper);
+        ReflectionTestUtils.setField(manager, "enabled", true);
+        ReflectionTestUtils.setField(manager, "minuteRetentionDays", 7);
+        ReflectionTestUtils.setField(manager, "watermark", day.atTime(14, 0));
+    }
+
+    @Test
+    void rangeIsSplitIntoRawMinuteAndHourSegments() {
+        LocalDateTime start = day.atTime(10, 30, 30);
+        LocalDateTime end = day.atTime(14, 20);
+        when(logRollupMapper.sumRange(LogRollupManager.TABLE_HOUR,
+                day.atTime(11, 0), day.atTime(14, 0)))
+                .thenReturn(List.of(row("SYSTEM", "TOTAL", "", 5), row("SYSTEM", "LEVEL", "ERROR", 2)));
+        when(logRollupMapper.sumRange(LogRollupManager.TABLE_MINUTE,
+                day.atTime(10, 31), day.atTime(11, 0)))
+                .thenReturn(List.of(row("SYSTEM", "TOTAL", "", 1), row("ACCESS", "RESPONSE_CODE", "500", 3)));
+        when(systemLogMapper.selectMaps(any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(Map.of("bucket_time", day + " 14:05:00", "log_level", "ERROR",
+                        "log_type", "API", "module", "auth", "cnt", 4L)));
+
+        Map<String, Object> statistics = manager.getStatistics(start, end);
+
+        assertEquals(10L, statistics.get("systemLogCount"));
+        assertEquals(6L, statistics.get("errorLogCount"));
+        assertEquals(Map.of("500", 3L), statistics.get("responseCodeStats"));
+        assertEquals(Map.of("auth", 4L), statistics.get("moduleStats"));
+        verify(logRollupMapper, times(2)).sumRange(any(), any(), any());
+        // 开头不足一分钟和水位线之后的部分查原始表
+        verify(systemLogMapper, times(2)).selectMaps(any());
+    }
+
+    @Test
+    void rangeAfterWatermarkReadsRawTablesOnly() {
+        manager.getStatistics(day.atTime(14, 1), day.atTime(14, 30));
+
+        verify(logRollupMapper, times(0)).sumRange(any(), any(), any());
+        verify(systemLogMapper, times(1)).selectMaps(any());
+    }
+
+    @Test
+    void edgeHoursOlderThanMinuteRetentionUseHourRollups() {
+        LocalDate old = LocalDate.now().minusDays(10);
+        ReflectionTestUtils.setField(manager, "watermark", LocalDateTime.now().withNano(0).withSecond(0).minusHours(1));
+        when(logRollupMapper.sumRange(LogRollupManager.TABLE_HOUR, old.atTime(10, 0), old.atTime(11, 0)))
+                .thenReturn(List.of(row("SYSTEM", "TOTAL", "", 7)));
+        when(logRollupMapper.sumRange(LogRollupManager.TABLE_HOUR, old.atTime(11, 0), old.atTime(13, 0)))
+                .thenReturn(List.of(row("SYSTEM", "TOTAL", "", 20)));
+        when(logRollupMapper.sumRange(LogRollupManager.TABLE_HOUR, old.atTime(13, 0), old.atTime(14, 0)))
+                .thenReturn(List.of(row("SYSTEM", "TOTAL", "", 3)));
+
+        Map<String, Object> statistics = manager.getStatistics(old.atTime(10, 30), old.atTime(13, 15).minusSeconds(1));
+
+        // 首尾不足一小时的部分按整小时计入，不读已清理的分钟汇总
+        assertEquals(30L, statistics.get("systemLogCount"));
+        verify(logRollupMapper, never()).sumRange(eq(LogRollupManager.TABLE_MINUTE), any(), any());
+    }
+
+    @Test
+    void hoursWithLateLogsAreRolledUpAgain() {
+        ReflectionTestUtils.setField(manager, "lagSeconds", 120L);
+        ReflectionTestUtils.setField(manager, "maxHoursPerRun", 0);
+        ReflectionTestUtils.setField(manager, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(manager, "watermarkConfig", new LogConfig());
+
+        // 水位线之前补写的日志所在小时重算，水位线之后的由正常推进汇总
+        manager.onLogsWritten(List.of(day.atTime(10, 15), day.atTime(10, 40), day.atTime(14, 5)));
+        manager.rollUp();
+
+        verify(logRollupMapper, times(1))
+                .deleteRange(LogRollupManager.TABLE_MINUTE, day.atTime(10, 0), day.atTime(11, 0));
+        verify(logRollupMapper, times(1)).rollUpHours(day.atTime(10, 0), day.atTime(11, 0));
+        verify(logRollupMapper, times(1)).rollUpHours(any(), any());
+
+        // 已重算的小时不再重复处理
+        manager.rollUp();
+        verify(logRollupMapper, times(1)).rollUpHours(any(), any());
+    }
+
+    private Map<String, Object> row(String source, String dimension, String value, long count) {
+        return Map.of("source", source, "dimension", dimension, "dim_value", value, "cnt", count);
+    }
+}
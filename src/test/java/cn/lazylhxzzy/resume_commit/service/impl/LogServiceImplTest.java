@@ -0,0 +1,59 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.entity.SystemLog;
+import cn.lazylhxzzy.resume_commit.service.LogAlertService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 异步系统日志的告警计数测试
+ */
+@ExtendWith(MockitoExtension.class)
+class LogServiceImplTest {
+
+    @Mock
+    private LogBatchWriter logBatchWriter;
+
+    @Mock
+    private LogAlertService logAlertService;
+
+    /**
+     * 模拟已满的日志线程池：提交的任务被丢弃，不会执行
+     */
+    @Mock
+    private ThreadPoolTaskExecutor logExecutor;
+
+    private LogServiceImpl logService;
+
+    @BeforeEach
+    void setUp() {
+        logService = new LogServiceImpl();
+        ReflectionTestUtils.setField(logService, "logBatchWriter", logBatchWriter);
+        ReflectionTestUtils.setField(logService, "logAlertService", logAlertService);
+        ReflectionTestUtils.setField(logService, "logExecutor", logExecutor);
+        ReflectionTestUtils.setField(logService, "objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    void asyncErrorIsCountedEvenWhenWriteTaskIsDiscarded() {
+        logService.logErrorAsync("test", "op", 1L, "user", "127.0.0.1", "E1", "boom", null, null);
+
+        ArgumentCaptor<SystemLog> captor = ArgumentCaptor.forClass(SystemLog.class);
+        verify(logAlertService).onSystemLog(captor.capture());
+        assertEquals("ERROR", captor.getValue().getLogLevel());
+        verify(logExecutor).execute(any());
+        verify(logBatchWriter, never()).add(any());
+    }
+}
@@ -0,0 +1,200 @@
+package cn.lazylhxzzy.resume_commit.service.impl;
+
+import cn.lazylhxzzy.resume_commit.dto.JobProgress;
+import cn.lazylhxzzy.resume_commit.dto.ResumeRecordDTO;
+import cn.lazylhxzzy.resume_commit.entity.InterviewRecord;
+import cn.lazylhxzzy.resume_commit.entity.ResumeRecord;
+import cn.lazylhxzzy.resume_commit.mapper.InterviewRecordMapper;
+import cn.lazylhxzzy.resume_commit.mapper.ResumeRecordMapper;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 投递记录查询的SQL次数及导入分批提交回归测试
+ */
+@ExtendWith(MockitoExtension.class)
+class ResumeRecordServiceImplTest {
+
+    @Mock
+    private ResumeRecordMapper resumeRecordMapper;
+
+    @Mock
+    private InterviewRecordMapper interviewRecordMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ResumeRecordServiceImpl resumeRecordService;
+
+    @Test
+    void getAllRecordsLoadsInterviewsInOneQuery() {
+        List<ResumeRecord> records = buildRecords(50);
+        when(resumeRecordMapper.selectList(any())).thenReturn(records);
+        when(interviewRecordMapper.selectList(any())).thenReturn(List.of(
+                buildInterview(1L, "一面"), buildInterview(1L, "二面"), buildInterview(7L, "AI面")));
+
+        List<ResumeRecordDTO> result = resumeRecordService.getAllRecords();
+
+        assertEquals(50, result.size());
+        assertEquals(2, result.get(0).getInterviews().size());
+        assertEquals(1, result.get(6).getInterviews().size());
+        assertEquals(0, result.get(1).getInterviews().size());
+        verify(resumeRecordMapper, times(1)).selectList(any());
+        verify(interviewRecordMapper, times(1)).selectList(any());
+    }
+
+    @Test
+    void getUserRecordsChunksLargeInterviewQueries() {
+        when(resumeRecordMapper.selectList(any())).thenReturn(buildRecords(2500));
+        when(interviewRecordMapper.selectList(any())).thenReturn(new ArrayList<>());
+
+        List<ResumeRecordDTO> result = resumeRecordService.getUserRecords(1L);
+
+        assertEquals(2500, result.size());
+        verify(resumeRecordMapper, times(1)).selectList(any());
+        verify(interviewRecordMapper, times(3)).selectList(any());
+    }
+
+    @Test
+    void emptyRecordsIssueNoInterviewQuery() {
+        when(resumeRecordMapper.selectList(any())).thenReturn(new ArrayList<>());
+
+        assertEquals(0, resumeRecordService.getAllRecords().size());
+        verify(interviewRecordMapper, times(0)).selectList(any());
+    }
+
+    @Test
+    void getAllRecordGroupsMergesPositionsWithTwoQueries() {
+        List<ResumeRecord> records = buildRecords(4);
+        records.get(0).setCompanyGroupId("group_a");
+        records.get(1).setCompanyGroupId("group_a");
+        records.get(1).setIsPrimary(true);
+        records.get(2).setCompanyGroupId("group_b");
+        records.get(3).setCompanyGroupId(null);
+        when(resumeRecordMapper.selectList(any())).thenReturn(records);
+        when(interviewRecordMapper.selectList(any())).thenReturn(List.of(
+                buildInterview(1L, "一面"), buildInterview(2L, "二面")));
+
+        List<ResumeRecordDTO> groups = resumeRecordService.getAllRecordGroups();
+
+        assertEquals(3, groups.size());
+        assertEquals(2, groups.get(0).getPositions().size());
+        assertEquals(2L, groups.get(0).getCurrentPosition().getId());
+        assertEquals(2, groups.get(0).getInterviews().size());
+        verify(resumeRecordMapper, times(1)).selectList(any());
+        verify(interviewRecordMapper, times(1)).selectList(any());
+    }
+
+    @Test
+    void importFailureRollsBackDeleteAndAllBatches() throws Exception {
+        ReflectionTestUtils.setField(resumeRecordService, "transactionTemplate",
+                new TransactionTemplate(transactionManager));
+        ResumeRecordServiceImpl service = spy(resumeRecordService);
+        // 第二批写入失败
+        doReturn(true).doThrow(new RuntimeException("数据库连接中断"))
+                .when(service).saveBatch(anyCollection(), eq(500));
+
+        JobProgress progress = new JobProgress();
+        Map<String, Object> result = service.importUserRecords(
+                new ByteArrayInputStream(buildImportFile(1200)), "records.xls", "replace", 1L, progress);
+
+        assertEquals(false, result.get("success"));
+        assertEquals(0, result.get("successCount"));
+        assertEquals(1200, progress.getParsed().get());
+        assertEquals(0, progress.getWritten().get());
+        assertEquals(0, progress.getInserted().get());
+        // 删除和两批插入在同一个事务中，整体回滚
+        verify(resumeRecordMapper, times(1)).delete(any());
+        verify(service, times(2)).saveBatch(anyCollection(), eq(500));
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, never()).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void importCountsInsertedRowsAfterCommit() throws Exception {
+        ReflectionTestUtils.setField(resumeRecordService, "transactionTemplate",
+                new TransactionTemplate(transactionManager));
+        ResumeRecordServiceImpl service = spy(resumeRecordService);
+        when(resumeRecordMapper.selectList(any())).thenReturn(new ArrayList<>());
+        doReturn(true).when(service).saveBatch(anyCollection(), eq(500));
+
+        JobProgress progress = new JobProgress();
+        Map<String, Object> result = service.importUserRecords(
+                new ByteArrayInputStream(buildImportFile(1200)), "records.xls", "skip", 1L, progress);
+
+        assertEquals(true, result.get("success"));
+        assertEquals(1200, result.get("successCount"));
+        assertEquals(1200, progress.getInserted().get());
+        verify(service, times(3)).saveBatch(anyCollection(), eq(500));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    private byte[] buildImportFile(int rows) throws IOException {
+        try (HSSFWorkbook workbook = new HSSFWorkbook();
+             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("公司名称");
+            for (int i = 1; i <= rows; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("公司A");
+                row.createCell(1).setCellValue("岗位" + i);
+                row.createCell(3).setCellValue("2026/09/01");
+            }
+            workbook.write(outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    private List<ResumeRecord> buildRecords(int count) {
+        List<ResumeRecord> records = new ArrayList<>();
+        for (long i = 1; i <= count; i++) {
+            ResumeRecord record = new ResumeRecord();
+            record.setId(i);
+            record.setUserId(1L);
+            record.setCompanyName("公司" + i);
+            record.setPosition("岗位" + i);
+            record.setCompanyGroupId("group_1_公司" + i);
+            record.setApplyTime(LocalDateTime.now().minusDays(10));
+            records.add(record);
+        }
+        return records;
+    }
+
+    private InterviewRecord buildInterview(Long recordId, String type) {
+        InterviewRecord interview = new InterviewRecord();
+        interview.setResumeRecordId(recordId);
+        interview.setInterviewType(type);
+        interview.setInterviewTime(LocalDateTime.now().minusDays(1));
+        return interview;
+    }
+}
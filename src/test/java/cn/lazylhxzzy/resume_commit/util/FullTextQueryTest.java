@@ -0,0 +1,29 @@
+package cn.lazylhxzzy.resume_commit.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 全文检索表达式构造测试
+ */
+class FullTextQueryTest {
+
+    @Test
+    void allModeRequiresEveryTerm() {
+        assertEquals("+数据库 +超时", FullTextQuery.build("  数据库   超时 ", "all"));
+    }
+
+    @Test
+    void phraseModeQuotesTerms() {
+        assertEquals("\"connection refused\"", FullTextQuery.build("connection refused", FullTextQuery.MODE_PHRASE));
+    }
+
+    @Test
+    void booleanOperatorsInInputAreRemoved() {
+        assertEquals("abc def", FullTextQuery.build("-abc* (\"def\")", FullTextQuery.MODE_ANY));
+        assertThrows(IllegalArgumentException.class, () -> FullTextQuery.build("+-*", FullTextQuery.MODE_ALL));
+        assertThrows(IllegalArgumentException.class, () -> FullTextQuery.build("abc", "FUZZY"));
+    }
+}
@@ -0,0 +1,83 @@
+package cn.lazylhxzzy.resume_commit.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JWT解析与claims缓存测试
+ */
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(3600000L);
+    }
+
+    @Test
+    void parseReturnsCachedClaimsForSameToken() {
+        String token = jwtUtil.generateToken("alice", "USER");
+
+        Claims first = jwtUtil.parse(token);
+        Claims second = jwtUtil.parse(token);
+
+        assertEquals(first, second);
+        assertEquals(1, ((Map<?, ?>) ReflectionTestUtils.getField(jwtUtil, "claimsCache")).size());
+        assertEquals("alice", jwtUtil.getUsernameFromToken(token));
+        assertEquals("USER", jwtUtil.getRoleFromToken(token));
+    }
+
+    @Test
+    void callersCannotModifyCachedClaims() {
+        String token = jwtUtil.generateToken("alice", "USER");
+
+        Claims first = jwtUtil.parse(token);
+        first.put("role", "ROOT");
+        first.setSubject("mallory");
+
+        Claims second = jwtUtil.parse(token);
+        assertNotSame(first, second);
+        assertEquals("USER", second.get("role", String.class));
+        assertEquals("alice", second.getSubject());
+    }
+
+    @Test
+    void tamperedTokenIsRejected() {
+        String token = jwtUtil.generateToken("alice", "USER");
+        jwtUtil.parse(token);
+
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "x." + parts[2];
+
+        assertThrows(JwtException.class, () -> jwtUtil.parse(forged));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        JwtUtil expiring = newJwtUtil(-1000L);
+        String token = expiring.generateToken("alice", "USER");
+
+        assertThrows(JwtException.class, () -> expiring.parse(token));
+        assertEquals(false, expiring.validateToken(token));
+    }
+
+    private JwtUtil newJwtUtil(long expiration) {
+        JwtUtil util = new JwtUtil();
+        ReflectionTestUtils.setField(util, "secret", "test_secret_key_for_jwt_util_at_least_256_bits_long");
+        ReflectionTestUtils.setField(util, "expiration", expiration);
+        ReflectionTestUtils.setField(util, "cacheMaxSize", 100);
+        ReflectionTestUtils.setField(util, "cacheTtlSeconds", 300L);
+        util.init();
+        return util;
+    }
+}
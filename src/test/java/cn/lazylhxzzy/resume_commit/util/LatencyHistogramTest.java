@@ -0,0 +1,56 @@
+package cn.lazylhxzzy.resume_commit.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 耗时直方图测试
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void bucketUpperBoundCoversValue() {
+        for (long value : new long[]{0, 1, 7, 8, 9, 15, 16, 1000, 123456, 987654321L}) {
+            long upper = LatencyHistogram.upperBound(LatencyHistogram.indexOf(value));
+            assertTrue(upper >= value, "upper bound below value " + value);
+            assertTrue(upper <= value + value / 8, "bucket too wide for " + value);
+        }
+    }
+
+    @Test
+    void percentilesStayWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000, i % 100 == 0);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(10, snapshot.getErrorCount());
+        assertEquals(1_000_000, snapshot.getMaxMicros());
+        assertEquals(500_500, snapshot.getMeanMicros(), 0.001);
+        assertWithin(500_000, snapshot.percentile(0.50));
+        assertWithin(990_000, snapshot.percentile(0.99));
+    }
+
+    @Test
+    void snapshotAndResetStartsNewInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5000, false);
+
+        assertEquals(1, histogram.snapshotAndReset().getCount());
+
+        LatencyHistogram.Snapshot empty = histogram.snapshot();
+        assertEquals(0, empty.getCount());
+        assertEquals(0, empty.getMaxMicros());
+        assertEquals(0, empty.percentile(0.99));
+    }
+
+    private void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 8,
+                "expected about " + expected + " but was " + actual);
+    }
+}
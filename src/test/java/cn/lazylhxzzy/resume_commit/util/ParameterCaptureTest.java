@@ -0,0 +1,97 @@
+package cn.lazylhxzzy.resume_commit.util;
+
+import cn.lazylhxzzy.resume_commit.annotation.Sensitive;
+import cn.lazylhxzzy.resume_commit.dto.LoginRequest;
+import cn.lazylhxzzy.resume_commit.dto.ResumeRecordDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 请求参数日志捕获测试
+ */
+class ParameterCaptureTest {
+
+    private ParameterCapture capture;
+
+    @BeforeEach
+    void setUp() {
+        capture = new ParameterCapture();
+        ReflectionTestUtils.setField(capture, "maxBytes", 512);
+        ReflectionTestUtils.setField(capture, "maxItems", 2);
+        ReflectionTestUtils.setField(capture, "maxDepth", 3);
+    }
+
+    @Test
+    void sensitiveFieldsAndParametersAreRedacted() throws Exception {
+        LoginRequest login = new LoginRequest();
+        login.setUsername("alice");
+        login.setPassword("p@ss");
+
+        String captured = capture.capture(null, new Object[]{login, Map.of("accessToken", "abc")});
+        assertEquals("[{\"username\":\"alice\",\"password\":\"***\"},{\"accessToken\":\"***\"}]", captured);
+
+        String withParam = capture.capture(
+                getClass().getDeclaredMethod("handler", String.class, String.class), new Object[]{"bob", "42"});
+        assertEquals("[\"bob\",\"***\"]", withParam);
+    }
+
+    @Test
+    void plainStringSecretsAreRedacted() throws Exception {
+        // 参数名敏感
+        String byName = capture.capture(
+                getClass().getDeclaredMethod("changePassword", String.class, String.class),
+                new Object[]{"bob", "hunter2"});
+        assertEquals("[\"bob\",\"***\"]", byName);
+
+        // 没有方法信息时按内容判断
+        String byValue = capture.capture(null, new Object[]{"Bearer token=abc", "hello"});
+        assertEquals("[\"***\",\"hello\"]", byValue);
+    }
+
+    @Test
+    void listsAndFilesAreSummarized() {
+        List<ResumeRecordDTO> records = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            ResumeRecordDTO dto = new ResumeRecordDTO();
+            dto.setCompanyName("公司" + i);
+            records.add(dto);
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "records.xlsx", "application/vnd.ms-excel",
+                                                       new byte[1024 * 1024]);
+
+        String captured = capture.capture(null, new Object[]{records, file});
+        assertTrue(captured.startsWith("[{\"type\":\"ArrayList\",\"size\":10000,\"items\":[{\"companyName\":\"公司0\"},"
+                                       + "{\"companyName\":\"公司1\"}]}"), captured);
+        assertTrue(captured.contains("{\"file\":\"records.xlsx\",\"size\":1048576"), captured);
+    }
+
+    @Test
+    void outputIsCappedInUtf8Bytes() {
+        String huge = "简历".repeat(100000);
+
+        String captured = capture.capture(null, new Object[]{huge});
+        assertTrue(captured.endsWith(ParameterCapture.TRUNCATED));
+        String body = captured.substring(0, captured.length() - ParameterCapture.TRUNCATED.length());
+        assertTrue(body.getBytes(StandardCharsets.UTF_8).length <= 512);
+        assertFalse(body.contains("�"));
+    }
+
+    @SuppressWarnings("unused")
+    private void handler(String username, @Sensitive String code) {
+    }
+
+    @SuppressWarnings("unused")
+    private void changePassword(String username, String newPassword) {
+    }
+}
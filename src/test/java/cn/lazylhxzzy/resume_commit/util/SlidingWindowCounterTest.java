@@ -0,0 +1,49 @@
+package cn.lazylhxzzy.resume_commit.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 滑动窗口计数器测试
+ */
+class SlidingWindowCounterTest {
+
+    private static final long START = 1_700_000_000L;
+
+    @Test
+    void countsExpireAsWindowSlides() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(10);
+
+        counter.add(START, 3);
+        counter.add(START + 5, 2);
+
+        assertEquals(5, counter.total(START + 9));
+        assertEquals(2, counter.total(START + 10));
+        assertEquals(0, counter.total(START + 15));
+    }
+
+    @Test
+    void backfilledSecondsLandInTheirOwnBucket() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60);
+        counter.total(START + 100);
+
+        counter.add(START + 50, 4);
+        counter.add(START + 30, 7); // 早于窗口起点，忽略
+
+        assertEquals(4, counter.total(START + 100));
+        assertEquals(5, counter.add(START + 100, 1));
+        assertEquals(1, counter.total(START + 110));
+    }
+
+    @Test
+    void longGapClearsWholeWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(300);
+        for (int i = 0; i < 300; i++) {
+            counter.add(START + i, 1);
+        }
+
+        assertEquals(300, counter.total(START + 299));
+        assertEquals(1, counter.add(START + 10_000, 1));
+    }
+}